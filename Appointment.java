@@ -1,16 +1,23 @@
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Objects;
 
 public class Appointment {
+    private static final IdAllocator IDS = new IdAllocator();
+
+    private long id = IDS.next();
     private Pet pet;
     private LocalDateTime dateTime;
     private String reason;
-    private String veterinarian;
+    private Veterinarian veterinarian;
     private int duration;
     private AppointmentStatus status;
+    private volatile int version;
+    private RenderedText formattedDateTime;
+    private RenderedText description;
 
     public static final int DEFAULT_DURATION = 30;
+    public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     public enum AppointmentStatus {
         SCHEDULED, COMPLETED, CANCELLED
@@ -25,11 +32,32 @@ public class Appointment {
         this.status = AppointmentStatus.SCHEDULED;
     }
 
+    private Appointment() {
+    }
+
+    static Appointment restore(Pet pet, LocalDateTime dateTime, String reason, String veterinarian, int duration,
+                               AppointmentStatus status) {
+        if (dateTime == null) {
+            throw new IllegalArgumentException("Appointment date and time cannot be null");
+        }
+        Appointment appointment = new Appointment();
+        appointment.setPet(pet);
+        appointment.dateTime = dateTime;
+        appointment.version++;
+        appointment.setReason(reason);
+        appointment.setVeterinarian(veterinarian);
+        appointment.setDuration(duration);
+        appointment.status = status == null ? AppointmentStatus.SCHEDULED : status;
+        appointment.version++;
+        return appointment;
+    }
+
     public void setPet(Pet pet) {
         if (pet == null) {
             throw new IllegalArgumentException("Pet cannot be null");
         }
         this.pet = pet;
+        version++;
     }
 
     public void setDateTime(LocalDateTime dateTime) {
@@ -40,23 +68,31 @@ public class Appointment {
             throw new IllegalArgumentException("Appointment cannot be in the past");
         }
         this.dateTime = dateTime;
+        version++;
     }
 
     public void setReason(String reason) {
-        if (reason == null || reason.trim().isEmpty()) {
-            throw new IllegalArgumentException("Appointment reason cannot be empty");
-        }
-        this.reason = reason.trim();
+        this.reason = ClinicValidation.reason(reason).orThrow();
+        version++;
     }
 
     public void setVeterinarian(String veterinarian) {
-        if (veterinarian == null || veterinarian.trim().isEmpty()) {
-            throw new IllegalArgumentException("Veterinarian name cannot be empty");
-        }
-        if (!veterinarian.matches("[a-zA-Z ]+")) {
-            throw new IllegalArgumentException("Veterinarian name cannot contain numbers");
+        this.veterinarian = new Veterinarian(veterinarian);
+        version++;
+    }
+
+    public void setVeterinarian(Veterinarian veterinarian) {
+        if (veterinarian == null) {
+            throw new IllegalArgumentException("Veterinarian cannot be null");
         }
-        this.veterinarian = veterinarian.trim();
+        this.veterinarian = veterinarian;
+        version++;
+    }
+
+    // Puts back a slot the appointment already held, which may by now be in the past.
+    void restoreDateTime(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+        version++;
     }
 
     public void setDuration(Integer duration) {
@@ -65,10 +101,30 @@ public class Appointment {
         } else {
             this.duration = duration;
         }
+        version++;
     }
 
     public void setStatus(AppointmentStatus status) {
         this.status = status;
+        version++;
+    }
+
+    void restoreId(long id) {
+        this.id = id;
+        IDS.observe(id);
+    }
+
+    // The highest id handed out, kept in snapshots so ids of deleted or archived records are never reused.
+    static long lastId() {
+        return IDS.peekLast();
+    }
+
+    static void observeId(long id) {
+        IDS.observe(id);
+    }
+
+    public long getId() {
+        return id;
     }
 
     public Pet getPet() {
@@ -83,7 +139,7 @@ public class Appointment {
         return reason;
     }
 
-    public String getVeterinarian() {
+    public Veterinarian getVeterinarian() {
         return veterinarian;
     }
 
@@ -95,26 +151,43 @@ public class Appointment {
         return status;
     }
 
+    // Saving and listing format every appointment's time, so the result is kept until the appointment changes.
     public String getFormattedDateTime() {
-        return dateTime.format(DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy"));
+        int current = version;
+        String text = RenderedText.get(formattedDateTime, current, 0, 0);
+        if (text == null) {
+            text = dateTime.format(DATE_TIME_FORMAT);
+            formattedDateTime = new RenderedText(text, current, 0, 0);
+        }
+        return text;
     }
 
     @Override
     public String toString() {
-        return "appointment for " + pet.getName() + " (" + pet.getOwner().getName() + ") on "
-                + getFormattedDateTime() + " with " + veterinarian + " - " + status
-                + " (duration: " + duration + " mins)\nreason: " + reason;
+        int current = version;
+        Pet currentPet = pet;
+        int petVersion = currentPet.getVersion();
+        Owner owner = currentPet.getOwner();
+        int ownerVersion = owner.getVersion();
+        String text = RenderedText.get(description, current, petVersion, ownerVersion);
+        if (text == null) {
+            text = "appointment for " + currentPet.getName() + " (" + owner.getName() + ") on "
+                    + getFormattedDateTime() + " with " + veterinarian + " - " + status
+                    + " (duration: " + duration + " mins)\nreason: " + reason;
+            description = new RenderedText(text, current, petVersion, ownerVersion);
+        }
+        return text;
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        Appointment that = (Appointment) o;
-        return duration == that.duration &&
-                Objects.equals(pet, that.pet) &&
-                Objects.equals(dateTime, that.dateTime) &&
-                Objects.equals(reason, that.reason) &&
-                Objects.equals(veterinarian, that.veterinarian);
+        return id == ((Appointment) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
     }
 }
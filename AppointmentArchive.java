@@ -0,0 +1,235 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+// Finished appointments kept on disk instead of in memory, one tab-separated line per appointment. Each
+// archive run writes one gzip file per month of appointment date, named appointments-YYYY-MM.N.txt.gz.
+// The file is written under a temporary name and renamed once it is on disk, so a run cut short leaves
+// nothing a query will read, and files are never changed afterwards. A query opens only the months it
+// covers and streams through them line by line, keeping no more than the matches it will return.
+public class AppointmentArchive {
+    private static final String PREFIX = "appointments-";
+    private static final String SUFFIX = ".txt.gz";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final int FIELDS = 9;
+    private static final Comparator<ArchivedAppointment> START_ORDER = Comparator
+            .comparing(ArchivedAppointment::getDateTime)
+            .thenComparingLong(ArchivedAppointment::getId)
+            .thenComparingLong(ArchivedAppointment::getPetId);
+
+    private final Path directory;
+
+    public AppointmentArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Returns once the files are on disk under their final names, so the caller may then drop the
+    // appointments from memory.
+    public void append(Collection<Appointment> appointments) throws IOException {
+        Map<YearMonth, List<Appointment>> byMonth = new TreeMap<>();
+        for (Appointment appointment : appointments) {
+            byMonth.computeIfAbsent(YearMonth.from(appointment.getDateTime()), m -> new ArrayList<>()).add(appointment);
+        }
+        Files.createDirectories(directory);
+        for (Map.Entry<YearMonth, List<Appointment>> month : byMonth.entrySet()) {
+            Path target = nextFile(month.getKey());
+            Path temporary = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+                GZIPOutputStream gzip = new GZIPOutputStream(file, 64 * 1024);
+                Writer out = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+                for (Appointment appointment : month.getValue()) {
+                    writeLine(out, ArchivedAppointment.of(appointment));
+                }
+                out.flush();
+                gzip.finish();
+                file.getChannel().force(true);
+            } catch (IOException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target);
+            }
+        }
+        syncDirectory();
+    }
+
+    // The renames must reach the disk before the caller journals the removals. Some platforms cannot open
+    // a directory for syncing; there the rename is as durable as the file system makes it anyway.
+    private void syncDirectory() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    // Archived appointments starting on or after from and before to, in start order, up to limit. An
+    // appointment archived twice, because a crash came between archiving it and journaling its removal,
+    // is reported once: the copies match in id, start and pet.
+    public List<ArchivedAppointment> find(LocalDate from, LocalDate to, Predicate<ArchivedAppointment> filter,
+                                          int limit) throws IOException {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atStartOfDay();
+        List<ArchivedAppointment> found = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(from); month.atDay(1).isBefore(to) && found.size() < limit;
+             month = month.plusMonths(1)) {
+            int wanted = limit - found.size();
+            TreeSet<ArchivedAppointment> matches = new TreeSet<>(START_ORDER);
+            for (Path file : filesFor(month)) {
+                read(file, archived -> {
+                    if (!archived.getDateTime().isBefore(start) && archived.getDateTime().isBefore(end)
+                            && (filter == null || filter.test(archived))) {
+                        matches.add(archived);
+                        if (matches.size() > wanted) {
+                            matches.pollLast();
+                        }
+                    }
+                });
+            }
+            found.addAll(matches);
+        }
+        return found;
+    }
+
+    // The months that have an archive file, oldest first.
+    public List<YearMonth> getMonths() throws IOException {
+        List<YearMonth> months = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return months;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    YearMonth month = YearMonth.parse(name.substring(PREFIX.length(), PREFIX.length() + 7), MONTH);
+                    if (!months.contains(month)) {
+                        months.add(month);
+                    }
+                } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+                    // not one of ours
+                }
+            }
+        }
+        Collections.sort(months);
+        return months;
+    }
+
+    private List<Path> filesFor(YearMonth month) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory, PREFIX + month.format(MONTH) + "*" + SUFFIX)) {
+            listing.forEach(files::add);
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    // One past the highest run number already used for the month.
+    private Path nextFile(YearMonth month) throws IOException {
+        String stem = PREFIX + month.format(MONTH) + ".";
+        int run = 0;
+        for (Path file : filesFor(month)) {
+            String name = file.getFileName().toString();
+            if (name.startsWith(stem)) {
+                try {
+                    run = Math.max(run, Integer.parseInt(name.substring(stem.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return directory.resolve(stem + (run + 1) + SUFFIX);
+    }
+
+    // Files only appear once complete, so a bad line or a truncated stream means the file was damaged
+    // afterwards, and that is reported rather than read past.
+    private static void read(Path file, Consumer<ArchivedAppointment> sink) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file), 64 * 1024), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                ArchivedAppointment parsed = parseLine(line);
+                if (parsed == null) {
+                    throw new IOException("Archive file " + file + " is damaged at line " + lineNumber);
+                }
+                sink.accept(parsed);
+            }
+        } catch (EOFException | ZipException e) {
+            throw new IOException("Archive file " + file + " is damaged: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeLine(Writer out, ArchivedAppointment archived) throws IOException {
+        out.write(Long.toString(archived.getId()));
+        out.write('\t');
+        out.write(archived.getDateTime().format(Appointment.DATE_TIME_FORMAT));
+        out.write('\t');
+        out.write(Integer.toString(archived.getDuration()));
+        out.write('\t');
+        out.write(archived.getStatus().name());
+        out.write('\t');
+        out.write(Long.toString(archived.getPetId()));
+        out.write('\t');
+        out.write(clean(archived.getPetName()));
+        out.write('\t');
+        out.write(clean(archived.getOwnerName()));
+        out.write('\t');
+        out.write(clean(archived.getVeterinarian()));
+        out.write('\t');
+        out.write(clean(archived.getReason()));
+        out.write('\n');
+    }
+
+    private static ArchivedAppointment parseLine(String line) {
+        String[] fields = line.split("\t", FIELDS);
+        if (fields.length != FIELDS) {
+            return null;
+        }
+        try {
+            return new ArchivedAppointment(Long.parseLong(fields[0]),
+                    LocalDateTime.parse(fields[1], Appointment.DATE_TIME_FORMAT), Integer.parseInt(fields[2]),
+                    Appointment.AppointmentStatus.valueOf(fields[3]), Long.parseLong(fields[4]),
+                    fields[5], fields[6], fields[7], fields[8]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Tabs and line breaks would split the record, so they are stored as spaces.
+    private static String clean(String text) {
+        return text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
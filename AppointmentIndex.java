@@ -0,0 +1,154 @@
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Appointments in start order, partitioned by status for the whole clinic and again per vet. A query
+// seeks to its start in each wanted partition and merges them, so a page costs O(log n + page size)
+// however many appointments fall outside the range. Sort keys must not change while an appointment is
+// indexed: callers remove it, change it, and add it back.
+public class AppointmentIndex {
+    private final Partitions clinic = new Partitions();
+    private final Map<Veterinarian, Partitions> byVeterinarian = new ConcurrentHashMap<>();
+
+    public void add(Appointment appointment) {
+        clinic.add(appointment);
+        byVeterinarian.computeIfAbsent(appointment.getVeterinarian(), v -> new Partitions()).add(appointment);
+    }
+
+    public void remove(Appointment appointment) {
+        clinic.remove(appointment);
+        Partitions partitions = byVeterinarian.get(appointment.getVeterinarian());
+        if (partitions != null) {
+            partitions.remove(appointment);
+        }
+    }
+
+    public void clear() {
+        clinic.clear();
+        byVeterinarian.clear();
+    }
+
+    public AppointmentPage query(AppointmentQuery query) {
+        Partitions partitions = query.getVeterinarian() == null ? clinic : byVeterinarian.get(query.getVeterinarian());
+        if (partitions == null) {
+            return new AppointmentPage(Collections.emptyList(), null);
+        }
+
+        TimeKey lower = query.getFrom() == null ? null : new TimeKey(query.getFrom(), Long.MIN_VALUE);
+        boolean lowerInclusive = true;
+        if (query.getAfterDateTime() != null) {
+            TimeKey after = new TimeKey(query.getAfterDateTime(), query.getAfterId());
+            if (lower == null || after.compareTo(lower) >= 0) {
+                lower = after;
+                lowerInclusive = false;
+            }
+        }
+        TimeKey upper = query.getTo() == null ? null : new TimeKey(query.getTo(), Long.MIN_VALUE);
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            return new AppointmentPage(Collections.emptyList(), null);
+        }
+
+        List<Iterator<Appointment>> sources = new ArrayList<>();
+        for (Appointment.AppointmentStatus status : query.getStatuses()) {
+            NavigableMap<TimeKey, Appointment> range = partitions.byStatus.get(status);
+            if (lower != null) {
+                range = range.tailMap(lower, lowerInclusive);
+            }
+            if (upper != null) {
+                range = range.headMap(upper, false);
+            }
+            sources.add(range.values().iterator());
+        }
+
+        // Merge the per-status runs; there are at most three, so a linear pick beats a heap.
+        Appointment[] heads = new Appointment[sources.size()];
+        for (int i = 0; i < heads.length; i++) {
+            heads[i] = next(sources.get(i));
+        }
+        List<Appointment> page = new ArrayList<>(Math.min(query.getLimit(), 256));
+        while (true) {
+            int smallest = -1;
+            for (int i = 0; i < heads.length; i++) {
+                if (heads[i] != null && (smallest < 0 || TimeKey.compare(heads[i], heads[smallest]) < 0)) {
+                    smallest = i;
+                }
+            }
+            if (smallest < 0) {
+                return new AppointmentPage(page, null);
+            }
+            Appointment candidate = heads[smallest];
+            heads[smallest] = next(sources.get(smallest));
+            if (query.getFilter() != null && !query.getFilter().test(candidate)) {
+                continue;
+            }
+            if (page.size() == query.getLimit()) {
+                return new AppointmentPage(page, AppointmentQuery.cursorOf(page.get(page.size() - 1)));
+            }
+            page.add(candidate);
+        }
+    }
+
+    private static Appointment next(Iterator<Appointment> source) {
+        return source.hasNext() ? source.next() : null;
+    }
+
+    private static class Partitions {
+        private final Map<Appointment.AppointmentStatus, NavigableMap<TimeKey, Appointment>> byStatus =
+                new EnumMap<>(Appointment.AppointmentStatus.class);
+
+        Partitions() {
+            for (Appointment.AppointmentStatus status : Appointment.AppointmentStatus.values()) {
+                byStatus.put(status, new ConcurrentSkipListMap<>());
+            }
+        }
+
+        void add(Appointment appointment) {
+            byStatus.get(appointment.getStatus()).put(new TimeKey(appointment), appointment);
+        }
+
+        void remove(Appointment appointment) {
+            byStatus.get(appointment.getStatus()).remove(new TimeKey(appointment));
+        }
+
+        void clear() {
+            byStatus.values().forEach(Map::clear);
+        }
+    }
+
+    // Start time, then id, so appointments at the same moment keep a stable order across pages.
+    private static final class TimeKey implements Comparable<TimeKey> {
+        private final LocalDateTime dateTime;
+        private final long id;
+
+        TimeKey(Appointment appointment) {
+            this(appointment.getDateTime(), appointment.getId());
+        }
+
+        TimeKey(LocalDateTime dateTime, long id) {
+            this.dateTime = dateTime;
+            this.id = id;
+        }
+
+        static int compare(Appointment a, Appointment b) {
+            int order = a.getDateTime().compareTo(b.getDateTime());
+            return order != 0 ? order : Long.compare(a.getId(), b.getId());
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int order = dateTime.compareTo(other.dateTime);
+            return order != 0 ? order : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TimeKey && compareTo((TimeKey) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * dateTime.hashCode() + Long.hashCode(id);
+        }
+    }
+}
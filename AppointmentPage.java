@@ -0,0 +1,24 @@
+import java.util.List;
+
+public class AppointmentPage {
+    private final List<Appointment> appointments;
+    private final String nextCursor;
+
+    AppointmentPage(List<Appointment> appointments, String nextCursor) {
+        this.appointments = appointments;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Appointment> getAppointments() {
+        return appointments;
+    }
+
+    // Null on the last page.
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
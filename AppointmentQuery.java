@@ -0,0 +1,125 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+// Filters for ClinicService.findAppointments. Every filter is optional; results come in start order.
+// A page ends with a cursor that is passed back through after() to fetch the next one.
+public class AppointmentQuery {
+    public static final int DEFAULT_LIMIT = 20;
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Set<Appointment.AppointmentStatus> statuses = EnumSet.allOf(Appointment.AppointmentStatus.class);
+    private Veterinarian veterinarian;
+    private Predicate<Appointment> filter;
+    private LocalDateTime afterDateTime;
+    private long afterId;
+    private int limit = DEFAULT_LIMIT;
+
+    // Appointments starting at or after this moment.
+    public AppointmentQuery from(LocalDateTime from) {
+        this.from = from;
+        return this;
+    }
+
+    // Appointments starting before this moment.
+    public AppointmentQuery to(LocalDateTime to) {
+        this.to = to;
+        return this;
+    }
+
+    public AppointmentQuery status(Appointment.AppointmentStatus status) {
+        this.statuses = status == null ? EnumSet.allOf(Appointment.AppointmentStatus.class) : EnumSet.of(status);
+        return this;
+    }
+
+    public AppointmentQuery statuses(Set<Appointment.AppointmentStatus> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            throw new IllegalArgumentException("At least one status is required");
+        }
+        this.statuses = EnumSet.copyOf(statuses);
+        return this;
+    }
+
+    public AppointmentQuery veterinarian(Veterinarian veterinarian) {
+        this.veterinarian = veterinarian;
+        return this;
+    }
+
+    // Checked against each candidate in time order, so a selective filter costs more than a page.
+    public AppointmentQuery matching(Predicate<Appointment> filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    public AppointmentQuery limit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public AppointmentQuery after(String cursor) {
+        if (cursor == null) {
+            afterDateTime = null;
+            return this;
+        }
+        int separator = cursor.indexOf('.');
+        try {
+            afterDateTime = LocalDateTime.ofEpochSecond(Long.parseLong(cursor.substring(0, separator)), 0, ZoneOffset.UTC);
+            afterId = Long.parseLong(cursor.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor '" + cursor + "'");
+        }
+        return this;
+    }
+
+    // The same test the index applies, for appointments found some other way.
+    boolean accepts(Appointment appointment) {
+        LocalDateTime start = appointment.getDateTime();
+        return (from == null || !start.isBefore(from))
+                && (to == null || start.isBefore(to))
+                && statuses.contains(appointment.getStatus())
+                && (veterinarian == null || veterinarian.equals(appointment.getVeterinarian()))
+                && (filter == null || filter.test(appointment));
+    }
+
+    static String cursorOf(Appointment appointment) {
+        return appointment.getDateTime().toEpochSecond(ZoneOffset.UTC) + "." + appointment.getId();
+    }
+
+    LocalDateTime getFrom() {
+        return from;
+    }
+
+    LocalDateTime getTo() {
+        return to;
+    }
+
+    Set<Appointment.AppointmentStatus> getStatuses() {
+        return statuses;
+    }
+
+    Veterinarian getVeterinarian() {
+        return veterinarian;
+    }
+
+    Predicate<Appointment> getFilter() {
+        return filter;
+    }
+
+    LocalDateTime getAfterDateTime() {
+        return afterDateTime;
+    }
+
+    long getAfterId() {
+        return afterId;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,452 @@
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Every vet and every pet has a calendar of its own, one DaySchedule per day they have bookings on, so an
+// appointment only conflicts with the vet's other patients and the pet's other visits. Locks are striped
+// by day rather than by calendar: a booking checks two calendars, and both must hold still while it does.
+public class AppointmentSchedule {
+    private static final int STRIPES = 64;
+    public static final int SLOT_STEP_MINUTES = 15;
+    private static final Comparator<Appointment> BY_START = Comparator.comparing(Appointment::getDateTime);
+
+    private final Map<CalendarDay, DaySchedule> days = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public AppointmentSchedule() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void add(Appointment appointment) {
+        if (appointment.getStatus() == Appointment.AppointmentStatus.CANCELLED) {
+            return;
+        }
+        locked(appointment, appointment.getDateTime(), appointment.getDuration(), () -> {
+            LocalDateTime start = appointment.getDateTime();
+            LocalDateTime end = start.plusMinutes(appointment.getDuration());
+            for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+                addTo(new CalendarDay(appointment.getVeterinarian(), day), appointment);
+                addTo(new CalendarDay(appointment.getPet(), day), appointment);
+            }
+            return null;
+        });
+    }
+
+    public void remove(Appointment appointment) {
+        locked(appointment, appointment.getDateTime(), appointment.getDuration(), () -> {
+            LocalDateTime start = appointment.getDateTime();
+            LocalDateTime end = start.plusMinutes(appointment.getDuration());
+            for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+                removeFrom(new CalendarDay(appointment.getVeterinarian(), day), appointment);
+                removeFrom(new CalendarDay(appointment.getPet(), day), appointment);
+            }
+            return null;
+        });
+    }
+
+    public void clear() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            days.clear();
+        } finally {
+            for (ReentrantLock stripe : stripes) {
+                stripe.unlock();
+            }
+        }
+    }
+
+    private void addTo(CalendarDay key, Appointment appointment) {
+        days.computeIfAbsent(key, d -> new DaySchedule()).add(appointment);
+    }
+
+    private void removeFrom(CalendarDay key, Appointment appointment) {
+        DaySchedule schedule = days.get(key);
+        if (schedule != null && schedule.remove(appointment) && schedule.isEmpty()) {
+            days.remove(key);
+        }
+    }
+
+    // The appointment that keeps either the vet or the pet busy during the slot; a null vet or pet is not checked.
+    public Appointment findConflict(LocalDateTime start, int durationMinutes, Veterinarian veterinarian, Pet pet,
+                                    Appointment ignore) {
+        return locked(null, start, durationMinutes, () -> {
+            Appointment conflict = veterinarian == null ? null
+                    : findConflictLocked(veterinarian, start, durationMinutes, ignore);
+            return conflict != null || pet == null ? conflict : findConflictLocked(pet, start, durationMinutes, ignore);
+        });
+    }
+
+    // One vet's bookings touching the given day, in start order, read from that vet's calendar alone.
+    public List<Appointment> getDay(Veterinarian veterinarian, LocalDate day) {
+        return locked(null, day.atStartOfDay(), 24 * 60, () -> {
+            DaySchedule schedule = days.get(new CalendarDay(veterinarian, day));
+            List<Appointment> appointments = new ArrayList<>(schedule == null ? 0 : schedule.size);
+            if (schedule != null) {
+                schedule.byStart.values().forEach(appointments::addAll);
+            }
+            return appointments;
+        });
+    }
+
+    // Runs action while holding the locks of every day the appointment currently occupies and of every
+    // day in the given slot, so no other desk can book, move or edit anything there in the meantime.
+    public <T> T lockDays(Appointment appointment, LocalDateTime start, int durationMinutes, Supplier<T> action) {
+        return locked(appointment, start, durationMinutes, action);
+    }
+
+    // As above for a change that may keep the appointment's start or duration: a null start or duration
+    // stands for the appointment's own, as it is once the locks are held.
+    public <T> T lockChange(Appointment appointment, LocalDateTime start, Integer durationMinutes, Supplier<T> action) {
+        return locked(appointment, start, durationMinutes, action);
+    }
+
+    // Runs action while holding the locks of every day any of the appointments occupies. The appointments
+    // must not move while it runs, which holds for a batch that is not booked yet.
+    public <T> T lockDays(Collection<Appointment> appointments, Supplier<T> action) {
+        BitSet held = new BitSet(STRIPES);
+        for (Appointment appointment : appointments) {
+            markDays(held, appointment.getDateTime(), appointment.getDuration());
+        }
+        lockStripes(held);
+        try {
+            return action.get();
+        } finally {
+            unlockStripes(held);
+        }
+    }
+
+    // Checks a batch of new appointments against the calendars and against each other in one pass over the
+    // batch in start order: per vet and per pet it remembers the batch appointment that runs latest, so an
+    // overlap inside the batch is a single comparison. Returns each appointment that cannot be booked,
+    // in start order, mapped to one appointment that blocks it.
+    public Map<Appointment, Appointment> findConflicts(List<Appointment> batch) {
+        List<Appointment> sorted = new ArrayList<>(batch);
+        sorted.sort(BY_START);
+        return lockDays(sorted, () -> {
+            Map<Appointment, Appointment> conflicts = new LinkedHashMap<>();
+            Map<Object, Appointment> runningLatest = new HashMap<>();
+            for (Appointment appointment : sorted) {
+                if (appointment.getStatus() == Appointment.AppointmentStatus.CANCELLED) {
+                    continue;
+                }
+                LocalDateTime start = appointment.getDateTime();
+                Appointment blocking = findConflictLocked(appointment.getVeterinarian(), start, appointment.getDuration(), null);
+                if (blocking == null) {
+                    blocking = findConflictLocked(appointment.getPet(), start, appointment.getDuration(), null);
+                }
+                if (blocking == null) {
+                    blocking = stillRunning(runningLatest.get(appointment.getVeterinarian()), start);
+                }
+                if (blocking == null) {
+                    blocking = stillRunning(runningLatest.get(appointment.getPet()), start);
+                }
+                if (blocking != null) {
+                    conflicts.put(appointment, blocking);
+                }
+                runningLatest.merge(appointment.getVeterinarian(), appointment, AppointmentSchedule::endsLater);
+                runningLatest.merge(appointment.getPet(), appointment, AppointmentSchedule::endsLater);
+            }
+            return conflicts;
+        });
+    }
+
+    private static Appointment stillRunning(Appointment appointment, LocalDateTime start) {
+        return appointment != null && end(appointment).isAfter(start) ? appointment : null;
+    }
+
+    private static Appointment endsLater(Appointment a, Appointment b) {
+        return end(b).isAfter(end(a)) ? b : a;
+    }
+
+    private static LocalDateTime end(Appointment appointment) {
+        return appointment.getDateTime().plusMinutes(Math.max(appointment.getDuration(), 1));
+    }
+
+    // Earliest free starts on the SLOT_STEP_MINUTES grid that fit entirely between opening and closing
+    // time, from the given moment up to and including lastDay, when the pet and at least one of the vets
+    // are free. Each start is offered once, with the first vet (in the given order) who can take it. Days
+    // without bookings are free outright; the rest answer from cached gap lists, intersected per vet.
+    public List<Slot> findFreeSlots(LocalDateTime from, LocalDate lastDay, LocalTime opening, LocalTime closing,
+                                    int durationMinutes, int count, Collection<Veterinarian> veterinarians, Pet pet) {
+        List<Slot> slots = new ArrayList<>(count);
+        int open = opening.toSecondOfDay() / 60;
+        int close = closing.toSecondOfDay() / 60;
+        int duration = Math.max(durationMinutes, 1);
+        Collection<Veterinarian> candidates = veterinarians.isEmpty()
+                ? Collections.singletonList(null) : veterinarians;
+        boolean[] free = new boolean[24 * 60 / SLOT_STEP_MINUTES];
+        Veterinarian[] byStep = new Veterinarian[free.length];
+        for (LocalDate day = from.toLocalDate(); !day.isAfter(lastDay) && slots.size() < count; day = day.plusDays(1)) {
+            int earliest = day.equals(from.toLocalDate())
+                    ? Math.max(open, from.getHour() * 60 + from.getMinute() + (from.getSecond() > 0 || from.getNano() > 0 ? 1 : 0))
+                    : open;
+            LocalDate current = day;
+            Arrays.fill(free, false);
+            Arrays.fill(byStep, null);
+            locked(null, day.atStartOfDay(), 24 * 60, () -> {
+                int[] petGaps = pet == null ? null : gaps(pet, current, open, close);
+                for (Veterinarian veterinarian : candidates) {
+                    int[] gaps = veterinarian == null ? (petGaps == null ? new int[]{open, close} : petGaps)
+                            : petGaps == null ? gaps(veterinarian, current, open, close)
+                            : intersect(gaps(veterinarian, current, open, close), petGaps);
+                    for (int i = 0; i < gaps.length; i += 2) {
+                        int start = Math.max(gaps[i], earliest);
+                        start = (start + SLOT_STEP_MINUTES - 1) / SLOT_STEP_MINUTES * SLOT_STEP_MINUTES;
+                        for (; start + duration <= gaps[i + 1]; start += SLOT_STEP_MINUTES) {
+                            int step = start / SLOT_STEP_MINUTES;
+                            if (!free[step]) {
+                                free[step] = true;
+                                byStep[step] = veterinarian;
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+            for (int step = 0; step < free.length && slots.size() < count; step++) {
+                if (free[step]) {
+                    slots.add(new Slot(day.atStartOfDay().plusMinutes(step * SLOT_STEP_MINUTES), byStep[step]));
+                }
+            }
+        }
+        return slots;
+    }
+
+    private Appointment findConflictLocked(Object calendar, LocalDateTime start, int durationMinutes, Appointment ignore) {
+        LocalDateTime end = start.plusMinutes(Math.max(durationMinutes, 1));
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            DaySchedule schedule = days.get(new CalendarDay(calendar, day));
+            if (schedule == null) {
+                continue;
+            }
+            Appointment conflict = schedule.findConflict(start, end, ignore);
+            if (conflict != null) {
+                return conflict;
+            }
+        }
+        return null;
+    }
+
+    private int[] gaps(Object calendar, LocalDate day, int open, int close) {
+        DaySchedule schedule = days.get(new CalendarDay(calendar, day));
+        return schedule == null ? new int[]{open, close} : schedule.gaps(day, open, close);
+    }
+
+    // Both arguments are sorted, disjoint [start, end) minute pairs; so is the result.
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int length = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            int start = Math.max(a[i], b[j]);
+            int end = Math.min(a[i + 1], b[j + 1]);
+            if (start < end) {
+                result[length++] = start;
+                result[length++] = end;
+            }
+            if (a[i + 1] < b[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    // Locks the stripes of every day touched by the appointment's current slot and by the given slot, in
+    // stripe order so that overlapping requests cannot deadlock. If the appointment was moved by another
+    // desk between reading its slot and acquiring the locks, the locks are released and taken again.
+    private <T> T locked(Appointment appointment, LocalDateTime start, Integer durationMinutes, Supplier<T> action) {
+        while (true) {
+            LocalDateTime current = appointment == null ? null : appointment.getDateTime();
+            int currentDuration = appointment == null ? 0 : appointment.getDuration();
+
+            BitSet held = new BitSet(STRIPES);
+            markDays(held, start != null ? start : current, durationMinutes != null ? durationMinutes : currentDuration);
+            if (current != null) {
+                markDays(held, current, currentDuration);
+            }
+            lockStripes(held);
+            try {
+                if (appointment == null || (current.equals(appointment.getDateTime()) &&
+                        currentDuration == appointment.getDuration())) {
+                    return action.get();
+                }
+            } finally {
+                unlockStripes(held);
+            }
+        }
+    }
+
+    private void lockStripes(BitSet held) {
+        for (int i = held.nextSetBit(0); i >= 0; i = held.nextSetBit(i + 1)) {
+            stripes[i].lock();
+        }
+    }
+
+    private void unlockStripes(BitSet held) {
+        for (int i = held.nextSetBit(0); i >= 0; i = held.nextSetBit(i + 1)) {
+            stripes[i].unlock();
+        }
+    }
+
+    private static void markDays(BitSet held, LocalDateTime start, int durationMinutes) {
+        LocalDateTime end = start.plusMinutes(Math.max(durationMinutes, 1));
+        LocalDate day = start.toLocalDate();
+        for (int i = 0; i < STRIPES && day.atStartOfDay().isBefore(end); i++, day = day.plusDays(1)) {
+            held.set((int) Math.floorMod(day.toEpochDay(), (long) STRIPES));
+        }
+    }
+
+    public static class Slot {
+        private final LocalDateTime start;
+        private final Veterinarian veterinarian;
+
+        Slot(LocalDateTime start, Veterinarian veterinarian) {
+            this.start = start;
+            this.veterinarian = veterinarian;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        // Null when the clinic has no vets on record yet, so any vet can take the slot.
+        public Veterinarian getVeterinarian() {
+            return veterinarian;
+        }
+
+        @Override
+        public String toString() {
+            String time = start.format(Appointment.DATE_TIME_FORMAT);
+            return veterinarian == null ? time : time + " with " + veterinarian.getName();
+        }
+    }
+
+    // A day in the calendar of one vet or one pet.
+    private static final class CalendarDay {
+        private final Object calendar;
+        private final LocalDate day;
+
+        CalendarDay(Object calendar, LocalDate day) {
+            this.calendar = calendar;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CalendarDay)) return false;
+            CalendarDay other = (CalendarDay) o;
+            return calendar.equals(other.calendar) && day.equals(other.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * calendar.hashCode() + day.hashCode();
+        }
+    }
+
+    private static class DaySchedule {
+        private final TreeMap<LocalDateTime, List<Appointment>> byStart = new TreeMap<>();
+        private int maxDuration;
+        private int size;
+        private int[] gaps;
+        private int gapsOpen;
+        private int gapsClose;
+
+        void add(Appointment appointment) {
+            byStart.computeIfAbsent(appointment.getDateTime(), t -> new ArrayList<>(1)).add(appointment);
+            maxDuration = Math.max(maxDuration, appointment.getDuration());
+            size++;
+            gaps = null;
+        }
+
+        boolean remove(Appointment appointment) {
+            List<Appointment> atStart = byStart.get(appointment.getDateTime());
+            if (atStart == null) {
+                return false;
+            }
+            for (Iterator<Appointment> it = atStart.iterator(); it.hasNext(); ) {
+                if (it.next() == appointment) {
+                    it.remove();
+                    if (atStart.isEmpty()) {
+                        byStart.remove(appointment.getDateTime());
+                    }
+                    size--;
+                    gaps = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        // Free intervals inside [open, close) as minute-of-day pairs, rebuilt only after a change.
+        int[] gaps(LocalDate day, int open, int close) {
+            if (gaps != null && gapsOpen == open && gapsClose == close) {
+                return gaps;
+            }
+            LocalDateTime midnight = day.atStartOfDay();
+            LocalDateTime windowStart = midnight.plusMinutes(open);
+            LocalDateTime windowEnd = midnight.plusMinutes(close);
+            int[] free = new int[8];
+            int length = 0;
+            int cursor = open;
+            for (List<Appointment> atStart : byStart.subMap(windowStart.minusMinutes(maxDuration), false, windowEnd, false).values()) {
+                for (Appointment appointment : atStart) {
+                    LocalDateTime end = appointment.getDateTime().plusMinutes(appointment.getDuration());
+                    if (!end.isAfter(windowStart)) {
+                        continue;
+                    }
+                    int startMinute = appointment.getDateTime().isBefore(windowStart) ? open
+                            : appointment.getDateTime().toLocalTime().toSecondOfDay() / 60;
+                    int endMinute = end.isAfter(windowEnd) ? close : end.toLocalTime().toSecondOfDay() / 60;
+                    if (startMinute > cursor) {
+                        if (length == free.length) {
+                            free = Arrays.copyOf(free, length * 2);
+                        }
+                        free[length++] = cursor;
+                        free[length++] = startMinute;
+                    }
+                    cursor = Math.max(cursor, endMinute);
+                }
+            }
+            if (cursor < close) {
+                if (length == free.length) {
+                    free = Arrays.copyOf(free, length + 2);
+                }
+                free[length++] = cursor;
+                free[length++] = close;
+            }
+            gaps = Arrays.copyOf(free, length);
+            gapsOpen = open;
+            gapsClose = close;
+            return gaps;
+        }
+
+        Appointment findConflict(LocalDateTime start, LocalDateTime end, Appointment ignore) {
+            // Nothing starting before start - maxDuration can still be running at start.
+            LocalDateTime earliest = start.minusMinutes(maxDuration);
+            for (List<Appointment> atStart : byStart.subMap(earliest, false, end, false).values()) {
+                for (Appointment existing : atStart) {
+                    if (existing != ignore &&
+                            existing.getDateTime().plusMinutes(existing.getDuration()).isAfter(start)) {
+                        return existing;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import java.time.LocalDateTime;
+
+// A finished appointment as the archive stores it. The pet may since have been deleted, so it carries the
+// names it was booked under rather than a Pet.
+public class ArchivedAppointment {
+    private final long id;
+    private final LocalDateTime dateTime;
+    private final int duration;
+    private final Appointment.AppointmentStatus status;
+    private final long petId;
+    private final String petName;
+    private final String ownerName;
+    private final String veterinarian;
+    private final String reason;
+
+    ArchivedAppointment(long id, LocalDateTime dateTime, int duration, Appointment.AppointmentStatus status, long petId,
+                        String petName, String ownerName, String veterinarian, String reason) {
+        this.id = id;
+        this.dateTime = dateTime;
+        this.duration = duration;
+        this.status = status;
+        this.petId = petId;
+        this.petName = petName;
+        this.ownerName = ownerName;
+        this.veterinarian = veterinarian;
+        this.reason = reason;
+    }
+
+    static ArchivedAppointment of(Appointment appointment) {
+        Pet pet = appointment.getPet();
+        return new ArchivedAppointment(appointment.getId(), appointment.getDateTime(), appointment.getDuration(),
+                appointment.getStatus(), pet.getId(), pet.getName(), pet.getOwner().getName(),
+                appointment.getVeterinarian().getName(), appointment.getReason());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public Appointment.AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public long getPetId() {
+        return petId;
+    }
+
+    public String getPetName() {
+        return petName;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public String getVeterinarian() {
+        return veterinarian;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "appointment for " + petName + " (" + ownerName + ") on " + dateTime.format(Appointment.DATE_TIME_FORMAT)
+                + " with " + veterinarian + " - " + status + " (duration: " + duration + " mins)\nreason: " + reason;
+    }
+}
@@ -0,0 +1,159 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class BulkPetImporter {
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int BOUNDARY_SCAN_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public BulkPetImporter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkPetImporter(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public Result importPets(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel);
+            List<ChunkTask> tasks = new ArrayList<>(chunks.size());
+            for (long[] chunk : chunks) {
+                tasks.add(new ChunkTask(channel, chunk[0], chunk[1]));
+            }
+            for (ChunkTask task : tasks) {
+                pool.execute(task);
+            }
+
+            List<Pet> pets = new ArrayList<>();
+            LoadReport report = new LoadReport();
+            int lineOffset = 0;
+            for (ChunkTask task : tasks) {
+                ChunkResult chunk = task.join();
+                if (chunk.error != null) {
+                    throw chunk.error;
+                }
+                pets.addAll(chunk.pets);
+                report.merge(chunk.report, lineOffset);
+                lineOffset += chunk.lines;
+            }
+            return new Result(pets, report);
+        }
+    }
+
+    private List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(start + chunkSize, size);
+            while (end < size) {
+                scan.clear();
+                int read = channel.read(scan, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int newline = -1;
+                for (int i = 0; i < read; i++) {
+                    if (scan.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            end = Math.min(end, size);
+            chunks.add(new long[]{start, end - start});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static class ChunkTask extends RecursiveTask<ChunkResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long offset;
+        private final long length;
+
+        ChunkTask(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            ChunkResult result = new ChunkResult();
+            try {
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                CharBuffer chars = decoder.decode(bytes);
+
+                RecordReader record = new RecordReader(chars.array(), chars.limit());
+                while (record.next()) {
+                    Pet pet = ClinicTextFormat.parsePet(record, result.report);
+                    if (pet != null) {
+                        result.pets.add(pet);
+                        result.report.recordSuccess();
+                    }
+                }
+                result.lines = record.getLineNumber();
+            } catch (IOException e) {
+                result.error = e;
+            }
+            return result;
+        }
+    }
+
+    private static class ChunkResult {
+        final List<Pet> pets = new ArrayList<>();
+        final LoadReport report = new LoadReport();
+        int lines;
+        IOException error;
+    }
+
+    public static class Result {
+        private final List<Pet> pets;
+        private final LoadReport report;
+
+        Result(List<Pet> pets, LoadReport report) {
+            this.pets = pets;
+            this.report = report;
+        }
+
+        public List<Pet> getPets() {
+            return pets;
+        }
+
+        public LoadReport getReport() {
+            return report;
+        }
+    }
+}
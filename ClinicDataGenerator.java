@@ -0,0 +1,334 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+// Deterministic synthetic clinics for load and scale testing. Every pet, owner and appointment is derived
+// from the seed and its own index, so files of any size are streamed row by row and the same seed and
+// first day always give the same clinic.
+public class ClinicDataGenerator {
+    static final String[] COLOURS = {"Black", "White", "Brown", "Ginger", "Grey", "Golden", "Cream", "Tabby"};
+    static final String[] DOG_BREEDS = {"Labrador", "Beagle", "Poodle", "Collie", "Boxer", "Pug"};
+    static final String[] CAT_BREEDS = {"Siamese", "Persian", "Bengal", "Sphynx", "Ragdoll"};
+    static final String[] HAMSTER_BREEDS = {"Syrian", "Dwarf", "Roborovski", "Chinese"};
+    // No syllable is a prefix of another, so distinct syllable sequences always spell distinct words.
+    static final String[] SYLLABLES = {"ka", "lo", "mi", "ra", "ben", "to", "su", "del", "fi", "no", "ar", "pe",
+            "sha", "vin", "go", "lu", "mar", "che", "da", "wen", "bo", "ti", "ros", "ky", "el", "han", "zo", "pip"};
+    static final String[] REASONS = {"Vaccination booster", "Dental cleaning", "Annual checkup",
+            "Skin allergy follow-up", "Limping on front leg", "Ear infection", "Weight review", "Stitches removal"};
+    private static final String[] STREETS = {"Street", "Road", "Avenue", "Lane", "Drive", "Close"};
+    private static final int[] DURATIONS = {15, 20, 30};
+
+    public static final int DEFAULT_VETERINARIANS = 20;
+    public static final int SLOT_MINUTES = 30;
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final int PET_STREAM = 1;
+    private static final int OWNER_STREAM = 2;
+    private static final int APPOINTMENT_STREAM = 3;
+
+    private final long seed;
+    private final int petCount;
+    private final int ownerCount;
+    private final int appointmentCount;
+    private final LocalDate firstDay;
+    private final List<String> veterinarians;
+    private final int slotsPerDay;
+    private final int nameSyllables;
+    private final long nameMultiplier;
+    private final long nameOffset;
+    private final long petStride;
+    private final long petOffset;
+
+    public ClinicDataGenerator(long seed, int petCount, int appointmentCount) {
+        this(seed, petCount, appointmentCount, LocalDate.now().plusDays(1));
+    }
+
+    public ClinicDataGenerator(long seed, int petCount, int appointmentCount, LocalDate firstDay) {
+        if (petCount < 0 || appointmentCount < 0) {
+            throw new IllegalArgumentException("Pet and appointment counts cannot be negative");
+        }
+        if (appointmentCount > 0 && petCount == 0) {
+            throw new IllegalArgumentException("Appointments need at least one pet");
+        }
+        if (firstDay == null || firstDay.isBefore(LocalDate.now().plusDays(1))) {
+            throw new IllegalArgumentException("The first appointment day must be in the future");
+        }
+        this.seed = seed;
+        this.petCount = petCount;
+        this.ownerCount = Math.max(1, petCount / 3);
+        this.appointmentCount = appointmentCount;
+        this.firstDay = firstDay;
+        this.slotsPerDay = (int) (ChronoUnit.MINUTES.between(ClinicService.OPENING_TIME, ClinicService.CLOSING_TIME)
+                / SLOT_MINUTES);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        // Pets sharing a slot must differ, so there are never more vets working than pets to see.
+        Set<String> names = new LinkedHashSet<>();
+        while (names.size() < Math.min(DEFAULT_VETERINARIANS, Math.max(1, petCount))) {
+            names.add("Dr " + word(random, 3));
+        }
+        this.veterinarians = List.copyOf(names);
+
+        // Pet names spell a scrambled index in fixed-length syllables: unique, with no digits to search on.
+        int syllables = 2;
+        long space = (long) SYLLABLES.length * SYLLABLES.length;
+        while (space < petCount) {
+            space *= SYLLABLES.length;
+            syllables++;
+        }
+        this.nameSyllables = syllables;
+        this.nameMultiplier = coprime(random, Math.min(space, Integer.MAX_VALUE), space);
+        this.nameOffset = random.nextLong(space);
+        this.petStride = petCount == 0 ? 1 : coprime(random, petCount, petCount);
+        this.petOffset = petCount == 0 ? 0 : random.nextLong(petCount);
+    }
+
+    // A multiplier below the bound sharing no factor with the modulus, so multiplying permutes the residues.
+    private static long coprime(SplittableRandom random, long bound, long modulus) {
+        while (true) {
+            long candidate = 1 + random.nextLong(bound);
+            if (gcd(candidate, modulus) == 1) {
+                return candidate;
+            }
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    static String word(RandomGenerator random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+
+    private SplittableRandom random(int stream, long index) {
+        return new SplittableRandom(seed ^ (stream * 0x9E3779B97F4A7C15L) ^ (index * 0xBF58476D1CE4E5B9L));
+    }
+
+    public int getPetCount() {
+        return petCount;
+    }
+
+    public int getAppointmentCount() {
+        return appointmentCount;
+    }
+
+    public List<String> getVeterinarians() {
+        return veterinarians;
+    }
+
+    public String petName(int index) {
+        long value = (index * nameMultiplier + nameOffset) % pow(SYLLABLES.length, nameSyllables);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < nameSyllables; i++) {
+            name.append(SYLLABLES[(int) (value % SYLLABLES.length)]);
+            value /= SYLLABLES.length;
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static long pow(long base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+
+    // Each owner gets a unique number in one of the three formats Owner accepts.
+    public Owner owner(int index) {
+        SplittableRandom random = random(OWNER_STREAM, index);
+        String name = word(random, 2) + " " + word(random, 2 + random.nextInt(2));
+        String address = (1 + random.nextInt(250)) + " " + word(random, 2) + " "
+                + STREETS[random.nextInt(STREETS.length)];
+        return new Owner(name, phoneNumber(index), address);
+    }
+
+    // As typed, with the spacing Owner strips when it normalizes the number.
+    public static String phoneNumber(int ownerIndex) {
+        String digits = String.format("%09d", ownerIndex / 3);
+        switch (ownerIndex % 3) {
+            case 0: return "07" + digits.substring(0, 3) + " " + digits.substring(3);
+            case 1: return "+44 7" + digits.substring(0, 3) + " " + digits.substring(3);
+            default: return "01" + digits.substring(1);
+        }
+    }
+
+    public Pet pet(int index) {
+        return pet(index, owner(ownerOf(index)));
+    }
+
+    private int ownerOf(int petIndex) {
+        return random(PET_STREAM, petIndex).nextInt(ownerCount);
+    }
+
+    private Pet pet(int index, Owner owner) {
+        SplittableRandom random = random(PET_STREAM, index);
+        random.nextInt(ownerCount);
+        String name = petName(index);
+        int age = 1 + random.nextInt(18);
+        String colour = COLOURS[random.nextInt(COLOURS.length)];
+        switch (random.nextInt(3)) {
+            case 0:
+                return new Pet.Dog(name, age, colour, weight(random, 3, 60),
+                        DOG_BREEDS[random.nextInt(DOG_BREEDS.length)], owner);
+            case 1:
+                return new Pet.Cat(name, age, colour, weight(random, 2, 8),
+                        CAT_BREEDS[random.nextInt(CAT_BREEDS.length)], owner);
+            default:
+                return new Pet.Hamster(name, Math.min(age, 4), colour, weight(random, 0.1, 0.3),
+                        HAMSTER_BREEDS[random.nextInt(HAMSTER_BREEDS.length)], owner);
+        }
+    }
+
+    private static double weight(SplittableRandom random, double low, double high) {
+        return Math.round((low + random.nextDouble() * (high - low)) * 10) / 10.0;
+    }
+
+    // Appointments fill fixed half-hour slots, one per vet, day after day within clinic hours. Pets are
+    // visited in a scrambled order that repeats only once every pet has been seen, so no pet is booked
+    // twice in a slot either.
+    public int petOf(int appointmentIndex) {
+        return (int) (((appointmentIndex % petCount) * petStride + petOffset) % petCount);
+    }
+
+    public LocalDateTime startOf(int appointmentIndex) {
+        int slot = appointmentIndex / veterinarians.size();
+        return firstDay.plusDays(slot / slotsPerDay).atTime(ClinicService.OPENING_TIME)
+                .plusMinutes((long) (slot % slotsPerDay) * SLOT_MINUTES);
+    }
+
+    public String veterinarianOf(int appointmentIndex) {
+        return veterinarians.get(appointmentIndex % veterinarians.size());
+    }
+
+    public Appointment appointment(int index, Pet pet) {
+        SplittableRandom random = random(APPOINTMENT_STREAM, index);
+        Appointment appointment = new Appointment(pet, startOf(index), REASONS[random.nextInt(REASONS.length)],
+                veterinarianOf(index), DURATIONS[random.nextInt(DURATIONS.length)]);
+        if (random.nextInt(20) == 0) {
+            appointment.setStatus(Appointment.AppointmentStatus.CANCELLED);
+        }
+        return appointment;
+    }
+
+    public void writeText(Path petFile, Path appointmentFile) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(petFile)) {
+            for (int i = 0; i < petCount; i++) {
+                ClinicTextFormat.writePet(out, pet(i));
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(appointmentFile)) {
+            for (int i = 0; i < appointmentCount; i++) {
+                ClinicTextFormat.writeAppointment(out, appointment(i, pet(petOf(i))));
+            }
+        }
+    }
+
+    // Ids follow the indexes, so appointments can refer to pets that are no longer in memory.
+    public void writeSnapshot(Path file) throws IOException {
+        BitSet writtenOwners = new BitSet(ownerCount);
+        try (ClinicSnapshot.StreamWriter writer = new ClinicSnapshot.StreamWriter(file)) {
+            for (int i = 0; i < petCount; i++) {
+                int ownerIndex = ownerOf(i);
+                Owner owner = owner(ownerIndex);
+                owner.restoreId(ownerIndex + 1);
+                if (!writtenOwners.get(ownerIndex)) {
+                    writtenOwners.set(ownerIndex);
+                    writer.writeOwner(owner);
+                }
+                Pet pet = pet(i, owner);
+                pet.restoreId(i + 1);
+                writer.writePet(pet);
+            }
+            for (int i = 0; i < appointmentCount; i++) {
+                Pet pet = pet(petOf(i));
+                pet.restoreId(petOf(i) + 1);
+                Appointment appointment = appointment(i, pet);
+                appointment.restoreId(i + 1);
+                writer.writeAppointment(appointment);
+            }
+            writer.finish();
+        }
+    }
+
+    // Adds the clinic to a service in batches and returns its pets in index order. The appointments are
+    // booked all or nothing per batch, so a clash with what the service already holds is reported.
+    public List<Pet> populate(ClinicService service) {
+        List<Pet> pets = new ArrayList<>(petCount);
+        for (int start = 0; start < petCount; start += BATCH_SIZE) {
+            List<Pet> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = start; i < Math.min(petCount, start + BATCH_SIZE); i++) {
+                batch.add(pet(i));
+            }
+            service.importPets(batch);
+            pets.addAll(batch);
+        }
+        for (int start = 0; start < appointmentCount; start += BATCH_SIZE) {
+            List<Appointment> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = start; i < Math.min(appointmentCount, start + BATCH_SIZE); i++) {
+                batch.add(appointment(i, pets.get(petOf(i))));
+            }
+            if (!service.bookAppointments(batch).isEmpty()) {
+                throw new IllegalStateException("Generated appointments clash with appointments already booked");
+            }
+        }
+        return pets;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java ClinicDataGenerator <pets> <appointments> [seed] [first day dd/MM/yyyy] [--snapshot]");
+            System.out.println("Writes " + PetClinicManagementSystem.PET_DETAILS_FILE + " and "
+                    + PetClinicManagementSystem.APPOINTMENT_DETAILS_FILE + ", or "
+                    + PetClinicManagementSystem.SNAPSHOT_FILE + " with --snapshot, to the current directory.");
+            return;
+        }
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        boolean snapshot = arguments.remove("--snapshot");
+        try {
+            int pets = Integer.parseInt(arguments.get(0));
+            int appointments = Integer.parseInt(arguments.get(1));
+            long seed = arguments.size() > 2 ? Long.parseLong(arguments.get(2)) : 42;
+            LocalDate firstDay = arguments.size() > 3
+                    ? LocalDate.parse(arguments.get(3), Appointment.DATE_FORMAT)
+                    : LocalDate.now().plusDays(1);
+            ClinicDataGenerator generator = new ClinicDataGenerator(seed, pets, appointments, firstDay);
+
+            long start = System.nanoTime();
+            if (snapshot) {
+                generator.writeSnapshot(Paths.get(PetClinicManagementSystem.SNAPSHOT_FILE));
+            } else {
+                generator.writeText(Paths.get(PetClinicManagementSystem.PET_DETAILS_FILE),
+                        Paths.get(PetClinicManagementSystem.APPOINTMENT_DETAILS_FILE));
+            }
+            System.out.printf("Generated %,d pets and %,d appointments in %,d ms%n", pets, appointments,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            System.out.println("Invalid argument: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error writing clinic data: " + e.getMessage());
+        }
+    }
+}
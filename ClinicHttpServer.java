@@ -0,0 +1,682 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// JSON endpoints over the same ClinicService the console uses:
+//   GET    /pets[?sort=name|owner&limit=&cursor=, or ?q=term&limit= to search]
+//   GET    /appointments[?from=&to=|date=dd/MM/yyyy&status=&vet=&q=&limit=&cursor=]
+//   POST   /pets                           POST   /appointments
+//   GET    /pets/{id}                      GET    /appointments/{id}
+//   PATCH  /pets/{id}                      PATCH  /appointments/{id}
+//   DELETE /pets/{id}                      DELETE /appointments/{id}
+//   GET    /veterinarians                  POST   /appointments/recurring
+//   GET    /slots?duration=30&from=HH:mm dd/MM/yyyy&to=dd/MM/yyyy&count=5&vet=name&petId=n
+//   GET    /metrics                        (Prometheus text format rather than JSON)
+// Dates use the console format, HH:mm dd/MM/yyyy. Appointment listings come in start order and pet listings
+// in name or owner order; when there are more, the X-Next-Cursor response header holds the cursor parameter
+// for the next page. Searches with q are ranked by relevance and not paged; for appointments the other
+// filters then narrow the ranked matches.
+public class ClinicHttpServer {
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final int DEFAULT_SLOT_COUNT = 5;
+    private static final int MAX_SLOT_COUNT = 100;
+    private static final int DEFAULT_SLOT_DAYS = 30;
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // Without TCP_NODELAY small keep-alive responses wait on delayed ACKs, about 40 ms per request.
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+
+    private final ClinicService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    public ClinicHttpServer(ClinicService service, int port) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/pets", this::handlePets);
+        server.createContext("/appointments", this::handleAppointments);
+        server.createContext("/slots", this::handleSlots);
+        server.createContext("/veterinarians", this::handleVeterinarians);
+        server.createContext("/appointments/recurring", this::handleRecurring);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    // Virtual threads need Java 21; older runtimes fall back to a cached pool of platform threads.
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    private void handlePets(HttpExchange exchange) throws IOException {
+        handle(exchange, () -> {
+            String method = exchange.getRequestMethod();
+            Long id = pathId(exchange, "/pets");
+            if (id == null) {
+                if (method.equals("GET")) {
+                    Map<String, String> query = query(exchange);
+                    String term = query.get("q");
+                    List<Pet> pets;
+                    if (term != null) {
+                        pets = service.searchPets(term, limit(query));
+                    } else {
+                        PetPage page = service.findPets(new PetQuery().limit(limit(query))
+                                .orderBy(parseOrder(query.get("sort"))).after(query.get("cursor")));
+                        if (page.hasMore()) {
+                            exchange.getResponseHeaders().set("X-Next-Cursor", page.getNextCursor());
+                        }
+                        pets = page.getPets();
+                    }
+                    StringBuilder json = new StringBuilder("[");
+                    for (Pet pet : pets) {
+                        if (json.length() > 1) {
+                            json.append(',');
+                        }
+                        appendPet(json, pet);
+                    }
+                    return respond(200, json.append(']'));
+                } else if (method.equals("POST")) {
+                    Pet pet = createPet(body(exchange));
+                    service.addPet(pet);
+                    exchange.getResponseHeaders().set("Location", "/pets/" + pet.getId());
+                    return respond(201, appendPet(new StringBuilder(), pet));
+                }
+                return methodNotAllowed();
+            }
+
+            Pet pet = service.getPet(id);
+            if (pet == null) {
+                return notFound("pet", id);
+            }
+            switch (method) {
+                case "GET":
+                    return respond(200, appendPet(new StringBuilder(), pet));
+                case "PATCH":
+                    Consumer<Pet> changes = petChanges(body(exchange));
+                    service.modifyPet(pet, changes);
+                    return respond(200, appendPet(new StringBuilder(), pet));
+                case "DELETE":
+                    service.removePet(pet);
+                    return respond(204, null);
+                default:
+                    return methodNotAllowed();
+            }
+        });
+    }
+
+    private void handleAppointments(HttpExchange exchange) throws IOException {
+        handle(exchange, () -> {
+            String method = exchange.getRequestMethod();
+            Long id = pathId(exchange, "/appointments");
+            if (id == null) {
+                if (method.equals("GET")) {
+                    Map<String, String> query = query(exchange);
+                    AppointmentQuery search = new AppointmentQuery().limit(limit(query)).after(query.get("cursor"));
+                    if (query.containsKey("date")) {
+                        LocalDate date = parseDate(query.get("date"));
+                        search.from(date.atStartOfDay()).to(date.plusDays(1).atStartOfDay());
+                    }
+                    if (query.containsKey("from")) {
+                        search.from(parseDate(query.get("from")).atStartOfDay());
+                    }
+                    if (query.containsKey("to")) {
+                        search.to(parseDate(query.get("to")).plusDays(1).atStartOfDay());
+                    }
+                    if (query.containsKey("status")) {
+                        search.status(parseStatus(query.get("status")));
+                    }
+                    if (query.containsKey("vet")) {
+                        Veterinarian veterinarian = service.findVeterinarian(query.get("vet"));
+                        if (veterinarian == null) {
+                            return respond(200, new StringBuilder("[]"));
+                        }
+                        search.veterinarian(veterinarian);
+                    }
+                    List<Appointment> appointments;
+                    if (query.containsKey("q")) {
+                        appointments = new ArrayList<>();
+                        int wanted = limit(query);
+                        for (Appointment appointment : service.searchAppointments(query.get("q"), MAX_LIMIT)) {
+                            if (search.accepts(appointment)) {
+                                appointments.add(appointment);
+                                if (appointments.size() == wanted) {
+                                    break;
+                                }
+                            }
+                        }
+                    } else {
+                        AppointmentPage page = service.findAppointments(search);
+                        if (page.hasMore()) {
+                            exchange.getResponseHeaders().set("X-Next-Cursor", page.getNextCursor());
+                        }
+                        appointments = page.getAppointments();
+                    }
+                    StringBuilder json = new StringBuilder("[");
+                    for (Appointment appointment : appointments) {
+                        if (json.length() > 1) {
+                            json.append(',');
+                        }
+                        appendAppointment(json, appointment);
+                    }
+                    return respond(200, json.append(']'));
+                } else if (method.equals("POST")) {
+                    Map<String, Object> fields = body(exchange);
+                    long petId = requireLong(fields, "petId");
+                    Pet pet = service.getPet(petId);
+                    if (pet == null) {
+                        return notFound("pet", petId);
+                    }
+                    LocalDateTime dateTime = requireClinicHours(parseDateTime(requireString(fields, "dateTime")));
+                    Appointment appointment = new Appointment(pet, dateTime, requireString(fields, "reason"),
+                            requireString(fields, "veterinarian"), optionalInt(fields, "duration"));
+                    Appointment conflict = service.bookAppointment(appointment);
+                    if (conflict != null) {
+                        return conflict(conflict);
+                    }
+                    exchange.getResponseHeaders().set("Location", "/appointments/" + appointment.getId());
+                    return respond(201, appendAppointment(new StringBuilder(), appointment));
+                }
+                return methodNotAllowed();
+            }
+
+            Appointment appointment = service.getAppointment(id);
+            if (appointment == null) {
+                return notFound("appointment", id);
+            }
+            switch (method) {
+                case "GET":
+                    return respond(200, appendAppointment(new StringBuilder(), appointment));
+                case "PATCH":
+                    Map<String, Object> changes = body(exchange);
+                    // Absent fields keep their value; an explicit null duration means the default length.
+                    LocalDateTime dateTime = changes.containsKey("dateTime")
+                            ? requireClinicHours(parseDateTime(requireString(changes, "dateTime"))) : null;
+                    Integer duration = null;
+                    if (changes.containsKey("duration")) {
+                        Integer requested = optionalInt(changes, "duration");
+                        duration = requested != null ? requested : Appointment.DEFAULT_DURATION;
+                    }
+                    Veterinarian veterinarian = changes.containsKey("veterinarian")
+                            ? new Veterinarian(requireString(changes, "veterinarian")) : null;
+                    Appointment conflict = service.updateAppointment(appointment, dateTime, duration, veterinarian,
+                            appointmentChanges(changes));
+                    if (conflict != null) {
+                        return conflict(conflict);
+                    }
+                    return respond(200, appendAppointment(new StringBuilder(), appointment));
+                case "DELETE":
+                    service.removeAppointment(appointment);
+                    return respond(204, null);
+                default:
+                    return methodNotAllowed();
+            }
+        });
+    }
+
+    private void handleSlots(HttpExchange exchange) throws IOException {
+        handle(exchange, () -> {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                return methodNotAllowed();
+            }
+            Map<String, String> query = query(exchange);
+            int duration = queryInt(query, "duration", Appointment.DEFAULT_DURATION, 24 * 60);
+            int count = queryInt(query, "count", DEFAULT_SLOT_COUNT, MAX_SLOT_COUNT);
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime from = query.containsKey("from") ? parseDateTime(query.get("from")) : now;
+            if (from.isBefore(now)) {
+                from = now;
+            }
+            LocalDate to = query.containsKey("to") ? parseDate(query.get("to"))
+                    : from.toLocalDate().plusDays(DEFAULT_SLOT_DAYS);
+            Veterinarian veterinarian = query.containsKey("vet") ? new Veterinarian(query.get("vet")) : null;
+            Pet pet = null;
+            if (query.containsKey("petId")) {
+                long petId = queryLong(query, "petId");
+                pet = service.getPet(petId);
+                if (pet == null) {
+                    return notFound("pet", petId);
+                }
+            }
+
+            StringBuilder json = new StringBuilder("[");
+            for (AppointmentSchedule.Slot slot : service.findFreeSlots(duration, from, to, count, veterinarian, pet)) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append('{');
+                Json.appendField(json, "start", slot.getStart().format(Appointment.DATE_TIME_FORMAT)).append(',');
+                Json.appendField(json, "veterinarian",
+                        slot.getVeterinarian() == null ? null : slot.getVeterinarian().getName());
+                json.append('}');
+            }
+            return respond(200, json.append(']'));
+        });
+    }
+
+    // Same fields as POST /appointments plus everyDays and count; books the whole course or none of it.
+    private void handleRecurring(HttpExchange exchange) throws IOException {
+        handle(exchange, () -> {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                return methodNotAllowed();
+            }
+            Map<String, Object> fields = body(exchange);
+            long petId = requireLong(fields, "petId");
+            Pet pet = service.getPet(petId);
+            if (pet == null) {
+                return notFound("pet", petId);
+            }
+            LocalDateTime first = requireClinicHours(parseDateTime(requireString(fields, "dateTime")));
+            RecurrenceRule rule = RecurrenceRule.everyDays(first, requireInt(fields, "everyDays"), requireInt(fields, "count"));
+            List<Appointment> batch = rule.expand(pet, requireString(fields, "reason"),
+                    requireString(fields, "veterinarian"), optionalInt(fields, "duration"));
+            Map<Appointment, Appointment> conflicts = service.bookAppointments(batch);
+            if (!conflicts.isEmpty()) {
+                StringBuilder json = new StringBuilder("{");
+                Json.appendField(json, "error", conflicts.size() + " of " + batch.size()
+                        + " appointments clash; none were booked").append(",\"conflicts\":[");
+                for (Map.Entry<Appointment, Appointment> conflict : conflicts.entrySet()) {
+                    if (json.charAt(json.length() - 1) != '[') {
+                        json.append(',');
+                    }
+                    json.append('{');
+                    Json.appendField(json, "dateTime", conflict.getKey().getFormattedDateTime()).append(",\"blockedBy\":");
+                    appendAppointment(json, conflict.getValue()).append('}');
+                }
+                return respond(409, json.append("]}"));
+            }
+            StringBuilder json = new StringBuilder("[");
+            for (Appointment appointment : batch) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                appendAppointment(json, appointment);
+            }
+            return respond(201, json.append(']'));
+        });
+    }
+
+    private void handleVeterinarians(HttpExchange exchange) throws IOException {
+        handle(exchange, () -> {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                return methodNotAllowed();
+            }
+            StringBuilder json = new StringBuilder("[");
+            for (Veterinarian veterinarian : service.getVeterinarians()) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                Json.appendString(json, veterinarian.getName());
+            }
+            return respond(200, json.append(']'));
+        });
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        handle(exchange, () -> {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                return methodNotAllowed();
+            }
+            return new Response(200, service.getMetrics().toPrometheus(), PROMETHEUS_CONTENT_TYPE);
+        });
+    }
+
+    private Pet createPet(Map<String, Object> fields) {
+        String type = requireString(fields, "type");
+        if (!type.equalsIgnoreCase("Cat") && !type.equalsIgnoreCase("Dog") && !type.equalsIgnoreCase("Hamster")) {
+            throw new IllegalArgumentException("Invalid pet type! Please enter Cat, Dog, or Hamster.");
+        }
+        String name = checkPetName(requireString(fields, "name"));
+        String ownerPhone = requireString(fields, "ownerPhone");
+        Owner owner = service.findOwnerByPhone(ownerPhone);
+        if (owner == null) {
+            owner = new Owner(requireString(fields, "ownerName"), ownerPhone, requireString(fields, "ownerAddress"));
+        }
+        return ClinicTextFormat.createPet(type, name, requireInt(fields, "age"), requireString(fields, "colour"),
+                requireNumber(fields, "weight"), requireString(fields, "breed"), owner);
+    }
+
+    // Every field is read and checked before the pet is touched, so one bad field rejects the whole request.
+    private static Consumer<Pet> petChanges(Map<String, Object> changes) {
+        List<Consumer<Pet>> edits = new ArrayList<>();
+        if (changes.containsKey("name")) {
+            String name = checkPetName(requireString(changes, "name"));
+            edits.add(pet -> pet.setName(name));
+        }
+        if (changes.containsKey("age")) {
+            int age = requireInt(changes, "age");
+            check(ClinicValidation.ageError(age));
+            edits.add(pet -> pet.setAge(age));
+        }
+        if (changes.containsKey("colour")) {
+            String colour = ClinicValidation.colour(requireString(changes, "colour")).orThrow();
+            edits.add(pet -> pet.setColour(colour));
+        }
+        if (changes.containsKey("weight")) {
+            double weight = requireNumber(changes, "weight");
+            check(ClinicValidation.weightError(weight));
+            edits.add(pet -> pet.setWeight(weight));
+        }
+        if (changes.containsKey("breed")) {
+            String breed = ClinicValidation.breed(requireString(changes, "breed")).orThrow();
+            edits.add(pet -> pet.setBreed(breed));
+        }
+        if (changes.containsKey("ownerName")) {
+            String ownerName = ClinicValidation.ownerName(requireString(changes, "ownerName")).orThrow();
+            edits.add(pet -> pet.getOwner().setName(ownerName));
+        }
+        if (changes.containsKey("ownerPhone")) {
+            String ownerPhone = ClinicValidation.phoneNumber(requireString(changes, "ownerPhone")).orThrow();
+            edits.add(pet -> pet.getOwner().setPhoneNumber(ownerPhone));
+        }
+        if (changes.containsKey("ownerAddress")) {
+            String ownerAddress = ClinicValidation.address(requireString(changes, "ownerAddress")).orThrow();
+            edits.add(pet -> pet.getOwner().setAddress(ownerAddress));
+        }
+        return pet -> edits.forEach(edit -> edit.accept(pet));
+    }
+
+    // Read up front for the same reason; the edit only runs once all of it is valid.
+    private static Consumer<Appointment> appointmentChanges(Map<String, Object> changes) {
+        List<Consumer<Appointment>> edits = new ArrayList<>();
+        if (changes.containsKey("reason")) {
+            String reason = ClinicValidation.reason(requireString(changes, "reason")).orThrow();
+            edits.add(appointment -> appointment.setReason(reason));
+        }
+        if (changes.containsKey("status")) {
+            Appointment.AppointmentStatus status = parseStatus(requireString(changes, "status"));
+            edits.add(appointment -> appointment.setStatus(status));
+        }
+        return edits.isEmpty() ? null : appointment -> edits.forEach(edit -> edit.accept(appointment));
+    }
+
+    private static void check(String error) {
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    private static String checkPetName(String name) {
+        return ClinicValidation.enteredPetName(name).orThrow();
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value.trim(), Appointment.DATE_TIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date and time format. Use HH:mm dd/MM/yyyy");
+        }
+    }
+
+    private static Appointment.AppointmentStatus parseStatus(String value) {
+        try {
+            return Appointment.AppointmentStatus.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status '" + value + "'");
+        }
+    }
+
+    private static PetQuery.Order parseOrder(String value) {
+        if (value == null) {
+            return PetQuery.Order.NAME;
+        }
+        try {
+            return PetQuery.Order.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort '" + value + "'; use name or owner");
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value.trim(), Appointment.DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format. Use dd/MM/yyyy");
+        }
+    }
+
+    private static LocalDateTime requireClinicHours(LocalDateTime dateTime) {
+        if (!ClinicService.isWithinClinicHours(dateTime)) {
+            throw new IllegalArgumentException("Appointment must be between 8:00 AM and 6:00 PM.");
+        }
+        return dateTime;
+    }
+
+    private static String requireString(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a string");
+        }
+        return ((String) value).trim();
+    }
+
+    private static double requireNumber(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (!(value instanceof Double)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a number");
+        }
+        return (Double) value;
+    }
+
+    private static int requireInt(Map<String, Object> fields, String name) {
+        double value = requireNumber(fields, name);
+        if (value != Math.rint(value) || Math.abs(value) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a whole number");
+        }
+        return (int) value;
+    }
+
+    // JSON numbers arrive as doubles, which hold every whole number up to 2^53 exactly.
+    private static long requireLong(Map<String, Object> fields, String name) {
+        double value = requireNumber(fields, name);
+        if (value != Math.rint(value) || Math.abs(value) > (double) (1L << 53)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a whole number");
+        }
+        return (long) value;
+    }
+
+    private static Integer optionalInt(Map<String, Object> fields, String name) {
+        return fields.get(name) == null ? null : requireInt(fields, name);
+    }
+
+    private static StringBuilder appendPet(StringBuilder json, Pet pet) {
+        Owner owner = pet.getOwner();
+        json.append("{\"id\":").append(pet.getId()).append(',');
+        Json.appendField(json, "type", pet.getType()).append(',');
+        Json.appendField(json, "name", pet.getName()).append(',');
+        json.append("\"age\":").append(pet.age).append(',');
+        Json.appendField(json, "colour", pet.getColour()).append(',');
+        json.append("\"weight\":").append(pet.weight).append(',');
+        Json.appendField(json, "breed", pet.getBreed()).append(',');
+        json.append("\"owner\":{\"id\":").append(owner.getId()).append(',');
+        Json.appendField(json, "name", owner.getName()).append(',');
+        Json.appendField(json, "phone", owner.getPhoneNumber()).append(',');
+        Json.appendField(json, "address", owner.getAddress());
+        return json.append("}}");
+    }
+
+    private static StringBuilder appendAppointment(StringBuilder json, Appointment appointment) {
+        json.append("{\"id\":").append(appointment.getId()).append(',');
+        json.append("\"petId\":").append(appointment.getPet().getId()).append(',');
+        Json.appendField(json, "petName", appointment.getPet().getName()).append(',');
+        Json.appendField(json, "dateTime", appointment.getFormattedDateTime()).append(',');
+        Json.appendField(json, "reason", appointment.getReason()).append(',');
+        Json.appendField(json, "veterinarian", appointment.getVeterinarian().getName()).append(',');
+        json.append("\"duration\":").append(appointment.getDuration()).append(',');
+        Json.appendField(json, "status", appointment.getStatus().name());
+        return json.append('}');
+    }
+
+    private interface Route {
+        Response run() throws IOException;
+    }
+
+    private static class Response {
+        final int status;
+        final CharSequence body;
+        final String contentType;
+
+        Response(int status, CharSequence body) {
+            this(status, body, JSON_CONTENT_TYPE);
+        }
+
+        Response(int status, CharSequence body, String contentType) {
+            this.status = status;
+            this.body = body;
+            this.contentType = contentType;
+        }
+    }
+
+    private static void handle(HttpExchange exchange, Route route) throws IOException {
+        Response response;
+        try {
+            response = route.run();
+        } catch (IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (UncheckedIOException e) {
+            response = error(503, e.getMessage());
+        } catch (RuntimeException e) {
+            response = error(500, "Internal error: " + e);
+        }
+        try {
+            if (response.body == null) {
+                exchange.sendResponseHeaders(response.status, -1);
+            } else {
+                byte[] bytes = response.body.toString().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", response.contentType);
+                exchange.sendResponseHeaders(response.status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Response respond(int status, CharSequence body) {
+        return new Response(status, body);
+    }
+
+    private static Response error(int status, String message) {
+        StringBuilder json = new StringBuilder("{");
+        return new Response(status, Json.appendField(json, "error", message).append('}'));
+    }
+
+    private static Response notFound(String kind, long id) {
+        return error(404, "No " + kind + " with id " + id);
+    }
+
+    private static Response methodNotAllowed() {
+        return error(405, "Method not allowed");
+    }
+
+    private static Response conflict(Appointment existing) {
+        StringBuilder json = new StringBuilder("{");
+        Json.appendField(json, "error", "This time slot is already booked").append(",\"conflict\":");
+        return new Response(409, appendAppointment(json, existing).append('}'));
+    }
+
+    private static Long pathId(HttpExchange exchange, String prefix) {
+        String rest = exchange.getRequestURI().getPath().substring(prefix.length());
+        if (rest.isEmpty() || rest.equals("/")) {
+            return null;
+        }
+        String id = rest.substring(1);
+        if (rest.charAt(0) != '/' || id.isEmpty() || id.length() > 18 || !id.chars().allMatch(Character::isDigit)) {
+            return -1L;
+        }
+        return Long.parseLong(id);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static int limit(Map<String, String> query) {
+        return queryInt(query, "limit", DEFAULT_LIMIT, MAX_LIMIT);
+    }
+
+    private static long queryLong(Map<String, String> query, String name) {
+        try {
+            return Long.parseLong(query.get(name).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number");
+        }
+    }
+
+    private static int queryInt(Map<String, String> query, String name, int defaultValue, int max) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < 1 || parsed > max) {
+                throw new IllegalArgumentException(name + " must be between 1 and " + max);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number");
+        }
+    }
+
+    private static Map<String, Object> body(HttpExchange exchange) throws IOException {
+        String text = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        return Json.parseObject(text);
+    }
+}
@@ -0,0 +1,459 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.zip.CRC32;
+
+public class ClinicJournal implements Closeable {
+    private static final byte ADD_PET = 1;
+    private static final byte MODIFY_PET = 2;
+    private static final byte DELETE_PET = 3;
+    private static final byte ADD_APPOINTMENT = 4;
+    private static final byte MODIFY_APPOINTMENT = 5;
+    private static final byte DELETE_APPOINTMENT = 6;
+    private static final byte ADD_APPOINTMENTS = 7;
+    private static final byte DELETE_APPOINTMENTS = 8;
+
+    private static final int RECORD_OVERHEAD = 4 + 1 + 4;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Object lock = new Object();
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(4096);
+    private ByteArrayOutputStream flushing = new ByteArrayOutputStream(4096);
+    private long appendedSequence;
+    private long durableSequence;
+    private int recordCount;
+    private IOException failure;
+    private boolean closed;
+    private final Thread flusher;
+
+    public ClinicJournal(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        this.flusher = new Thread(this::flushLoop, "clinic-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getRecordCount() {
+        synchronized (lock) {
+            return recordCount;
+        }
+    }
+
+    public void recordAddPet(Pet pet) throws IOException {
+        commit(appendPet(ADD_PET, pet));
+    }
+
+    public void recordModifyPet(Pet pet) throws IOException {
+        commit(appendPet(MODIFY_PET, pet));
+    }
+
+    public void recordDeletePet(Pet pet) throws IOException {
+        long sequence;
+        synchronized (lock) {
+            ClinicSnapshot.writeVarLong(record, pet.getId());
+            sequence = append(DELETE_PET);
+        }
+        commit(sequence);
+    }
+
+    public void recordAddAppointment(Appointment appointment) throws IOException {
+        commit(appendAppointment(ADD_APPOINTMENT, appointment));
+    }
+
+    // A booked batch is one record, so recovery sees all of it or, after a torn write, none of it.
+    public void recordAddAppointments(Collection<Appointment> appointments) throws IOException {
+        long sequence;
+        synchronized (lock) {
+            ClinicSnapshot.writeVarInt(record, appointments.size());
+            for (Appointment appointment : appointments) {
+                writeAppointment(appointment);
+            }
+            sequence = append(ADD_APPOINTMENTS);
+        }
+        commit(sequence);
+    }
+
+    public void recordModifyAppointment(Appointment appointment) throws IOException {
+        commit(appendAppointment(MODIFY_APPOINTMENT, appointment));
+    }
+
+    public void recordDeleteAppointment(Appointment appointment) throws IOException {
+        long sequence;
+        synchronized (lock) {
+            ClinicSnapshot.writeVarLong(record, appointment.getId());
+            sequence = append(DELETE_APPOINTMENT);
+        }
+        commit(sequence);
+    }
+
+    // Archiving drops many appointments at once; one record keeps that to a single fsync.
+    public void recordDeleteAppointments(Collection<Appointment> appointments) throws IOException {
+        long sequence;
+        synchronized (lock) {
+            ClinicSnapshot.writeVarInt(record, appointments.size());
+            for (Appointment appointment : appointments) {
+                ClinicSnapshot.writeVarLong(record, appointment.getId());
+            }
+            sequence = append(DELETE_APPOINTMENTS);
+        }
+        commit(sequence);
+    }
+
+    private long appendPet(byte type, Pet pet) throws IOException {
+        synchronized (lock) {
+            ClinicSnapshot.writeVarLong(record, pet.getId());
+            record.writeByte(ClinicSnapshot.typeCode(pet));
+            ClinicSnapshot.writeString(record, pet.getName());
+            ClinicSnapshot.writeVarInt(record, pet.age);
+            ClinicSnapshot.writeString(record, pet.getColour());
+            record.writeDouble(pet.weight);
+            ClinicSnapshot.writeString(record, pet.getBreed());
+            ClinicSnapshot.writeString(record, pet.getOwner().getName());
+            ClinicSnapshot.writeString(record, pet.getOwner().getPhoneNumber());
+            ClinicSnapshot.writeString(record, pet.getOwner().getAddress());
+            return append(type);
+        }
+    }
+
+    private long appendAppointment(byte type, Appointment appointment) throws IOException {
+        synchronized (lock) {
+            writeAppointment(appointment);
+            return append(type);
+        }
+    }
+
+    private void writeAppointment(Appointment appointment) throws IOException {
+        ClinicSnapshot.writeVarLong(record, appointment.getId());
+        ClinicSnapshot.writeVarLong(record, appointment.getPet().getId());
+        record.writeLong(appointment.getDateTime().toEpochSecond(ZoneOffset.UTC));
+        ClinicSnapshot.writeString(record, appointment.getReason());
+        ClinicSnapshot.writeString(record, appointment.getVeterinarian().getName());
+        ClinicSnapshot.writeVarInt(record, appointment.getDuration());
+        record.writeByte(appointment.getStatus().ordinal());
+    }
+
+    // Frame: payload length, type, payload, CRC32 of type and payload. Caller holds the lock.
+    private long append(byte type) throws IOException {
+        if (closed) {
+            recordBytes.reset();
+            throw new IOException("Journal is closed");
+        }
+        byte[] payload = recordBytes.toByteArray();
+        recordBytes.reset();
+
+        crc.reset();
+        crc.update(type);
+        crc.update(payload);
+
+        DataOutputStream out = new DataOutputStream(pending);
+        out.writeInt(payload.length);
+        out.writeByte(type);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+
+        recordCount++;
+        appendedSequence++;
+        lock.notifyAll();
+        return appendedSequence;
+    }
+
+    private void commit(long sequence) throws IOException {
+        synchronized (lock) {
+            while (durableSequence < sequence && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for journal commit");
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    // Group commit: everything appended while the previous fsync was running goes out in the next one.
+    private void flushLoop() {
+        while (true) {
+            ByteArrayOutputStream batch;
+            long batchSequence;
+            synchronized (lock) {
+                while (pending.size() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.size() == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = flushing;
+                flushing = batch;
+                batchSequence = appendedSequence;
+            }
+
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+
+            synchronized (lock) {
+                batch.reset();
+                durableSequence = batchSequence;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    public void truncate() throws IOException {
+        synchronized (lock) {
+            commit(appendedSequence);
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            recordCount = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public static int replay(Path file, List<Pet> pets, List<Appointment> appointments) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        Map<Long, Pet> petsById = new LinkedHashMap<>();
+        OwnerRegistry owners = new OwnerRegistry();
+        for (Pet pet : pets) {
+            petsById.put(pet.getId(), pet);
+            owners.addPet(pet);
+        }
+        Map<Long, Appointment> appointmentsById = new LinkedHashMap<>();
+        Map<Long, Set<Long>> appointmentsByPet = new HashMap<>();
+        for (Appointment appointment : appointments) {
+            putAppointment(appointment, appointmentsById, appointmentsByPet);
+        }
+
+        // Pet edits change the caller's pets in place; they are put back if a later record cannot be applied.
+        List<Runnable> undo = new ArrayList<>();
+        int applied = 0;
+        long validLength = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            byte[] payload = new byte[256];
+            while (true) {
+                int length;
+                byte type;
+                try {
+                    length = in.readInt();
+                    if (length < 0 || length > 16 * 1024 * 1024) {
+                        break;
+                    }
+                    type = in.readByte();
+                    if (length > payload.length) {
+                        payload = new byte[Math.max(length, payload.length * 2)];
+                    }
+                    in.readFully(payload, 0, length);
+                    int checksum = in.readInt();
+                    crc.reset();
+                    crc.update(type);
+                    crc.update(payload, 0, length);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+
+                try {
+                    apply(type, ByteBuffer.wrap(payload, 0, length), petsById, owners, appointmentsById,
+                            appointmentsByPet, undo);
+                } catch (RuntimeException e) {
+                    for (int i = undo.size() - 1; i >= 0; i--) {
+                        undo.get(i).run();
+                    }
+                    throw new IOException("Corrupt journal record at offset " + validLength + ": " + e.getMessage(), e);
+                }
+                applied++;
+                validLength += RECORD_OVERHEAD + length;
+            }
+        }
+
+        // Drop a torn tail left by a crash mid-write so new records follow the last good one.
+        if (Files.size(file) > validLength) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+
+        pets.clear();
+        pets.addAll(petsById.values());
+        appointments.clear();
+        appointments.addAll(appointmentsById.values());
+        return applied;
+    }
+
+    // Appointments are also filed by pet id, so deleting a pet drops its bookings without scanning the rest.
+    private static void apply(byte type, ByteBuffer view, Map<Long, Pet> pets, OwnerRegistry owners,
+                              Map<Long, Appointment> appointments, Map<Long, Set<Long>> appointmentsByPet,
+                              List<Runnable> undo) {
+        switch (type) {
+            case ADD_PET:
+            case MODIFY_PET: {
+                long id = ClinicSnapshot.readVarLong(view);
+                byte petType = view.get();
+                String name = ClinicSnapshot.readString(view);
+                int age = ClinicSnapshot.readVarInt(view);
+                String colour = ClinicSnapshot.readString(view);
+                double weight = view.getDouble();
+                String breed = ClinicSnapshot.readString(view);
+                String ownerName = ClinicSnapshot.readString(view);
+                String ownerPhone = ClinicSnapshot.readString(view);
+                String ownerAddress = ClinicSnapshot.readString(view);
+
+                Pet pet = pets.get(id);
+                if (pet == null) {
+                    pet = ClinicSnapshot.createPet(petType, name, age, colour, weight, breed,
+                            new Owner(ownerName, ownerPhone, ownerAddress));
+                    pet.restoreId(id);
+                    pets.put(id, pet);
+                    owners.addPet(pet);
+                } else {
+                    Owner owner = pet.getOwner();
+                    String previousPhoneNumber = owner.getPhoneNumber();
+                    undo.add(ClinicService.undoFor(pet));
+                    pet.setName(name);
+                    pet.setAge(age);
+                    pet.setColour(colour);
+                    pet.setWeight(weight);
+                    pet.setBreed(breed);
+                    owner.setName(ownerName);
+                    owner.setPhoneNumber(ownerPhone);
+                    owner.setAddress(ownerAddress);
+                    owners.phoneNumberChanged(owner, previousPhoneNumber);
+                }
+                break;
+            }
+            case DELETE_PET: {
+                Pet pet = pets.remove(ClinicSnapshot.readVarLong(view));
+                if (pet != null) {
+                    owners.removePet(pet);
+                    // The service deletes a pet's appointments with it.
+                    Set<Long> booked = appointmentsByPet.remove(pet.getId());
+                    if (booked != null) {
+                        booked.forEach(appointments::remove);
+                    }
+                }
+                break;
+            }
+            case ADD_APPOINTMENT:
+            case MODIFY_APPOINTMENT:
+                readAppointment(view, pets, appointments, appointmentsByPet);
+                break;
+            case ADD_APPOINTMENTS:
+                for (int count = ClinicSnapshot.readVarInt(view); count > 0; count--) {
+                    readAppointment(view, pets, appointments, appointmentsByPet);
+                }
+                break;
+            case DELETE_APPOINTMENT:
+                removeAppointment(ClinicSnapshot.readVarLong(view), appointments, appointmentsByPet);
+                break;
+            case DELETE_APPOINTMENTS:
+                for (int count = ClinicSnapshot.readVarInt(view); count > 0; count--) {
+                    removeAppointment(ClinicSnapshot.readVarLong(view), appointments, appointmentsByPet);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void readAppointment(ByteBuffer view, Map<Long, Pet> pets, Map<Long, Appointment> appointments,
+                                        Map<Long, Set<Long>> appointmentsByPet) {
+        long id = ClinicSnapshot.readVarLong(view);
+        long petId = ClinicSnapshot.readVarLong(view);
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(view.getLong(), 0, ZoneOffset.UTC);
+        String reason = ClinicSnapshot.readString(view);
+        String veterinarian = ClinicSnapshot.readString(view);
+        int duration = ClinicSnapshot.readVarInt(view);
+        Appointment.AppointmentStatus status = Appointment.AppointmentStatus.values()[view.get()];
+
+        Pet pet = pets.get(petId);
+        if (pet == null) {
+            throw new IllegalStateException("appointment " + id + " refers to unknown pet " + petId);
+        }
+        Appointment appointment = Appointment.restore(pet, dateTime, reason, veterinarian, duration, status);
+        appointment.restoreId(id);
+        putAppointment(appointment, appointments, appointmentsByPet);
+    }
+
+    private static void putAppointment(Appointment appointment, Map<Long, Appointment> appointments,
+                                       Map<Long, Set<Long>> appointmentsByPet) {
+        Appointment previous = appointments.put(appointment.getId(), appointment);
+        if (previous != null && previous.getPet().getId() != appointment.getPet().getId()) {
+            unfile(previous, appointmentsByPet);
+        }
+        appointmentsByPet.computeIfAbsent(appointment.getPet().getId(), pet -> new HashSet<>()).add(appointment.getId());
+    }
+
+    private static void removeAppointment(long id, Map<Long, Appointment> appointments,
+                                          Map<Long, Set<Long>> appointmentsByPet) {
+        Appointment removed = appointments.remove(id);
+        if (removed != null) {
+            unfile(removed, appointmentsByPet);
+        }
+    }
+
+    private static void unfile(Appointment appointment, Map<Long, Set<Long>> appointmentsByPet) {
+        Set<Long> booked = appointmentsByPet.get(appointment.getPet().getId());
+        if (booked != null) {
+            booked.remove(appointment.getId());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts and latency percentiles per clinic operation, plus plain counters such as parse failures. Callers
+// hold on to their Timer, so recording costs two nanoTime calls and a histogram update, with no lookup.
+// Operations that take well under a microsecond would feel even that, so their timers count every call
+// but time only a random sample of them.
+public class ClinicMetrics {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+
+    public Timer timer(String operation) {
+        return timer(operation, 1);
+    }
+
+    // Times one call in sampleEvery, which must be a power of two.
+    public Timer timer(String operation, int sampleEvery) {
+        if (sampleEvery <= 0 || Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("Sample rate must be a power of two");
+        }
+        return timers.computeIfAbsent(operation, o -> new Timer(o, sampleEvery - 1));
+    }
+
+    public void count(String counter, long amount) {
+        counters.computeIfAbsent(counter, c -> new LongAdder()).add(amount);
+    }
+
+    public long getCount(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public static class Timer {
+        private static final long SKIPPED = Long.MIN_VALUE;
+
+        private final String operation;
+        private final int sampleMask;
+        private final LongAdder calls = new LongAdder();
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Timer(String operation, int sampleMask) {
+            this.operation = operation;
+            this.sampleMask = sampleMask;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        // Call when the operation starts and hand the result to record() when it ends.
+        public long start() {
+            if (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+                return SKIPPED;
+            }
+            return System.nanoTime();
+        }
+
+        public void record(long startedAt) {
+            calls.increment();
+            if (startedAt != SKIPPED) {
+                histogram.record(System.nanoTime() - startedAt);
+            }
+        }
+
+        public long getCount() {
+            return calls.sum();
+        }
+
+        public LatencyHistogram.Snapshot snapshot() {
+            return histogram.snapshot();
+        }
+    }
+
+    // One line per operation that has run, latencies in microseconds.
+    public String formatTable() {
+        StringBuilder table = new StringBuilder(String.format("%-28s %10s %10s %10s %10s %10s %10s %10s%n",
+                "Operation", "Count", "Mean us", "p50 us", "p90 us", "p99 us", "p99.9 us", "Max us"));
+        for (Timer timer : timers.values()) {
+            long count = timer.getCount();
+            if (count == 0) {
+                continue;
+            }
+            LatencyHistogram.Snapshot snapshot = timer.snapshot();
+            table.append(String.format("%-28s %10d %10.1f", timer.operation, count, snapshot.getMean() / 1000));
+            for (double percentile : PERCENTILES) {
+                table.append(String.format(" %10.1f", snapshot.getValueAtPercentile(percentile) / 1000.0));
+            }
+            table.append(String.format(" %10.1f%n", snapshot.getMax() / 1000.0));
+        }
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            table.append(String.format("%-28s %10d%n", counter.getKey(), counter.getValue().sum()));
+        }
+        return table.toString();
+    }
+
+    // Prometheus text exposition format: one summary over all operations and one counter per counter.
+    public String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP clinic_operation_seconds Latency of clinic operations.\n");
+        text.append("# TYPE clinic_operation_seconds summary\n");
+        for (Timer timer : timers.values()) {
+            long count = timer.getCount();
+            LatencyHistogram.Snapshot snapshot = timer.snapshot();
+            String label = "operation=\"" + timer.operation + "\"";
+            for (double percentile : PERCENTILES) {
+                String quantile = BigDecimal.valueOf(percentile).movePointLeft(2).stripTrailingZeros().toPlainString();
+                text.append("clinic_operation_seconds{").append(label).append(",quantile=\"").append(quantile)
+                        .append("\"} ").append(seconds(snapshot.getValueAtPercentile(percentile))).append('\n');
+            }
+            // Sampled timers saw only some calls, so the sum is scaled up from their mean.
+            text.append("clinic_operation_seconds_sum{").append(label).append("} ")
+                    .append(seconds(Math.round(snapshot.getMean() * count))).append('\n');
+            text.append("clinic_operation_seconds_count{").append(label).append("} ").append(count).append('\n');
+        }
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            String name = "clinic_" + counter.getKey() + "_total";
+            text.append("# TYPE ").append(name).append(" counter\n");
+            text.append(name).append(' ').append(counter.getValue().sum()).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+}
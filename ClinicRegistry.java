@@ -0,0 +1,63 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+public class ClinicRegistry {
+    // Ids are handed out in creation order, so id order doubles as insertion order.
+    private final Map<Long, Pet> pets = new ConcurrentSkipListMap<>();
+    private final Map<Long, Appointment> appointments = new ConcurrentSkipListMap<>();
+    private final Map<Pet, Set<Appointment>> appointmentsByPet = new ConcurrentHashMap<>();
+    private final Collection<Pet> petView = Collections.unmodifiableCollection(pets.values());
+    private final Collection<Appointment> appointmentView = Collections.unmodifiableCollection(appointments.values());
+
+    public void addPet(Pet pet) {
+        pets.put(pet.getId(), pet);
+    }
+
+    public boolean removePet(Pet pet) {
+        return pets.remove(pet.getId()) != null;
+    }
+
+    public Pet getPet(long id) {
+        return pets.get(id);
+    }
+
+    public Collection<Pet> getPets() {
+        return petView;
+    }
+
+    public void addAppointment(Appointment appointment) {
+        appointments.put(appointment.getId(), appointment);
+        appointmentsByPet.computeIfAbsent(appointment.getPet(), pet -> ConcurrentHashMap.newKeySet()).add(appointment);
+    }
+
+    public boolean removeAppointment(Appointment appointment) {
+        Set<Appointment> forPet = appointmentsByPet.get(appointment.getPet());
+        if (forPet != null && forPet.remove(appointment) && forPet.isEmpty()) {
+            appointmentsByPet.remove(appointment.getPet(), forPet);
+        }
+        return appointments.remove(appointment.getId()) != null;
+    }
+
+    public Appointment getAppointment(long id) {
+        return appointments.get(id);
+    }
+
+    public Collection<Appointment> getAppointments() {
+        return appointmentView;
+    }
+
+    public Collection<Appointment> getAppointments(Pet pet) {
+        Set<Appointment> forPet = appointmentsByPet.get(pet);
+        return forPet == null ? Collections.emptySet() : Collections.unmodifiableSet(forPet);
+    }
+
+    public void clearPets() {
+        pets.clear();
+    }
+
+    public void clearAppointments() {
+        appointments.clear();
+        appointmentsByPet.clear();
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.*;
+
+public class ClinicReport {
+    private final int totalPets;
+    private final Map<String, Integer> typeCounts;
+    private final Map<String, Integer> colourCounts;
+    private final Map<String, Integer> breedCounts;
+    private final Map<String, Integer> ownerCounts;
+    private final String dominantColour;
+    private final String dominantBreed;
+    private final String dominantOwner;
+
+    public ClinicReport(int totalPets, Map<String, Integer> typeCounts, Map<String, Integer> colourCounts,
+                        Map<String, Integer> breedCounts, Map<String, Integer> ownerCounts,
+                        String dominantColour, String dominantBreed, String dominantOwner) {
+        this.totalPets = totalPets;
+        this.typeCounts = Collections.unmodifiableMap(typeCounts);
+        this.colourCounts = Collections.unmodifiableMap(colourCounts);
+        this.breedCounts = Collections.unmodifiableMap(breedCounts);
+        this.ownerCounts = Collections.unmodifiableMap(ownerCounts);
+        this.dominantColour = dominantColour;
+        this.dominantBreed = dominantBreed;
+        this.dominantOwner = dominantOwner;
+    }
+
+    public int getTotalPets() {
+        return totalPets;
+    }
+
+    public Map<String, Integer> getTypeCounts() {
+        return typeCounts;
+    }
+
+    public Map<String, Integer> getColourCounts() {
+        return colourCounts;
+    }
+
+    public Map<String, Integer> getBreedCounts() {
+        return breedCounts;
+    }
+
+    public Map<String, Integer> getOwnerCounts() {
+        return ownerCounts;
+    }
+
+    public int getTypeCount(String type) {
+        return typeCounts.getOrDefault(type, 0);
+    }
+
+    public String getDominantColour() {
+        return dominantColour;
+    }
+
+    public String getDominantBreed() {
+        return dominantBreed;
+    }
+
+    public String getDominantOwner() {
+        return dominantOwner;
+    }
+
+    public String getDominantPetType() {
+        int dogCount = getTypeCount("Dog");
+        int catCount = getTypeCount("Cat");
+        int hamsterCount = getTypeCount("Hamster");
+        if (dogCount >= catCount && dogCount >= hamsterCount) {
+            return "Dog";
+        } else if (catCount >= dogCount && catCount >= hamsterCount) {
+            return "Cat";
+        } else {
+            return "Hamster";
+        }
+    }
+}
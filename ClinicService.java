@@ -0,0 +1,968 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Clinic state shared by every desk. Lookups and listings read concurrent collections without locking.
+// Pet changes are serialised by one lock because they touch the shared indexes; appointment changes
+// only lock the days they touch, so desks booking different days never wait for each other. Loads,
+// restores and checkpoints take the state lock exclusively; every other change holds it shared.
+public class ClinicService {
+    public static final LocalTime OPENING_TIME = LocalTime.of(8, 0);
+    public static final LocalTime CLOSING_TIME = LocalTime.of(18, 0);
+    private static final int CHECKPOINT_INTERVAL = 10_000;
+
+    private final ClinicRegistry registry = new ClinicRegistry();
+    private final OwnerRegistry owners = new OwnerRegistry();
+    private final VeterinarianRegistry veterinarians = new VeterinarianRegistry();
+    private final PetIndex petIndex = new PetIndex();
+    private final PetOrderIndex petOrder = new PetOrderIndex();
+    // Plain lambdas rather than Comparator.comparingLong: the index compares on every insert, and the
+    // shared comparingLong lambda cannot inline the id getter.
+    private final TextIndex<Pet> petText = new TextIndex<>(4, (a, b) -> Long.compare(a.getId(), b.getId()));
+    private final TextIndex<Appointment> appointmentText =
+            new TextIndex<>(4, (a, b) -> Long.compare(a.getId(), b.getId()));
+    private final ClinicStatistics statistics = new ClinicStatistics();
+    private final AppointmentSchedule schedule = new AppointmentSchedule();
+    private final AppointmentIndex appointmentIndex = new AppointmentIndex();
+    private final ClinicMetrics metrics = new ClinicMetrics();
+    private final ClinicMetrics.Timer findPetsByNameTimer = metrics.timer("find_pets_by_name", 16);
+    private final ClinicMetrics.Timer searchPetsTimer = metrics.timer("search_pets");
+    private final ClinicMetrics.Timer findPetsTimer = metrics.timer("find_pets");
+    private final ClinicMetrics.Timer searchAppointmentsTimer = metrics.timer("search_appointments");
+    private final ClinicMetrics.Timer reportTimer = metrics.timer("generate_report");
+    private final ClinicMetrics.Timer findConflictTimer = metrics.timer("find_conflict", 16);
+    private final ClinicMetrics.Timer findAppointmentsTimer = metrics.timer("find_appointments");
+    private final ClinicMetrics.Timer findFreeSlotsTimer = metrics.timer("find_free_slots");
+    private final ClinicMetrics.Timer bookAppointmentTimer = metrics.timer("book_appointment");
+    private final ClinicMetrics.Timer bookAppointmentsTimer = metrics.timer("book_appointments");
+    private final ClinicMetrics.Timer loadPetsTimer = metrics.timer("load_pets");
+    private final ClinicMetrics.Timer loadAppointmentsTimer = metrics.timer("load_appointments");
+    private final ClinicMetrics.Timer savePetsTimer = metrics.timer("save_pets");
+    private final ClinicMetrics.Timer saveAppointmentsTimer = metrics.timer("save_appointments");
+    private final ClinicMetrics.Timer importPetsTimer = metrics.timer("import_pets");
+    private final ClinicMetrics.Timer writeSnapshotTimer = metrics.timer("write_snapshot");
+    private final ClinicMetrics.Timer replayJournalTimer = metrics.timer("replay_journal");
+    private final ClinicMetrics.Timer checkpointTimer = metrics.timer("checkpoint");
+    private final ClinicMetrics.Timer addPetTimer = metrics.timer("add_pet");
+    private final ClinicMetrics.Timer deletePetTimer = metrics.timer("delete_pet");
+    private final ClinicMetrics.Timer deleteOwnerTimer = metrics.timer("delete_owner");
+    private final ClinicMetrics.Timer modifyPetTimer = metrics.timer("modify_pet");
+    private final ClinicMetrics.Timer rescheduleAppointmentTimer = metrics.timer("reschedule_appointment");
+    private final ClinicMetrics.Timer modifyAppointmentTimer = metrics.timer("modify_appointment");
+    private final ClinicMetrics.Timer deleteAppointmentTimer = metrics.timer("delete_appointment");
+    private final ClinicMetrics.Timer archiveAppointmentsTimer = metrics.timer("archive_appointments");
+    private final ClinicMetrics.Timer findArchivedTimer = metrics.timer("find_archived_appointments");
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private final ReentrantLock petLock = new ReentrantLock();
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final AppointmentArchive archive;
+    private volatile ClinicJournal journal;
+    private volatile IOException journalFailure;
+
+    public ClinicService(Path snapshotFile, Path journalFile) {
+        this(snapshotFile, journalFile, snapshotFile.resolveSibling("ClinicArchive"));
+    }
+
+    public ClinicService(Path snapshotFile, Path journalFile, Path archiveDirectory) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.archive = new AppointmentArchive(archiveDirectory);
+    }
+
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public Path getJournalFile() {
+        return journalFile;
+    }
+
+    public Path getArchiveDirectory() {
+        return archive.getDirectory();
+    }
+
+    public Collection<Pet> getPets() {
+        return registry.getPets();
+    }
+
+    public Pet getPet(long id) {
+        return registry.getPet(id);
+    }
+
+    public Set<Pet> findPetsByName(String name) {
+        long startedAt = findPetsByNameTimer.start();
+        try {
+            return petIndex.findByName(name);
+        } finally {
+            findPetsByNameTimer.record(startedAt);
+        }
+    }
+
+    // One page of pets in the query's order; pass the page's cursor to PetQuery.after for the next.
+    public PetPage findPets(PetQuery query) {
+        long startedAt = findPetsTimer.start();
+        try {
+            return petOrder.query(query);
+        } finally {
+            findPetsTimer.record(startedAt);
+        }
+    }
+
+    // Ranked by how well the words match: names first, then owners, breeds and colours.
+    public List<Pet> searchPets(String term, int limit) {
+        long startedAt = searchPetsTimer.start();
+        try {
+            return petText.search(term, limit);
+        } finally {
+            searchPetsTimer.record(startedAt);
+        }
+    }
+
+    // Ranked by how well the words match: pet names first, then owners, reasons and vets.
+    public List<Appointment> searchAppointments(String term, int limit) {
+        long startedAt = searchAppointmentsTimer.start();
+        try {
+            return appointmentText.search(term, limit);
+        } finally {
+            searchAppointmentsTimer.record(startedAt);
+        }
+    }
+
+    public Owner findOwnerByPhone(String phoneNumber) {
+        return owners.findByPhone(phoneNumber);
+    }
+
+    public Set<Pet> getPetsForOwner(Owner owner) {
+        return owners.getPets(owner);
+    }
+
+    public ClinicReport buildReport() {
+        long startedAt = reportTimer.start();
+        try {
+            return statistics.toReport();
+        } finally {
+            reportTimer.record(startedAt);
+        }
+    }
+
+    public ClinicMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ClinicStatistics getStatistics() {
+        return statistics;
+    }
+
+    public Collection<Appointment> getAppointments() {
+        return registry.getAppointments();
+    }
+
+    public Appointment getAppointment(long id) {
+        return registry.getAppointment(id);
+    }
+
+    public Appointment findConflict(LocalDateTime start, int durationMinutes, Veterinarian veterinarian, Pet pet,
+                                    Appointment ignore) {
+        long startedAt = findConflictTimer.start();
+        try {
+            return schedule.findConflict(start, durationMinutes, veterinarian, pet, ignore);
+        } finally {
+            findConflictTimer.record(startedAt);
+        }
+    }
+
+    // One page of appointments in start order; pass the page's cursor to AppointmentQuery.after for the next.
+    public AppointmentPage findAppointments(AppointmentQuery query) {
+        long startedAt = findAppointmentsTimer.start();
+        try {
+            return appointmentIndex.query(query);
+        } finally {
+            findAppointmentsTimer.record(startedAt);
+        }
+    }
+
+    // Archived appointments starting on or after from and before to, read from the archive files on demand.
+    public List<ArchivedAppointment> findArchivedAppointments(LocalDate from, LocalDate to,
+                                                              Predicate<ArchivedAppointment> filter, int limit)
+            throws IOException {
+        long startedAt = findArchivedTimer.start();
+        try {
+            return archive.find(from, to, filter, limit);
+        } finally {
+            findArchivedTimer.record(startedAt);
+        }
+    }
+
+    public List<Veterinarian> getVeterinarians() {
+        return veterinarians.getVeterinarians();
+    }
+
+    public Veterinarian findVeterinarian(String name) {
+        return veterinarians.find(name);
+    }
+
+    public List<Appointment> getVeterinarianDay(Veterinarian veterinarian, LocalDate day) {
+        return schedule.getDay(veterinarian, day);
+    }
+
+    public static boolean isWithinClinicHours(LocalDateTime dateTime) {
+        LocalTime time = dateTime.toLocalTime();
+        return !time.isBefore(OPENING_TIME) && time.isBefore(CLOSING_TIME);
+    }
+
+    // Earliest free slots between from and the end of lastDay that fit inside opening hours, with the given
+    // vet or, when veterinarian is null, with any vet on record. A non-null pet must be free as well. This
+    // is a suggestion: another desk may take a slot before it is booked, and bookAppointment checks again.
+    public List<AppointmentSchedule.Slot> findFreeSlots(int durationMinutes, LocalDateTime from, LocalDate lastDay,
+                                                        int count, Veterinarian veterinarian, Pet pet) {
+        long startedAt = findFreeSlotsTimer.start();
+        try {
+            if (durationMinutes <= 0) {
+                throw new IllegalArgumentException("Duration must be positive");
+            }
+            if (count <= 0) {
+                throw new IllegalArgumentException("Slot count must be positive");
+            }
+            Collection<Veterinarian> candidates = veterinarians.getVeterinarians();
+            if (veterinarian != null) {
+                Veterinarian known = veterinarians.find(veterinarian.getName());
+                candidates = Collections.singletonList(known != null ? known : veterinarian);
+            }
+            return schedule.findFreeSlots(from, lastDay, OPENING_TIME, CLOSING_TIME, durationMinutes, count, candidates, pet);
+        } finally {
+            findFreeSlotsTimer.record(startedAt);
+        }
+    }
+
+    // The record goes first, so no other desk can see or change a pet that might never reach the journal.
+    // A pet whose owner's phone number is already known joins that household when it is registered, and
+    // replay interns owners by phone number the same way.
+    public void addPet(Pet pet) {
+        writePets(addPetTimer, () -> {
+            record(j -> j.recordAddPet(pet));
+            registerPet(pet);
+        });
+    }
+
+    // The pet's appointments go with it. Returns how many there were.
+    public int removePet(Pet pet) {
+        return removePets(deletePetTimer, () -> {
+            requireRegistered(pet);
+            return List.of(pet);
+        });
+    }
+
+    // Every pet in the household and all of their appointments. Returns how many appointments went.
+    public int removeOwner(Owner owner) {
+        return removePets(deleteOwnerTimer, () -> new ArrayList<>(owners.getPets(owner)));
+    }
+
+    // Owners are shared, so an owner edit changes what every pet in the household is indexed under. A change
+    // that throws part way, or takes another owner's phone number, is undone field by field, so nothing
+    // unjournaled is left behind.
+    public void modifyPet(Pet pet, Consumer<Pet> change) {
+        writePets(modifyPetTimer, () -> {
+            requireRegistered(pet);
+            Owner owner = pet.getOwner();
+            String previousPhoneNumber = owner.getPhoneNumber();
+            Runnable undo = undoFor(pet);
+            List<Pet> household = new ArrayList<>(owners.getPets(owner));
+            household.forEach(this::unindexPet);
+            try {
+                change.accept(pet);
+                Owner phoneOwner = owners.findByPhone(owner.getPhoneNumber());
+                if (phoneOwner != null && phoneOwner != owner) {
+                    throw new IllegalArgumentException("That phone number already belongs to " + phoneOwner.getName());
+                }
+                record(j -> j.recordModifyPet(pet));
+                owners.phoneNumberChanged(owner, previousPhoneNumber);
+            } catch (RuntimeException e) {
+                undo.run();
+                throw e;
+            } finally {
+                household.forEach(this::indexPet);
+            }
+        });
+    }
+
+    static Runnable undoFor(Pet pet) {
+        String name = pet.getName();
+        int age = pet.age;
+        String colour = pet.getColour();
+        double weight = pet.weight;
+        String breed = pet.getBreed();
+        Owner owner = pet.getOwner();
+        String ownerName = owner.getName();
+        String ownerPhone = owner.getPhoneNumber();
+        String ownerAddress = owner.getAddress();
+        return () -> {
+            pet.setName(name);
+            pet.setAge(age);
+            pet.setColour(colour);
+            pet.setWeight(weight);
+            pet.setBreed(breed);
+            pet.setOwner(owner);
+            owner.setName(ownerName);
+            owner.setPhoneNumber(ownerPhone);
+            owner.setAddress(ownerAddress);
+        };
+    }
+
+    // Returns the appointment that keeps the vet or the pet busy, or null once the new appointment is booked.
+    // The conflict check and the booking happen under the same day locks, so two desks cannot both take a slot.
+    public Appointment bookAppointment(Appointment appointment) {
+        long startedAt = bookAppointmentTimer.start();
+        stateLock.readLock().lock();
+        try {
+            return schedule.lockDays(null, appointment.getDateTime(), appointment.getDuration(), () -> {
+                Appointment conflict = schedule.findConflict(appointment.getDateTime(), appointment.getDuration(),
+                        appointment.getVeterinarian(), appointment.getPet(), null);
+                if (conflict != null) {
+                    return conflict;
+                }
+                if (registry.getPet(appointment.getPet().getId()) != appointment.getPet()) {
+                    throw new IllegalArgumentException(appointment.getPet().getName() + " is no longer registered");
+                }
+                requireWritable();
+                record(j -> j.recordAddAppointment(appointment));
+                registerAppointment(appointment);
+                return null;
+            });
+        } finally {
+            stateLock.readLock().unlock();
+            checkpointIfDue();
+            bookAppointmentTimer.record(startedAt);
+        }
+    }
+
+    // Books every appointment in the batch or none of them. Returns an empty map once all are booked;
+    // otherwise each appointment that cannot be booked, in start order, mapped to one that blocks it,
+    // which may be an existing booking or an earlier appointment in the same batch.
+    public Map<Appointment, Appointment> bookAppointments(List<Appointment> batch) {
+        long startedAt = bookAppointmentsTimer.start();
+        stateLock.readLock().lock();
+        try {
+            return schedule.lockDays(batch, () -> {
+                Map<Appointment, Appointment> conflicts = schedule.findConflicts(batch);
+                if (!conflicts.isEmpty()) {
+                    return conflicts;
+                }
+                for (Appointment appointment : batch) {
+                    if (registry.getPet(appointment.getPet().getId()) != appointment.getPet()) {
+                        throw new IllegalArgumentException(appointment.getPet().getName() + " is no longer registered");
+                    }
+                }
+                requireWritable();
+                record(j -> j.recordAddAppointments(batch));
+                for (Appointment appointment : batch) {
+                    registerAppointment(appointment);
+                }
+                return conflicts;
+            });
+        } finally {
+            stateLock.readLock().unlock();
+            checkpointIfDue();
+            bookAppointmentsTimer.record(startedAt);
+        }
+    }
+
+    public Appointment rescheduleAppointment(Appointment appointment, LocalDateTime dateTime, Integer duration) {
+        return rescheduleAppointment(appointment, dateTime, duration, null);
+    }
+
+    // Moves the appointment to a new slot and, when veterinarian is not null, to that vet's calendar. A null
+    // duration means the default length.
+    public Appointment rescheduleAppointment(Appointment appointment, LocalDateTime dateTime, Integer duration,
+                                             Veterinarian veterinarian) {
+        return updateAppointment(appointment, dateTime, duration != null ? duration : Appointment.DEFAULT_DURATION,
+                veterinarian, null);
+    }
+
+    // The change must leave the slot alone; rescheduleAppointment moves appointments.
+    public Appointment modifyAppointment(Appointment appointment, Consumer<Appointment> change) {
+        return updateAppointment(appointment, null, null, null, change);
+    }
+
+    // Moves the appointment to the given start, duration and vet, keeping its own for any left null, and
+    // applies change, which may be null, as a single edit: one conflict check and one journal record, under
+    // the locks of every day the appointment leaves or enters. Returns the appointment that blocks the
+    // result, or null once it is saved. The change itself must leave the slot alone.
+    public Appointment updateAppointment(Appointment appointment, LocalDateTime dateTime, Integer duration,
+                                         Veterinarian veterinarian, Consumer<Appointment> change) {
+        boolean moves = dateTime != null || duration != null || veterinarian != null;
+        ClinicMetrics.Timer timer = moves ? rescheduleAppointmentTimer : modifyAppointmentTimer;
+        long startedAt = timer.start();
+        stateLock.readLock().lock();
+        try {
+            return schedule.lockChange(appointment, dateTime, duration, () -> {
+                requireRegistered(appointment);
+                requireWritable();
+                return changeAppointment(appointment, moves, changed -> {
+                    // An appointment already under way keeps its start when only the vet or length changes.
+                    if (dateTime != null && !dateTime.equals(changed.getDateTime())) {
+                        changed.setDateTime(dateTime);
+                    }
+                    if (duration != null) {
+                        changed.setDuration(duration);
+                    }
+                    if (veterinarian != null) {
+                        changed.setVeterinarian(veterinarians.intern(veterinarian));
+                    }
+                    if (change != null) {
+                        LocalDateTime start = changed.getDateTime();
+                        int minutes = changed.getDuration();
+                        change.accept(changed);
+                        if (!start.equals(changed.getDateTime()) || minutes != changed.getDuration()) {
+                            throw new IllegalArgumentException("Pass the new date, time and duration to move an appointment");
+                        }
+                    }
+                });
+            });
+        } finally {
+            stateLock.readLock().unlock();
+            checkpointIfDue();
+            timer.record(startedAt);
+        }
+    }
+
+    public void removeAppointment(Appointment appointment) {
+        writeAppointment(deleteAppointmentTimer, appointment, () -> {
+            record(j -> j.recordDeleteAppointment(appointment));
+            unindexAppointment(appointment);
+            registry.removeAppointment(appointment);
+        });
+    }
+
+    public LoadReport loadPets(Reader source) throws IOException {
+        long startedAt = loadPetsTimer.start();
+        stateLock.writeLock().lock();
+        try {
+            LoadReport report = new LoadReport();
+            try (RecordReader record = new RecordReader(source)) {
+                while (record.next()) {
+                    Pet pet = ClinicTextFormat.parsePet(record, report);
+                    if (pet != null) {
+                        registerPet(pet);
+                        report.recordSuccess();
+                    }
+                }
+            }
+            recordLoad("pets", report);
+            return report;
+        } finally {
+            stateLock.writeLock().unlock();
+            loadPetsTimer.record(startedAt);
+        }
+    }
+
+    public LoadReport loadAppointments(Reader source) throws IOException {
+        long startedAt = loadAppointmentsTimer.start();
+        stateLock.writeLock().lock();
+        try {
+            LoadReport report = new LoadReport();
+            try (RecordReader record = new RecordReader(source)) {
+                while (record.next()) {
+                    Appointment appointment = ClinicTextFormat.parseAppointment(record, this::findPetByExactName, report);
+                    if (appointment != null) {
+                        registerAppointment(appointment);
+                        report.recordSuccess();
+                    }
+                }
+            }
+            recordLoad("appointments", report);
+            return report;
+        } finally {
+            stateLock.writeLock().unlock();
+            loadAppointmentsTimer.record(startedAt);
+        }
+    }
+
+    // Writes the pets that can be loaded back and returns how many that was.
+    public int savePets(Writer target) throws IOException {
+        long startedAt = savePetsTimer.start();
+        stateLock.writeLock().lock();
+        try (BufferedWriter out = new BufferedWriter(target)) {
+            int saved = 0;
+            for (Pet pet : registry.getPets()) {
+                if (ClinicTextFormat.isSavable(pet)) {
+                    ClinicTextFormat.writePet(out, pet);
+                    saved++;
+                }
+            }
+            return saved;
+        } finally {
+            stateLock.writeLock().unlock();
+            savePetsTimer.record(startedAt);
+        }
+    }
+
+    public int saveAppointments(Writer target) throws IOException {
+        long startedAt = saveAppointmentsTimer.start();
+        stateLock.writeLock().lock();
+        try (BufferedWriter out = new BufferedWriter(target)) {
+            int saved = 0;
+            for (Appointment appointment : registry.getAppointments()) {
+                ClinicTextFormat.writeAppointment(out, appointment);
+                saved++;
+            }
+            return saved;
+        } finally {
+            stateLock.writeLock().unlock();
+            saveAppointmentsTimer.record(startedAt);
+        }
+    }
+
+    // Bulk imports parse outside the service, so they report their rows here as well.
+    public void recordLoad(String kind, LoadReport report) {
+        metrics.count(kind + "_loaded", report.getLoaded());
+        metrics.count(kind + "_parse_failures", report.getFailed());
+    }
+
+    private Pet findPetByExactName(String name) {
+        for (Pet candidate : petIndex.findByName(name)) {
+            if (candidate.getName().equals(name)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // An import can be far larger than one journal record may be, so rather than journal it the clinic
+    // checkpoints under the same write lock: the snapshot holds the whole import, or a crash first leaves
+    // none of it. If the checkpoint fails the pets stay in memory, but like any failed checkpoint it stops
+    // further changes, so nothing is built on pets that will be gone after a restart.
+    public void importPets(Collection<Pet> imported) {
+        long startedAt = importPetsTimer.start();
+        stateLock.writeLock().lock();
+        try {
+            requireWritable();
+            for (Pet pet : imported) {
+                registerPet(pet);
+            }
+            if (journal != null && !imported.isEmpty()) {
+                try {
+                    checkpoint();
+                } catch (IOException e) {
+                    journalFailure = e;
+                    throw new UncheckedIOException("The import could not be saved, so no further changes are accepted: "
+                            + describe(e), e);
+                }
+            }
+        } finally {
+            stateLock.writeLock().unlock();
+            importPetsTimer.record(startedAt);
+        }
+    }
+
+    public void clearPets() {
+        stateLock.writeLock().lock();
+        try {
+            registry.clearPets();
+            owners.clear();
+            petIndex.clear();
+            petOrder.clear();
+            petText.clear();
+            statistics.clear();
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    public void clearAppointments() {
+        stateLock.writeLock().lock();
+        try {
+            registry.clearAppointments();
+            veterinarians.clear();
+            schedule.clear();
+            appointmentIndex.clear();
+            appointmentText.clear();
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    public void restore(ClinicSnapshot snapshot) {
+        stateLock.writeLock().lock();
+        try {
+            clearPets();
+            clearAppointments();
+            for (Pet pet : snapshot.getPets()) {
+                registerPet(pet);
+            }
+            for (Appointment appointment : snapshot.getAppointments()) {
+                registerAppointment(appointment);
+            }
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    public void writeSnapshot() throws IOException {
+        long startedAt = writeSnapshotTimer.start();
+        stateLock.writeLock().lock();
+        try {
+            ClinicSnapshot.write(snapshotFile, registry.getPets(), registry.getAppointments());
+        } finally {
+            stateLock.writeLock().unlock();
+            writeSnapshotTimer.record(startedAt);
+        }
+    }
+
+    // Replays the journal on top of the current state and returns the number of records applied. A journal
+    // that cannot be replayed leaves the state as it was and refuses every change, because records added
+    // after the bad one would never be replayed either.
+    public int replayJournal() throws IOException {
+        long startedAt = replayJournalTimer.start();
+        stateLock.writeLock().lock();
+        try {
+            if (!Files.exists(journalFile) || Files.size(journalFile) == 0) {
+                return 0;
+            }
+            List<Pet> recoveredPets = new ArrayList<>(registry.getPets());
+            List<Appointment> recoveredAppointments = new ArrayList<>(registry.getAppointments());
+            int applied = ClinicJournal.replay(journalFile, recoveredPets, recoveredAppointments);
+            restore(new ClinicSnapshot(recoveredPets, recoveredAppointments));
+            return applied;
+        } catch (IOException e) {
+            journalFailure = e;
+            throw e;
+        } finally {
+            stateLock.writeLock().unlock();
+            replayJournalTimer.record(startedAt);
+        }
+    }
+
+    // Without a journal no change could be made durable, so one that cannot be opened refuses them all.
+    public void openJournal() throws IOException {
+        try {
+            journal = new ClinicJournal(journalFile);
+        } catch (IOException e) {
+            journalFailure = e;
+            throw e;
+        }
+    }
+
+    // A journal left over when the clinic starts from its text files belongs to other data, so it is renamed
+    // rather than replayed. Returns where it went.
+    public Path setJournalAside() throws IOException {
+        Path ignored = journalFile.resolveSibling(journalFile.getFileName() + ".ignored");
+        try {
+            Files.move(journalFile, ignored, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            journalFailure = e;
+            throw e;
+        }
+        return ignored;
+    }
+
+    public void closeJournal() throws IOException {
+        ClinicJournal current = journal;
+        journal = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    // Moves completed and cancelled appointments from before today into the archive, so memory, snapshots
+    // and startup only carry work that is still to come. Past appointments never marked done stay put for
+    // someone to close. The archive is on disk before anything leaves memory; a crash before the removal
+    // is journaled only means the next run archives them again, and archive reads drop the repeats.
+    public int archiveAppointments() throws IOException {
+        long startedAt = archiveAppointmentsTimer.start();
+        stateLock.writeLock().lock();
+        try {
+            requireWritable();
+            List<Appointment> finished = appointmentIndex.query(new AppointmentQuery()
+                    .statuses(EnumSet.of(Appointment.AppointmentStatus.COMPLETED, Appointment.AppointmentStatus.CANCELLED))
+                    .to(LocalDate.now().atStartOfDay())
+                    .limit(Integer.MAX_VALUE)).getAppointments();
+            if (finished.isEmpty()) {
+                return 0;
+            }
+            archive.append(finished);
+            record(j -> j.recordDeleteAppointments(finished));
+            for (Appointment appointment : finished) {
+                unindexAppointment(appointment);
+                registry.removeAppointment(appointment);
+            }
+            return finished.size();
+        } finally {
+            stateLock.writeLock().unlock();
+            checkpointIfDue();
+            archiveAppointmentsTimer.record(startedAt);
+        }
+    }
+
+    // Writes a snapshot and empties the journal with no change in flight, so neither misses an update. Once
+    // the journal has failed, the one on disk is what the next start recovers from, so no snapshot is written
+    // over its base.
+    public void checkpoint() throws IOException {
+        long startedAt = checkpointTimer.start();
+        stateLock.writeLock().lock();
+        try {
+            IOException failure = journalFailure;
+            if (failure != null) {
+                throw new IOException("No snapshot is written since the journal failed: " + describe(failure), failure);
+            }
+            ClinicSnapshot.write(snapshotFile, registry.getPets(), registry.getAppointments());
+            if (journal != null) {
+                try {
+                    journal.truncate();
+                } catch (IOException e) {
+                    journalFailure = e;
+                    throw e;
+                }
+            }
+        } finally {
+            stateLock.writeLock().unlock();
+            checkpointTimer.record(startedAt);
+        }
+    }
+
+    private void checkpointIfDue() {
+        ClinicJournal current = journal;
+        if (current == null || current.getRecordCount() < CHECKPOINT_INTERVAL) {
+            return;
+        }
+        stateLock.writeLock().lock();
+        try {
+            if (current.getRecordCount() >= CHECKPOINT_INTERVAL) {
+                checkpoint();
+            }
+        } catch (IOException e) {
+            // The change itself is journaled, but a journal that cannot be checkpointed only grows.
+            journalFailure = e;
+            throw new UncheckedIOException("Checkpoint failed, so no further changes are accepted: " + describe(e), e);
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    private void writePets(ClinicMetrics.Timer timer, Runnable action) {
+        long startedAt = timer.start();
+        stateLock.readLock().lock();
+        petLock.lock();
+        try {
+            requireWritable();
+            action.run();
+        } finally {
+            petLock.unlock();
+            stateLock.readLock().unlock();
+            checkpointIfDue();
+            timer.record(startedAt);
+        }
+    }
+
+    // Deleting a pet reaches into every day its appointments fall on, so rather than take those day locks
+    // one by one it shuts out all other writers, which also stops a booking for the pet slipping in.
+    private int removePets(ClinicMetrics.Timer timer, Supplier<Collection<Pet>> doomed) {
+        long startedAt = timer.start();
+        stateLock.writeLock().lock();
+        try {
+            requireWritable();
+            int appointmentsRemoved = 0;
+            for (Pet pet : doomed.get()) {
+                record(j -> j.recordDeletePet(pet));
+                appointmentsRemoved += unregisterPet(pet);
+            }
+            return appointmentsRemoved;
+        } finally {
+            stateLock.writeLock().unlock();
+            checkpointIfDue();
+            timer.record(startedAt);
+        }
+    }
+
+    private void writeAppointment(ClinicMetrics.Timer timer, Appointment appointment, Runnable action) {
+        long startedAt = timer.start();
+        stateLock.readLock().lock();
+        try {
+            schedule.lockDays(appointment, appointment.getDateTime(), appointment.getDuration(), () -> {
+                requireRegistered(appointment);
+                requireWritable();
+                action.run();
+                return null;
+            });
+        } finally {
+            stateLock.readLock().unlock();
+            checkpointIfDue();
+            timer.record(startedAt);
+        }
+    }
+
+    // The appointment is back in the indexes before the journal write, so lookups never miss it while the
+    // write waits for the disk. The new slot is checked when the change moves the appointment, and when it
+    // brings a cancelled appointment back into the calendars, where others may have booked in the meantime.
+    // A change that throws, lands on another booking, or whose record cannot be written, is undone.
+    private Appointment changeAppointment(Appointment appointment, boolean moves, Consumer<Appointment> change) {
+        Runnable undo = undoFor(appointment);
+        boolean wasCancelled = appointment.getStatus() == Appointment.AppointmentStatus.CANCELLED;
+        unindexAppointment(appointment);
+        try {
+            change.accept(appointment);
+            if (moves || wasCancelled && appointment.getStatus() != Appointment.AppointmentStatus.CANCELLED) {
+                Appointment conflict = schedule.findConflict(appointment.getDateTime(), appointment.getDuration(),
+                        appointment.getVeterinarian(), appointment.getPet(), appointment);
+                if (conflict != null) {
+                    undo.run();
+                    return conflict;
+                }
+            }
+        } catch (RuntimeException e) {
+            undo.run();
+            throw e;
+        } finally {
+            indexAppointment(appointment);
+        }
+        record(j -> j.recordModifyAppointment(appointment), () -> {
+            unindexAppointment(appointment);
+            undo.run();
+            indexAppointment(appointment);
+        });
+        return null;
+    }
+
+    private static Runnable undoFor(Appointment appointment) {
+        LocalDateTime dateTime = appointment.getDateTime();
+        int duration = appointment.getDuration();
+        Veterinarian veterinarian = appointment.getVeterinarian();
+        String reason = appointment.getReason();
+        Appointment.AppointmentStatus status = appointment.getStatus();
+        return () -> {
+            appointment.restoreDateTime(dateTime);
+            appointment.setDuration(duration);
+            appointment.setVeterinarian(veterinarian);
+            appointment.setReason(reason);
+            appointment.setStatus(status);
+        };
+    }
+
+    // Appointments naming the same vet share one Veterinarian, so the roster lists each vet once.
+    private void registerAppointment(Appointment appointment) {
+        appointment.setVeterinarian(veterinarians.intern(appointment.getVeterinarian()));
+        registry.addAppointment(appointment);
+        indexAppointment(appointment);
+    }
+
+    // The schedule and the time index both key on the slot, so an appointment leaves them before it
+    // changes and comes back afterwards.
+    private void indexAppointment(Appointment appointment) {
+        schedule.add(appointment);
+        appointmentIndex.add(appointment);
+        indexText(appointment);
+    }
+
+    private void unindexAppointment(Appointment appointment) {
+        schedule.remove(appointment);
+        appointmentIndex.remove(appointment);
+        appointmentText.remove(appointment);
+    }
+
+    private void indexText(Appointment appointment) {
+        Pet pet = appointment.getPet();
+        appointmentText.index(appointment, pet.getName(), pet.getOwner().getName(), appointment.getReason(),
+                appointment.getVeterinarian().getName());
+    }
+
+    private void requireRegistered(Pet pet) {
+        if (registry.getPet(pet.getId()) != pet) {
+            throw new IllegalArgumentException(pet.getName() + " is no longer registered");
+        }
+    }
+
+    private void requireRegistered(Appointment appointment) {
+        if (registry.getAppointment(appointment.getId()) != appointment) {
+            throw new IllegalArgumentException("That appointment no longer exists");
+        }
+    }
+
+    private void registerPet(Pet pet) {
+        owners.addPet(pet);
+        registry.addPet(pet);
+        indexPet(pet);
+    }
+
+    // The registry's pet-to-appointments map finds the pet's bookings without scanning everyone else's.
+    private int unregisterPet(Pet pet) {
+        List<Appointment> booked = new ArrayList<>(registry.getAppointments(pet));
+        for (Appointment appointment : booked) {
+            unindexAppointment(appointment);
+            registry.removeAppointment(appointment);
+        }
+        registry.removePet(pet);
+        unindexPet(pet);
+        owners.removePet(pet);
+        return booked.size();
+    }
+
+    // Appointments are searchable by their pet's and owner's names, so they follow the pet's edits.
+    private void indexPet(Pet pet) {
+        petIndex.add(pet);
+        petOrder.add(pet);
+        petText.index(pet, pet.getName(), pet.getOwner().getName(), pet.getBreed(), pet.getColour());
+        statistics.add(pet);
+        for (Appointment appointment : registry.getAppointments(pet)) {
+            indexText(appointment);
+        }
+    }
+
+    private void unindexPet(Pet pet) {
+        petIndex.remove(pet);
+        petOrder.remove(pet);
+        petText.remove(pet);
+        statistics.remove(pet);
+    }
+
+    private interface JournalWrite {
+        void write(ClinicJournal journal) throws IOException;
+    }
+
+    // Once a journal write or a checkpoint has failed, nothing more can be made durable, so every change is
+    // refused until the clinic restarts and recovers from what did reach the disk.
+    private void requireWritable() {
+        IOException failure = journalFailure;
+        if (failure != null) {
+            throw new UncheckedIOException("No changes are accepted since the journal failed: " + describe(failure),
+                    failure);
+        }
+    }
+
+    // Changes are journaled before they are applied wherever the record can be written first; the rest
+    // pass an undo to run if the write fails.
+    private void record(JournalWrite write) {
+        record(write, () -> { });
+    }
+
+    private void record(JournalWrite write, Runnable undo) {
+        ClinicJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            write.write(current);
+        } catch (IOException e) {
+            journalFailure = e;
+            undo.run();
+            throw new UncheckedIOException("The change could not be saved: " + describe(e), e);
+        }
+    }
+
+    private static String describe(IOException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,337 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+public class ClinicSnapshot {
+    public static final int MAGIC = 0x50434D53;
+    public static final short VERSION = 2;
+
+    private static final byte END = 0;
+    private static final byte OWNER = 1;
+    private static final byte PET = 2;
+    private static final byte APPOINTMENT = 3;
+    private static final byte ID_LIMITS = 4;
+
+    private static final byte DOG = 0;
+    private static final byte CAT = 1;
+    private static final byte HAMSTER = 2;
+
+    private final List<Pet> pets;
+    private final List<Appointment> appointments;
+
+    public ClinicSnapshot(List<Pet> pets, List<Appointment> appointments) {
+        this.pets = pets;
+        this.appointments = appointments;
+    }
+
+    public List<Pet> getPets() {
+        return pets;
+    }
+
+    public List<Appointment> getAppointments() {
+        return appointments;
+    }
+
+    public static void write(Path file, Collection<Pet> pets, Collection<Appointment> appointments) throws IOException {
+        Set<Long> writtenOwners = new HashSet<>();
+        Set<Pet> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        try (StreamWriter writer = new StreamWriter(file)) {
+            for (Pet pet : pets) {
+                if (writtenOwners.add(pet.getOwner().getId())) {
+                    writer.writeOwner(pet.getOwner());
+                }
+                written.add(pet);
+                writer.writePet(pet);
+            }
+            for (Appointment appointment : appointments) {
+                if (written.contains(appointment.getPet())) {
+                    writer.writeAppointment(appointment);
+                }
+            }
+            writer.finish();
+        }
+    }
+
+    // Writes a snapshot one record at a time, so it can be produced without the clinic in memory. Owners
+    // must come before their pets and pets before their appointments. The file only replaces an existing
+    // snapshot once finish() is called; closing without it discards what was written.
+    public static class StreamWriter implements Closeable {
+        private final Path file;
+        private final Path temporary;
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(256);
+        private final DataOutputStream payload = new DataOutputStream(payloadBytes);
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private boolean finished;
+
+        public StreamWriter(Path file) throws IOException {
+            this.file = file;
+            this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+        }
+
+        public void writeOwner(Owner owner) throws IOException {
+            writeVarLong(payload, owner.getId());
+            writeString(payload, owner.getName());
+            writeString(payload, owner.getPhoneNumber());
+            writeString(payload, owner.getAddress());
+            writeRecord(out, OWNER, payloadBytes);
+        }
+
+        public void writePet(Pet pet) throws IOException {
+            writeVarLong(payload, pet.getId());
+            writeVarLong(payload, pet.getOwner().getId());
+            payload.writeByte(typeCode(pet));
+            writeString(payload, pet.getName());
+            writeVarInt(payload, pet.age);
+            writeDictionaryString(payload, dictionary, pet.getColour());
+            payload.writeDouble(pet.weight);
+            writeDictionaryString(payload, dictionary, pet.getBreed());
+            writeRecord(out, PET, payloadBytes);
+        }
+
+        public void writeAppointment(Appointment appointment) throws IOException {
+            writeVarLong(payload, appointment.getId());
+            writeVarLong(payload, appointment.getPet().getId());
+            payload.writeLong(appointment.getDateTime().toEpochSecond(ZoneOffset.UTC));
+            writeDictionaryString(payload, dictionary, appointment.getReason());
+            writeDictionaryString(payload, dictionary, appointment.getVeterinarian().getName());
+            writeVarInt(payload, appointment.getDuration());
+            payload.writeByte(appointment.getStatus().ordinal());
+            writeRecord(out, APPOINTMENT, payloadBytes);
+        }
+
+        // The id counters go last, once every record has been restored or allocated. Older readers skip
+        // the record type they do not know.
+        public void finish() throws IOException {
+            writeVarLong(payload, Owner.lastId());
+            writeVarLong(payload, Pet.lastId());
+            writeVarLong(payload, Appointment.lastId());
+            writeRecord(out, ID_LIMITS, payloadBytes);
+            out.writeByte(END);
+            out.close();
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                out.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    static byte typeCode(Pet pet) {
+        if (pet instanceof Pet.Cat) {
+            return CAT;
+        } else if (pet instanceof Pet.Hamster) {
+            return HAMSTER;
+        }
+        return DOG;
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    // Colours, breeds, reasons and vets repeat heavily, so each distinct value is written once and
+    // referenced afterwards: 0 introduces a new entry, n refers back to entry n - 1.
+    private static void writeDictionaryString(DataOutputStream out, Map<String, Integer> dictionary, String value)
+            throws IOException {
+        Integer reference = dictionary.get(value);
+        if (reference != null) {
+            writeVarInt(out, reference + 1);
+        } else {
+            dictionary.put(value, dictionary.size());
+            writeVarInt(out, 0);
+            writeString(out, value);
+        }
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static void writeRecord(DataOutputStream out, byte type, ByteArrayOutputStream payload) throws IOException {
+        out.writeByte(type);
+        writeVarInt(out, payload.size());
+        payload.writeTo(out);
+        payload.reset();
+    }
+
+    public static ClinicSnapshot read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a clinic snapshot: " + file);
+            }
+            short version = in.readShort();
+            if (version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+
+            Map<Long, Owner> owners = new HashMap<>();
+            Map<Long, Pet> petsById = new HashMap<>();
+            List<Pet> pets = new ArrayList<>();
+            List<Appointment> appointments = new ArrayList<>();
+            List<String> dictionary = new ArrayList<>();
+
+            byte[] record = new byte[256];
+            ByteBuffer view = ByteBuffer.wrap(record);
+            while (true) {
+                byte type = in.readByte();
+                if (type == END) {
+                    break;
+                }
+                int length = readVarInt(in);
+                if (length < 0) {
+                    throw new IOException("Corrupt snapshot record length " + length);
+                }
+                if (length > record.length) {
+                    record = new byte[Math.max(length, record.length * 2)];
+                    view = ByteBuffer.wrap(record);
+                }
+                in.readFully(record, 0, length);
+                view.clear();
+                view.limit(length);
+
+                try {
+                    switch (type) {
+                        case OWNER:
+                            long ownerId = readVarLong(view);
+                            Owner owner = new Owner(readString(view), readString(view), readString(view));
+                            owner.restoreId(ownerId);
+                            owners.put(ownerId, owner);
+                            break;
+                        case PET:
+                            long petId = readVarLong(view);
+                            Owner petOwner = owners.get(readVarLong(view));
+                            if (petOwner == null) {
+                                throw new IOException("Pet " + petId + " refers to an unknown owner");
+                            }
+                            byte petType = view.get();
+                            String name = readString(view);
+                            int age = readVarInt(view);
+                            String colour = readDictionaryString(view, dictionary);
+                            double weight = view.getDouble();
+                            String breed = readDictionaryString(view, dictionary);
+                            Pet pet = createPet(petType, name, age, colour, weight, breed, petOwner);
+                            pet.restoreId(petId);
+                            petsById.put(petId, pet);
+                            pets.add(pet);
+                            break;
+                        case APPOINTMENT:
+                            long appointmentId = readVarLong(view);
+                            long appointmentPetId = readVarLong(view);
+                            Pet appointmentPet = petsById.get(appointmentPetId);
+                            if (appointmentPet == null) {
+                                throw new IOException("Appointment refers to unknown pet " + appointmentPetId);
+                            }
+                            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(view.getLong(), 0, ZoneOffset.UTC);
+                            String reason = readDictionaryString(view, dictionary);
+                            String veterinarian = readDictionaryString(view, dictionary);
+                            int duration = readVarInt(view);
+                            Appointment.AppointmentStatus status = Appointment.AppointmentStatus.values()[view.get()];
+                            Appointment appointment = Appointment.restore(appointmentPet, dateTime, reason,
+                                    veterinarian, duration, status);
+                            appointment.restoreId(appointmentId);
+                            appointments.add(appointment);
+                            break;
+                        case ID_LIMITS:
+                            Owner.observeId(readVarLong(view));
+                            Pet.observeId(readVarLong(view));
+                            Appointment.observeId(readVarLong(view));
+                            break;
+                        default:
+                            break;
+                    }
+                } catch (RuntimeException e) {
+                    throw new IOException("Corrupt snapshot record: " + e.getMessage(), e);
+                }
+            }
+
+            return new ClinicSnapshot(pets, appointments);
+        }
+    }
+
+    static Pet createPet(byte type, String name, int age, String colour, double weight, String breed, Owner owner) {
+        switch (type) {
+            case CAT:
+                return new Pet.Cat(name, age, colour, weight, breed, owner);
+            case HAMSTER:
+                return new Pet.Hamster(name, age, colour, weight, breed, owner);
+            default:
+                return new Pet.Dog(name, age, colour, weight, breed, owner);
+        }
+    }
+
+    private static String readDictionaryString(ByteBuffer view, List<String> dictionary) {
+        int reference = readVarInt(view);
+        if (reference == 0) {
+            String value = readString(view);
+            dictionary.add(value);
+            return value;
+        }
+        return dictionary.get(reference - 1);
+    }
+
+    static int readVarInt(ByteBuffer view) {
+        return (int) readVarLong(view);
+    }
+
+    static long readVarLong(ByteBuffer view) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = view.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed variable-length integer");
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed record length");
+    }
+
+    static String readString(ByteBuffer view) {
+        int length = readVarInt(view);
+        String value = new String(view.array(), view.position(), length, StandardCharsets.UTF_8);
+        view.position(view.position() + length);
+        return value;
+    }
+}
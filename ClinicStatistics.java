@@ -0,0 +1,62 @@
+import java.util.*;
+
+public class ClinicStatistics {
+    private final FrequencyCounter types = new FrequencyCounter();
+    private final FrequencyCounter colours = new FrequencyCounter();
+    private final FrequencyCounter breeds = new FrequencyCounter();
+    private final FrequencyCounter owners = new FrequencyCounter();
+    private int totalPets;
+
+    public synchronized void add(Pet pet) {
+        types.increment(pet.getType());
+        colours.increment(pet.getColour().toLowerCase());
+        breeds.increment(pet.getBreed().toLowerCase());
+        owners.increment(pet.getOwner().getName().toLowerCase());
+        totalPets++;
+    }
+
+    public synchronized void remove(Pet pet) {
+        types.decrement(pet.getType());
+        colours.decrement(pet.getColour().toLowerCase());
+        breeds.decrement(pet.getBreed().toLowerCase());
+        owners.decrement(pet.getOwner().getName().toLowerCase());
+        totalPets--;
+    }
+
+    public synchronized void clear() {
+        types.clear();
+        colours.clear();
+        breeds.clear();
+        owners.clear();
+        totalPets = 0;
+    }
+
+    public synchronized int getTotalPets() {
+        return totalPets;
+    }
+
+    public synchronized int getTypeCount(String type) {
+        return types.getCount(type);
+    }
+
+    public synchronized String getDominantColour() {
+        return colours.getMostFrequent();
+    }
+
+    public synchronized String getDominantBreed() {
+        return breeds.getMostFrequent();
+    }
+
+    public synchronized String getDominantOwner() {
+        return owners.getMostFrequent();
+    }
+
+    public synchronized ClinicReport toReport() {
+        Map<String, Integer> typeCounts = new LinkedHashMap<>();
+        typeCounts.put("Dog", types.getCount("Dog"));
+        typeCounts.put("Cat", types.getCount("Cat"));
+        typeCounts.put("Hamster", types.getCount("Hamster"));
+        return new ClinicReport(totalPets, typeCounts, colours.toMap(), breeds.toMap(), owners.toMap(),
+                getDominantColour(), getDominantBreed(), getDominantOwner());
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+public class ClinicTextFormat {
+    public static final int PET_FIELDS = 8;
+    public static final int MIN_APPOINTMENT_FIELDS = 5;
+
+    private ClinicTextFormat() {
+    }
+
+    public static Pet parsePet(RecordReader record, LoadReport report) {
+        int lineNumber = record.getLineNumber();
+        if (record.getFieldCount() < PET_FIELDS) {
+            report.recordFailure(lineNumber, "expected " + PET_FIELDS + " fields but found " + record.getFieldCount());
+            return null;
+        }
+
+        int age = record.getInt(1, Integer.MIN_VALUE);
+        if (age == Integer.MIN_VALUE) {
+            report.recordFailure(lineNumber, "age is not a whole number");
+            return null;
+        }
+        double weight = record.getDouble(3, Double.NaN);
+        if (Double.isNaN(weight)) {
+            report.recordFailure(lineNumber, "weight is not a number");
+            return null;
+        }
+        String type = record.getSubField(4, ':', 0);
+        if (type == null) {
+            report.recordFailure(lineNumber, "expected 'Type: Breed'");
+            return null;
+        }
+        String error = ClinicValidation.ageError(age);
+        if (error == null) {
+            error = ClinicValidation.weightError(weight);
+        }
+        ClinicValidation.Result name = ClinicValidation.petName(record.getField(0));
+        ClinicValidation.Result colour = ClinicValidation.colour(record.getField(2));
+        ClinicValidation.Result breed = ClinicValidation.breed(record.getSubField(4, ':', 1));
+        ClinicValidation.Result ownerName = ClinicValidation.ownerName(record.getField(5));
+        ClinicValidation.Result phone = ClinicValidation.phoneNumber(record.getField(6));
+        ClinicValidation.Result address = ClinicValidation.address(record.getFields(7, record.getFieldCount() - 1));
+        if (error == null) {
+            error = firstError(name, colour, breed, ownerName, phone, address);
+        }
+        if (error != null) {
+            report.recordFailure(lineNumber, error);
+            return null;
+        }
+
+        Owner owner = new Owner(ownerName.getValue(), phone.getValue(), address.getValue());
+        return createPet(type, name.getValue(), age, colour.getValue(), weight, breed.getValue(), owner);
+    }
+
+    private static String firstError(ClinicValidation.Result... results) {
+        for (ClinicValidation.Result result : results) {
+            if (!result.isValid()) {
+                return result.getError();
+            }
+        }
+        return null;
+    }
+
+    public static Pet createPet(String type, String name, int age, String colour, double weight, String breed, Owner owner) {
+        if (type.equalsIgnoreCase("Cat")) {
+            return new Pet.Cat(name, age, colour, weight, breed, owner);
+        } else if (type.equalsIgnoreCase("Hamster")) {
+            return new Pet.Hamster(name, age, colour, weight, breed, owner);
+        } else {
+            return new Pet.Dog(name, age, colour, weight, breed, owner);
+        }
+    }
+
+    public static Appointment parseAppointment(RecordReader record, Function<String, Pet> petLookup, LoadReport report) {
+        int lineNumber = record.getLineNumber();
+        int fieldCount = record.getFieldCount();
+        if (fieldCount < MIN_APPOINTMENT_FIELDS) {
+            report.recordFailure(lineNumber, "expected at least " + MIN_APPOINTMENT_FIELDS + " fields but found " + fieldCount);
+            return null;
+        }
+
+        String petName = record.getField(0);
+        Pet pet = petLookup.apply(petName);
+        if (pet == null) {
+            report.recordFailure(lineNumber, "pet '" + petName + "' not found");
+            return null;
+        }
+
+        LocalDateTime dateTime = record.getDateTime(1);
+        if (dateTime == null) {
+            report.recordFailure(lineNumber, "date and time must use HH:mm dd/MM/yyyy");
+            return null;
+        }
+
+        Appointment.AppointmentStatus status = null;
+        for (Appointment.AppointmentStatus candidate : Appointment.AppointmentStatus.values()) {
+            if (record.fieldEquals(fieldCount - 1, candidate.name())) {
+                status = candidate;
+                break;
+            }
+        }
+        if (status == null) {
+            report.recordFailure(lineNumber, "unknown status '" + record.getField(fieldCount - 1) + "'");
+            return null;
+        }
+
+        // Reasons may contain ", ", so the vet and optional duration are read from the end of the line.
+        int durationValue = fieldCount >= 6 ? record.getInt(fieldCount - 2, Integer.MIN_VALUE) : Integer.MIN_VALUE;
+        Integer duration = durationValue == Integer.MIN_VALUE ? null : durationValue;
+        int veterinarianField = duration == null ? fieldCount - 2 : fieldCount - 3;
+
+        ClinicValidation.Result reason = ClinicValidation.reason(record.getFields(2, veterinarianField - 1));
+        ClinicValidation.Result veterinarian = ClinicValidation.veterinarianName(record.getField(veterinarianField));
+        String error = firstError(reason, veterinarian);
+        if (error != null) {
+            report.recordFailure(lineNumber, error);
+            return null;
+        }
+
+        // Saved appointments may be in the past by now: finished ones from today, and ones nobody closed,
+        // stay in the file until they are archived. Only new bookings must be in the future.
+        return Appointment.restore(pet, dateTime, reason.getValue(), veterinarian.getValue(),
+                duration == null ? Appointment.DEFAULT_DURATION : duration, status);
+    }
+
+    // Pets missing anything parsePet needs would not load back, so they are left out of the file.
+    public static boolean isSavable(Pet pet) {
+        return pet != null &&
+                pet.getName() != null && !pet.getName().trim().isEmpty() &&
+                pet.age > 0 &&
+                pet.getColour() != null && !pet.getColour().trim().isEmpty() &&
+                pet.weight > 0 &&
+                pet.getBreed() != null && !pet.getBreed().trim().isEmpty() &&
+                pet.getOwner() != null;
+    }
+
+    public static void writePet(BufferedWriter out, Pet pet) throws IOException {
+        out.write(pet.getName() + ", " +
+                pet.age + ", " +
+                pet.getColour() + ", " +
+                pet.weight + ", " +
+                pet.getType() + ": " +
+                pet.getBreed() + ", " +
+                pet.getOwner().getName() + ", " +
+                pet.getOwner().getPhoneNumber() + ", " +
+                pet.getOwner().getAddress());
+        out.newLine();
+    }
+
+    public static void writeAppointment(BufferedWriter out, Appointment appointment) throws IOException {
+        out.write(appointment.getPet().getName() + ", " +
+                appointment.getFormattedDateTime() + ", " +
+                appointment.getReason() + ", " +
+                appointment.getVeterinarian().getName() + ", " +
+                appointment.getDuration() + ", " +
+                appointment.getStatus());
+        out.newLine();
+    }
+}
@@ -0,0 +1,213 @@
+// The field rules the model classes enforce, written as plain character scans so no regex is compiled per
+// call. Each check returns a Result holding either the normalized value or the reason it was rejected:
+// loaders can turn a bad row into a LoadReport failure without building an exception and its stack trace,
+// while the setters call orThrow() and keep throwing IllegalArgumentException as before.
+public final class ClinicValidation {
+    public static final int MAX_PET_NAME_LENGTH = 16;
+
+    private static final Result EMPTY_PHONE = Result.invalid("Phone number cannot be empty");
+    private static final Result MISPLACED_PLUS = Result.invalid("Invalid phone number: '+' can only be at the start");
+    private static final Result BAD_PHONE_FORMAT = Result.invalid("Invalid phone number format. Must be 10 digits, " +
+            "start with '07' (11 digits), or start with '+' (12-13 digits)");
+    private static final Result EMPTY_VETERINARIAN = Result.invalid("Veterinarian name cannot be empty");
+    private static final Result BAD_VETERINARIAN = Result.invalid("Veterinarian name cannot contain numbers");
+    private static final Result LONG_PET_NAME = Result.invalid("Pet name cannot exceed " + MAX_PET_NAME_LENGTH + " characters.");
+    private static final Result BAD_PET_NAME = Result.invalid("Pet name cannot contain special characters.");
+
+    private ClinicValidation() {
+    }
+
+    public static final class Result {
+        private final String value;
+        private final String error;
+
+        private Result(String value, String error) {
+            this.value = value;
+            this.error = error;
+        }
+
+        static Result valid(String value) {
+            return new Result(value, null);
+        }
+
+        static Result invalid(String error) {
+            return new Result(null, error);
+        }
+
+        public boolean isValid() {
+            return error == null;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public String orThrow() {
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            return value;
+        }
+    }
+
+    // Trimmed text that must not be blank.
+    public static Result required(String text, String emptyMessage) {
+        if (text == null) {
+            return Result.invalid(emptyMessage);
+        }
+        String trimmed = text.trim();
+        return trimmed.isEmpty() ? Result.invalid(emptyMessage) : Result.valid(trimmed);
+    }
+
+    // Keeps a leading '+' and the digits, dropping spaces, dashes and brackets.
+    public static Result phoneNumber(String phoneNumber) {
+        if (phoneNumber == null) {
+            return EMPTY_PHONE;
+        }
+        String trimmed = phoneNumber.trim();
+        int length = trimmed.length();
+        if (length == 0) {
+            return EMPTY_PHONE;
+        }
+
+        boolean international = trimmed.charAt(0) == '+';
+        char[] cleaned = new char[length];
+        int size = 0;
+        if (international) {
+            cleaned[size++] = '+';
+        }
+        for (int i = international ? 1 : 0; i < length; i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9') {
+                cleaned[size++] = c;
+            } else if (c == '+' && !international) {
+                return MISPLACED_PLUS;
+            }
+        }
+
+        boolean mobile = !international && size >= 2 && cleaned[0] == '0' && cleaned[1] == '7';
+        if (international ? size < 12 || size > 13 : size != (mobile ? 11 : 10)) {
+            return BAD_PHONE_FORMAT;
+        }
+        // Numbers read back from our own files are already clean, so they need no copy.
+        return Result.valid(size == length ? trimmed : new String(cleaned, 0, size));
+    }
+
+    public static Result petName(String name) {
+        return required(name, "Pet name cannot be empty");
+    }
+
+    public static Result colour(String colour) {
+        return required(colour, "Colour cannot be empty");
+    }
+
+    public static Result breed(String breed) {
+        return required(breed, "Breed cannot be empty");
+    }
+
+    public static Result ownerName(String name) {
+        return required(name, "Owner name cannot be empty");
+    }
+
+    public static Result address(String address) {
+        return required(address, "Address cannot be empty");
+    }
+
+    public static Result reason(String reason) {
+        return required(reason, "Appointment reason cannot be empty");
+    }
+
+    // Letters and spaces only, with runs of spaces collapsed.
+    public static Result veterinarianName(String name) {
+        if (name == null) {
+            return EMPTY_VETERINARIAN;
+        }
+        boolean blank = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != ' ') {
+                if (!isAsciiLetter(c)) {
+                    return isBlank(name) ? EMPTY_VETERINARIAN : BAD_VETERINARIAN;
+                }
+                blank = false;
+            }
+        }
+        return blank ? EMPTY_VETERINARIAN : Result.valid(collapseWhitespace(name));
+    }
+
+    // The stricter rule applied to names typed in at the menu or sent to the HTTP API.
+    public static Result enteredPetName(String name) {
+        if (name.length() > MAX_PET_NAME_LENGTH) {
+            return LONG_PET_NAME;
+        }
+        if (name.isEmpty()) {
+            return BAD_PET_NAME;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != ' ' && !isAsciiLetter(c) && (c < '0' || c > '9')) {
+                return BAD_PET_NAME;
+            }
+        }
+        return Result.valid(name);
+    }
+
+    // Why the age is rejected, or null when it is fine; numbers need no normalizing, so no Result.
+    public static String ageError(int age) {
+        return age < 0 || age > 30 ? "Invalid age. Age must be between 0 and 30." : null;
+    }
+
+    public static String weightError(double weight) {
+        return weight <= 0 || weight > 300 ? "Invalid weight. Weight must be positive and less than 300 kg." : null;
+    }
+
+    // Trims the text and turns each run of whitespace inside it into one space.
+    public static String collapseWhitespace(String text) {
+        String trimmed = text.trim();
+        int length = trimmed.length();
+        int i = 0;
+        while (i < length) {
+            char c = trimmed.charAt(i);
+            if (isWhitespace(c) && (c != ' ' || isWhitespace(trimmed.charAt(i + 1)))) {
+                break;
+            }
+            i++;
+        }
+        if (i == length) {
+            return trimmed;
+        }
+
+        StringBuilder collapsed = new StringBuilder(length).append(trimmed, 0, i);
+        boolean inRun = false;
+        for (; i < length; i++) {
+            char c = trimmed.charAt(i);
+            if (isWhitespace(c)) {
+                if (!inRun) {
+                    collapsed.append(' ');
+                    inRun = true;
+                }
+            } else {
+                collapsed.append(c);
+                inRun = false;
+            }
+        }
+        return collapsed.toString();
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // The characters \s matches.
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isBlank(String text) {
+        return text.trim().isEmpty();
+    }
+}
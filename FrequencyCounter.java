@@ -0,0 +1,81 @@
+import java.util.*;
+
+public class FrequencyCounter {
+    private final Map<String, int[]> counts = new LinkedHashMap<>();
+    private final Map<Integer, LinkedHashSet<String>> buckets = new HashMap<>();
+    private int maxCount;
+
+    public void increment(String key) {
+        int[] count = counts.get(key);
+        if (count == null) {
+            count = new int[1];
+            counts.put(key, count);
+        } else {
+            leaveBucket(key, count[0]);
+        }
+        count[0]++;
+        buckets.computeIfAbsent(count[0], c -> new LinkedHashSet<>()).add(key);
+        if (count[0] > maxCount) {
+            maxCount = count[0];
+        }
+    }
+
+    public void decrement(String key) {
+        int[] count = counts.get(key);
+        if (count == null) {
+            return;
+        }
+        leaveBucket(key, count[0]);
+        if (count[0] == maxCount && !buckets.containsKey(maxCount)) {
+            maxCount--;
+        }
+        count[0]--;
+        if (count[0] == 0) {
+            counts.remove(key);
+        } else {
+            buckets.computeIfAbsent(count[0], c -> new LinkedHashSet<>()).add(key);
+        }
+    }
+
+    private void leaveBucket(String key, int count) {
+        Set<String> bucket = buckets.get(count);
+        bucket.remove(key);
+        if (bucket.isEmpty()) {
+            buckets.remove(count);
+        }
+    }
+
+    public int getCount(String key) {
+        int[] count = counts.get(key);
+        return count == null ? 0 : count[0];
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    public String getMostFrequent() {
+        if (maxCount == 0) {
+            return "None";
+        }
+        return buckets.get(maxCount).iterator().next();
+    }
+
+    public int size() {
+        return counts.size();
+    }
+
+    public void clear() {
+        counts.clear();
+        buckets.clear();
+        maxCount = 0;
+    }
+
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> snapshot = new LinkedHashMap<>(counts.size() * 2);
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue()[0]);
+        }
+        return snapshot;
+    }
+}
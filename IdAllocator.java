@@ -0,0 +1,22 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IdAllocator {
+    private final AtomicLong last = new AtomicLong();
+
+    public long next() {
+        return last.incrementAndGet();
+    }
+
+    public void observe(long id) {
+        long current;
+        while (id > (current = last.get())) {
+            if (last.compareAndSet(current, id)) {
+                return;
+            }
+        }
+    }
+
+    public long peekLast() {
+        return last.get();
+    }
+}
@@ -0,0 +1,57 @@
+import java.io.PrintStream;
+
+// Builds a listing in one reused StringBuilder and hands it to the console in large chunks. System.out
+// takes a lock and flushes on every println, which dominates a listing of thousands of pets. Call flush()
+// before prompting, since anything printed straight to the console would overtake the buffered lines.
+public class ListingPrinter {
+    private static final int CHUNK = 1 << 15;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final PrintStream console;
+    private final StringBuilder text = new StringBuilder(CHUNK + 1024);
+
+    public ListingPrinter(PrintStream console) {
+        this.console = console;
+    }
+
+    public ListingPrinter append(String value) {
+        text.append(value);
+        return this;
+    }
+
+    public ListingPrinter append(Object value) {
+        text.append(value);
+        return this;
+    }
+
+    public ListingPrinter append(char value) {
+        text.append(value);
+        return this;
+    }
+
+    public ListingPrinter append(long value) {
+        text.append(value);
+        return this;
+    }
+
+    public ListingPrinter println(Object value) {
+        return append(value).newLine();
+    }
+
+    public ListingPrinter newLine() {
+        text.append(LINE_SEPARATOR);
+        if (text.length() >= CHUNK) {
+            console.print(text);
+            text.setLength(0);
+        }
+        return this;
+    }
+
+    public void flush() {
+        if (text.length() > 0) {
+            console.print(text);
+            text.setLength(0);
+        }
+        console.flush();
+    }
+}
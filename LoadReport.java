@@ -0,0 +1,57 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class LoadReport {
+    private static final int MAX_RECORDED_ERRORS = 20;
+
+    private int loaded;
+    private int failed;
+    private final List<Integer> errorLines = new ArrayList<>();
+    private final List<String> errorReasons = new ArrayList<>();
+
+    public void recordSuccess() {
+        loaded++;
+    }
+
+    public void recordFailure(int lineNumber, String reason) {
+        failed++;
+        if (errorLines.size() < MAX_RECORDED_ERRORS) {
+            errorLines.add(lineNumber);
+            errorReasons.add(reason);
+        }
+    }
+
+    public void merge(LoadReport other, int lineOffset) {
+        loaded += other.loaded;
+        failed += other.failed - other.errorLines.size();
+        for (int i = 0; i < other.errorLines.size(); i++) {
+            recordFailure(other.errorLines.get(i) + lineOffset, other.errorReasons.get(i));
+        }
+    }
+
+    public int getLoaded() {
+        return loaded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<String> getErrors() {
+        List<String> errors = new ArrayList<>(errorLines.size());
+        for (int i = 0; i < errorLines.size(); i++) {
+            errors.add("line " + errorLines.get(i) + ": " + errorReasons.get(i));
+        }
+        return Collections.unmodifiableList(errors);
+    }
+
+    public void printErrors(String label) {
+        for (String error : getErrors()) {
+            System.out.println(label + " " + error);
+        }
+        if (failed > errorLines.size()) {
+            System.out.println("... and " + (failed - errorLines.size()) + " more.");
+        }
+    }
+}
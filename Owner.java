@@ -1,9 +1,12 @@
-import java.util.Objects;
-
 public class Owner {
+    private static final IdAllocator IDS = new IdAllocator();
+
+    private long id = IDS.next();
     private String name;
     private String phoneNumber;
     private String address;
+    private volatile int version;
+    private RenderedText description;
 
     public Owner(String name, String phoneNumber, String address) {
         setName(name);
@@ -12,41 +15,45 @@ public class Owner {
     }
 
     public void setName(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Owner name cannot be empty");
-        }
-        this.name = name.trim();
+        this.name = ClinicValidation.ownerName(name).orThrow();
+        version++;
     }
 
     public void setPhoneNumber(String phoneNumber) {
-        if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
-            throw new IllegalArgumentException("Phone number cannot be empty");
-        }
+        this.phoneNumber = normalizePhoneNumber(phoneNumber);
+        version++;
+    }
 
-        phoneNumber = phoneNumber.trim();
+    public static String normalizePhoneNumber(String phoneNumber) {
+        return ClinicValidation.phoneNumber(phoneNumber).orThrow();
+    }
 
-        if (phoneNumber.contains("+") && !phoneNumber.startsWith("+")) {
-            throw new IllegalArgumentException("Invalid phone number: '+' can only be at the start");
-        }
+    public void setAddress(String address) {
+        this.address = ClinicValidation.address(address).orThrow();
+        version++;
+    }
+
+    void restoreId(long id) {
+        this.id = id;
+        IDS.observe(id);
+    }
 
-        String cleanedNumber = phoneNumber.startsWith("+")
-                ? "+" + phoneNumber.substring(1).replaceAll("[^0-9]", "")
-                : phoneNumber.replaceAll("[^0-9]", "");
+    // The highest id handed out, kept in snapshots so ids of deleted or archived records are never reused.
+    static long lastId() {
+        return IDS.peekLast();
+    }
 
-        if ((cleanedNumber.startsWith("+") && (cleanedNumber.length() < 12 || cleanedNumber.length() > 13)) ||
-                (cleanedNumber.startsWith("07") && cleanedNumber.length() != 11) ||
-                (!cleanedNumber.startsWith("+") && !cleanedNumber.startsWith("07") && cleanedNumber.length() != 10)) {
-            throw new IllegalArgumentException("Invalid phone number format. Must be 10 digits, start with '07' (11 digits), or start with '+' (12-13 digits)");
-        }
+    static void observeId(long id) {
+        IDS.observe(id);
+    }
 
-        this.phoneNumber = cleanedNumber;
+    // Bumped by every setter, so text rendered from this owner can tell it is stale.
+    int getVersion() {
+        return version;
     }
 
-    public void setAddress(String address) {
-        if (address == null || address.trim().isEmpty()) {
-            throw new IllegalArgumentException("Address cannot be empty");
-        }
-        this.address = address.trim();
+    public long getId() {
+        return id;
     }
 
     public String getName() {
@@ -71,16 +78,24 @@ public class Owner {
 
     @Override
     public String toString() {
-        return name + " (Phone: " + getFormattedPhoneNumber() + ")";
+        int current = version;
+        String text = RenderedText.get(description, current, 0, 0);
+        if (text == null) {
+            text = name + " (Phone: " + getFormattedPhoneNumber() + ")";
+            description = new RenderedText(text, current, 0, 0);
+        }
+        return text;
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        Owner owner = (Owner) o;
-        return Objects.equals(name, owner.name) &&
-                Objects.equals(phoneNumber, owner.phoneNumber) &&
-                Objects.equals(address, owner.address);
+        return id == ((Owner) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
     }
 }
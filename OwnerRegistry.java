@@ -0,0 +1,59 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+public class OwnerRegistry {
+    private static final Comparator<Pet> BY_ID = Comparator.comparingLong(Pet::getId);
+
+    private final Map<String, Owner> byPhone = new ConcurrentHashMap<>();
+    private final Map<Owner, Set<Pet>> petsByOwner = new ConcurrentHashMap<>();
+
+    public Owner intern(Owner owner) {
+        Owner existing = byPhone.putIfAbsent(owner.getPhoneNumber(), owner);
+        return existing != null ? existing : owner;
+    }
+
+    public Owner findByPhone(String phoneNumber) {
+        return byPhone.get(Owner.normalizePhoneNumber(phoneNumber));
+    }
+
+    public void addPet(Pet pet) {
+        Owner owner = intern(pet.getOwner());
+        if (owner != pet.getOwner()) {
+            pet.setOwner(owner);
+        }
+        petsByOwner.computeIfAbsent(owner, o -> new ConcurrentSkipListSet<>(BY_ID)).add(pet);
+    }
+
+    public void removePet(Pet pet) {
+        Owner owner = pet.getOwner();
+        Set<Pet> ownedPets = petsByOwner.get(owner);
+        if (ownedPets == null || !ownedPets.remove(pet) || !ownedPets.isEmpty()) {
+            return;
+        }
+        petsByOwner.remove(owner);
+        byPhone.remove(owner.getPhoneNumber(), owner);
+    }
+
+    public Set<Pet> getPets(Owner owner) {
+        Set<Pet> ownedPets = petsByOwner.get(owner);
+        return ownedPets == null ? Collections.emptySet() : Collections.unmodifiableSet(ownedPets);
+    }
+
+    public void phoneNumberChanged(Owner owner, String previousPhoneNumber) {
+        if (previousPhoneNumber.equals(owner.getPhoneNumber())) {
+            return;
+        }
+        byPhone.remove(previousPhoneNumber, owner);
+        byPhone.put(owner.getPhoneNumber(), owner);
+    }
+
+    public int size() {
+        return petsByOwner.size();
+    }
+
+    public void clear() {
+        byPhone.clear();
+        petsByOwner.clear();
+    }
+}
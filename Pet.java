@@ -1,9 +1,15 @@
 public abstract class Pet {
+    private static final IdAllocator IDS = new IdAllocator();
+
+    private long id = IDS.next();
     protected String name;
     protected int age;
     protected String colour;
     protected double weight;
     protected Owner owner;
+    private volatile int version;
+    private RenderedText description;
+    private RenderedText speech;
 
     public Pet(String name, int age, String colour, double weight, Owner owner) {
         setName(name);
@@ -14,31 +20,31 @@ public abstract class Pet {
     }
 
     public void setName(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Pet name cannot be empty");
-        }
-        this.name = name.trim();
+        this.name = ClinicValidation.petName(name).orThrow();
+        changed();
     }
 
     public void setAge(int age) {
-        if (age < 0 || age > 30) {
-            throw new IllegalArgumentException("Invalid age. Age must be between 0 and 30.");
+        String error = ClinicValidation.ageError(age);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
         }
         this.age = age;
+        changed();
     }
 
     public void setColour(String colour) {
-        if (colour == null || colour.trim().isEmpty()) {
-            throw new IllegalArgumentException("Colour cannot be empty");
-        }
-        this.colour = colour.trim();
+        this.colour = ClinicValidation.colour(colour).orThrow();
+        changed();
     }
 
     public void setWeight(double weight) {
-        if (weight <= 0 || weight > 300) {
-            throw new IllegalArgumentException("Invalid weight. Weight must be positive and less than 300 kg.");
+        String error = ClinicValidation.weightError(weight);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
         }
         this.weight = weight;
+        changed();
     }
 
     public void setOwner(Owner owner) {
@@ -46,6 +52,34 @@ public abstract class Pet {
             throw new IllegalArgumentException("Owner cannot be null");
         }
         this.owner = owner;
+        changed();
+    }
+
+    // Called by every setter after the change, so text rendered from the old values is not reused.
+    protected void changed() {
+        version++;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    void restoreId(long id) {
+        this.id = id;
+        IDS.observe(id);
+    }
+
+    // The highest id handed out, kept in snapshots so ids of deleted or archived records are never reused.
+    static long lastId() {
+        return IDS.peekLast();
+    }
+
+    static void observeId(long id) {
+        IDS.observe(id);
+    }
+
+    public long getId() {
+        return id;
     }
 
     public Owner getOwner() {
@@ -61,18 +95,48 @@ public abstract class Pet {
     }
 
     public String speak() {
-        return determineNoise() + "! I am " + name + ", a " + age + " year old " + getBreed() +
-                " owned by " + owner.getName() + ".";
+        int current = version;
+        Owner currentOwner = owner;
+        int ownerVersion = currentOwner.getVersion();
+        String text = RenderedText.get(speech, current, 0, ownerVersion);
+        if (text == null) {
+            text = determineNoise() + "! I am " + name + ", a " + age + " year old " + getBreed() +
+                    " owned by " + currentOwner.getName() + ".";
+            speech = new RenderedText(text, current, 0, ownerVersion);
+        }
+        return text;
     }
 
     protected abstract String determineNoise();
 
     public abstract String getType();
     public abstract String getBreed();
+    public abstract void setBreed(String breed);
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Pet)) return false;
+        return id == ((Pet) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
 
     @Override
     public String toString() {
-        return name + ", " + age + " years old, " + colour + ", " + weight + "kg, Owner: " + owner.getName();
+        int current = version;
+        Owner currentOwner = owner;
+        int ownerVersion = currentOwner.getVersion();
+        String text = RenderedText.get(description, current, 0, ownerVersion);
+        if (text == null) {
+            text = name + ", " + age + " years old, " + colour + ", " + weight + "kg, Owner: " + currentOwner.getName()
+                    + ", Breed: " + getBreed();
+            description = new RenderedText(text, current, 0, ownerVersion);
+        }
+        return text;
     }
 
     public static class Cat extends Pet {
@@ -83,11 +147,10 @@ public abstract class Pet {
             setBreed(breed);
         }
 
+        @Override
         public void setBreed(String breed) {
-            if (breed == null || breed.trim().isEmpty()) {
-                throw new IllegalArgumentException("Breed cannot be empty");
-            }
-            this.breed = breed.trim();
+            this.breed = ClinicValidation.breed(breed).orThrow();
+            changed();
         }
 
         @Override
@@ -104,11 +167,6 @@ public abstract class Pet {
         public String getBreed() {
             return breed;
         }
-
-        @Override
-        public String toString() {
-            return super.toString() + ", Breed: " + breed;
-        }
     }
 
     public static class Dog extends Pet {
@@ -119,11 +177,10 @@ public abstract class Pet {
             setBreed(breed);
         }
 
+        @Override
         public void setBreed(String breed) {
-            if (breed == null || breed.trim().isEmpty()) {
-                throw new IllegalArgumentException("Breed cannot be empty");
-            }
-            this.breed = breed.trim();
+            this.breed = ClinicValidation.breed(breed).orThrow();
+            changed();
         }
 
         @Override
@@ -140,11 +197,6 @@ public abstract class Pet {
         public String getBreed() {
             return breed;
         }
-
-        @Override
-        public String toString() {
-            return super.toString() + ", Breed: " + breed;
-        }
     }
 
     public static class Hamster extends Pet {
@@ -155,11 +207,10 @@ public abstract class Pet {
             setBreed(breed);
         }
 
+        @Override
         public void setBreed(String breed) {
-            if (breed == null || breed.trim().isEmpty()) {
-                throw new IllegalArgumentException("Breed cannot be empty");
-            }
-            this.breed = breed.trim();
+            this.breed = ClinicValidation.breed(breed).orThrow();
+            changed();
         }
 
         @Override
@@ -176,10 +227,5 @@ public abstract class Pet {
         public String getBreed() {
             return breed;
         }
-
-        @Override
-        public String toString() {
-            return super.toString() + ", Breed: " + breed;
-        }
     }
 }
\ No newline at end of file
@@ -1,19 +1,52 @@
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
 
 public class PetClinicManagementSystem {
     private static final String CLINIC_NAME = "Happy Paws Clinic";
-    private List<Pet> pets = new ArrayList<>();
-    private static final String PET_DETAILS_FILE = "PetDetails.txt";
-    private List<Appointment> appointments = new ArrayList<>();
-    private static final String APPOINTMENT_DETAILS_FILE = "AppointmentDetails.txt";
+    static final String PET_DETAILS_FILE = "PetDetails.txt";
+    static final String APPOINTMENT_DETAILS_FILE = "AppointmentDetails.txt";
+    static final String SNAPSHOT_FILE = "ClinicSnapshot.dat";
+    private static final String JOURNAL_FILE = "ClinicJournal.log";
+    private static final int SUGGESTION_COUNT = 3;
+    private static final int SUGGESTION_DAYS = 30;
+    static final int SEARCH_RESULTS = 20;
+    static final int PAGE_SIZE = 20;
+    private static final int ARCHIVE_RESULTS = 100;
+    private final ClinicService service;
+    private final Collection<Pet> pets;
+    private final Collection<Appointment> appointments;
+    // Listings and imports run here rather than in the service, so the menu times them itself.
+    private final ClinicMetrics.Timer viewAllPetsTimer;
+    private final ClinicMetrics.Timer viewAppointmentsTimer;
+    private final ClinicMetrics.Timer bulkImportTimer;
+    private final ClinicMetrics.Timer loadSnapshotTimer;
+    private final ListingPrinter listing = new ListingPrinter(System.out);
     private Scanner scanner;
 
     public PetClinicManagementSystem() {
-        this.scanner = new Scanner(System.in);
+        this(new ClinicService(Paths.get(SNAPSHOT_FILE), Paths.get(JOURNAL_FILE)), new Scanner(System.in));
+    }
+
+    public PetClinicManagementSystem(ClinicService service, Scanner scanner) {
+        this.service = service;
+        this.pets = service.getPets();
+        this.appointments = service.getAppointments();
+        this.viewAllPetsTimer = service.getMetrics().timer("view_all_pets");
+        this.viewAppointmentsTimer = service.getMetrics().timer("view_appointments");
+        this.bulkImportTimer = service.getMetrics().timer("bulk_import");
+        this.loadSnapshotTimer = service.getMetrics().timer("load_snapshot");
+        this.scanner = scanner;
+    }
+
+    public ClinicService getService() {
+        return service;
     }
 
     public void addPet() {
@@ -26,17 +59,18 @@ public class PetClinicManagementSystem {
             System.out.print("Owner Address: ");
             String ownerAddress = scanner.nextLine().trim();
 
-            Owner owner = new Owner(ownerName, ownerPhone, ownerAddress);
+            Owner owner = service.findOwnerByPhone(ownerPhone);
+            if (owner == null) {
+                owner = new Owner(ownerName, ownerPhone, ownerAddress);
+            } else {
+                System.out.println("Using existing owner record for " + owner.getName() + ".");
+            }
 
             System.out.print("Enter pet name: ");
             String name = scanner.nextLine().trim();
-            if (name.length() > 16) {
-                System.out.println("Pet name cannot exceed 16 characters.");
-                return;
-            }
-
-            if (!name.matches("[a-zA-Z0-9 ]+")) {
-                System.out.println("Pet name cannot contain special characters.");
+            ClinicValidation.Result nameCheck = ClinicValidation.enteredPetName(name);
+            if (!nameCheck.isValid()) {
+                System.out.println(nameCheck.getError());
                 return;
             }
 
@@ -80,7 +114,7 @@ public class PetClinicManagementSystem {
                 throw new IllegalArgumentException("Invalid pet type! Please enter Cat, Dog, or Hamster.");
             }
 
-            pets.add(newPet);
+            service.addPet(newPet);
             System.out.println(newPet.getName() + " has been added to the clinic.");
         } catch (NumberFormatException e) {
             System.out.println("Invalid number input. Please enter valid numeric values.");
@@ -92,22 +126,40 @@ public class PetClinicManagementSystem {
     }
 
     public void deletePet() {
-        System.out.print("Enter pet name to delete: ");
-        String name = scanner.nextLine().trim();
+        System.out.print("Enter pet name or #ID to delete: ");
+        Pet petToRemove = choosePet(scanner.nextLine().trim());
 
-        Pet petToRemove = null;
-        for (Pet pet : pets) {
-            if (pet.getName().equalsIgnoreCase(name)) {
-                petToRemove = pet;
-                break;
+        if (petToRemove != null) {
+            try {
+                int appointmentsRemoved = service.removePet(petToRemove);
+                System.out.println(petToRemove.getName() + " has been removed from the clinic" +
+                        (appointmentsRemoved == 0 ? "." : ", along with " + appointmentsRemoved + " appointment(s)."));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Error: " + e.getMessage());
             }
         }
+    }
 
-        if (petToRemove != null) {
-            pets.remove(petToRemove);
-            System.out.println(petToRemove.getName() + " has been removed from the clinic.");
-        } else {
-            System.out.println("No pet found with the name " + name);
+    public void deleteOwner() {
+        System.out.print("Enter owner phone number: ");
+        try {
+            Owner owner = service.findOwnerByPhone(scanner.nextLine().trim());
+            if (owner == null) {
+                System.out.println("No owner found with that phone number.");
+                return;
+            }
+            int petCount = service.getPetsForOwner(owner).size();
+            System.out.print("Delete " + owner.getName() + ", their " + petCount +
+                    " pet(s) and all of their appointments? (y/n): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                System.out.println("Deletion cancelled.");
+                return;
+            }
+            int appointmentsRemoved = service.removeOwner(owner);
+            System.out.println(owner.getName() + " has been removed from the clinic, along with " + petCount +
+                    " pet(s) and " + appointmentsRemoved + " appointment(s).");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
         }
     }
 
@@ -116,18 +168,13 @@ public class PetClinicManagementSystem {
         String searchTerm = scanner.nextLine().trim();
         boolean foundPet = false;
 
-        for (Pet pet : pets) {
-            if (pet.getName().equalsIgnoreCase(searchTerm) ||
-                    pet.getColour().equalsIgnoreCase(searchTerm) ||
-                    pet.getBreed().equalsIgnoreCase(searchTerm) ||
-                    pet.getOwner().getName().equalsIgnoreCase(searchTerm)) {
-                System.out.println("Pet found: " + pet);
-                System.out.println(pet.speak());
-                System.out.println("Owner: " + pet.getOwner().getName() +
-                        " (Phone: " + pet.getOwner().getFormattedPhoneNumber() + ")");
-                foundPet = true;
-            }
+        for (Pet pet : service.searchPets(searchTerm, SEARCH_RESULTS)) {
+            listing.append("Pet found: ").println(pet);
+            listing.println(pet.speak());
+            listing.append("Owner: ").println(pet.getOwner());
+            foundPet = true;
         }
+        listing.flush();
 
         if (!foundPet) {
             System.out.println("No pets found matching the search criteria.");
@@ -140,22 +187,17 @@ public class PetClinicManagementSystem {
             return;
         }
 
-        System.out.print("Enter the name of the pet you want to modify: ");
-        String petName = scanner.nextLine().trim();
-
-        Pet petToModify = null;
-        for (Pet pet : pets) {
-            if (pet.getName().equalsIgnoreCase(petName)) {
-                petToModify = pet;
-                break;
-            }
-        }
+        System.out.print("Enter the name or #ID of the pet you want to modify: ");
+        Pet petToModify = choosePet(scanner.nextLine().trim());
 
         if (petToModify == null) {
-            System.out.println("No pet found with the name " + petName);
             return;
         }
 
+        modifyPetAttributes(petToModify);
+    }
+
+    private void modifyPetAttributes(Pet petToModify) {
         while (true) {
             System.out.println("\nModify " + petToModify.getName() + ":");
             System.out.println("1. Pet Name");
@@ -177,30 +219,26 @@ public class PetClinicManagementSystem {
                         System.out.print("Enter new name: ");
                         String newName = scanner.nextLine().trim();
 
-                        if (newName.length() > 16) {
-                            System.out.println("Pet name cannot exceed 16 characters.");
-                            return;
-                        }
-
-                        if (!newName.matches("[a-zA-Z0-9 ]+")) {
-                            System.out.println("Pet name cannot contain special characters.");
+                        ClinicValidation.Result nameCheck = ClinicValidation.enteredPetName(newName);
+                        if (!nameCheck.isValid()) {
+                            System.out.println(nameCheck.getError());
                             return;
                         }
-                        petToModify.setName(newName);
+                        service.modifyPet(petToModify, pet -> pet.setName(newName));
                         System.out.println("Name updated successfully.");
                         return;
 
                     case 2:
                         System.out.print("Enter new age: ");
                         int newAge = Integer.parseInt(scanner.nextLine().trim());
-                        petToModify.setAge(newAge);
+                        service.modifyPet(petToModify, pet -> pet.setAge(newAge));
                         System.out.println("Age updated successfully.");
                         return;
 
                     case 3:
                         System.out.print("Enter new colour: ");
                         String newColour = scanner.nextLine().trim();
-                        petToModify.setColour(newColour);
+                        service.modifyPet(petToModify, pet -> pet.setColour(newColour));
                         System.out.println("Colour updated successfully.");
                         return;
 
@@ -211,7 +249,8 @@ public class PetClinicManagementSystem {
                             try {
                                 weight = Double.parseDouble(scanner.nextLine().trim());
                                 if (weight > 0) {
-                                    petToModify.setWeight(weight);
+                                    double newWeight = weight;
+                                    service.modifyPet(petToModify, pet -> pet.setWeight(newWeight));
                                     System.out.println("Weight updated successfully.");
                                     return;
                                 } else {
@@ -226,11 +265,11 @@ public class PetClinicManagementSystem {
                         if (petToModify instanceof Pet.Cat) {
                             System.out.print("Enter new cat breed: ");
                             String newBreed = scanner.nextLine().trim();
-                            ((Pet.Cat) petToModify).setBreed(newBreed);
+                            service.modifyPet(petToModify, pet -> pet.setBreed(newBreed));
                         } else if (petToModify instanceof Pet.Dog) {
                             System.out.print("Enter new dog breed: ");
                             String newBreed = scanner.nextLine().trim();
-                            ((Pet.Dog) petToModify).setBreed(newBreed);
+                            service.modifyPet(petToModify, pet -> pet.setBreed(newBreed));
                         }
                         System.out.println("Breed updated successfully.");
                         return;
@@ -238,21 +277,21 @@ public class PetClinicManagementSystem {
                     case 6:
                         System.out.print("Enter new owner name: ");
                         String newOwnerName = scanner.nextLine().trim();
-                        petToModify.getOwner().setName(newOwnerName);
+                        service.modifyPet(petToModify, pet -> pet.getOwner().setName(newOwnerName));
                         System.out.println("Owner name updated successfully.");
                         return;
 
                     case 7:
                         System.out.print("Enter new owner phone number: ");
                         String newOwnerPhone = scanner.nextLine().trim();
-                        petToModify.getOwner().setPhoneNumber(newOwnerPhone);
+                        service.modifyPet(petToModify, pet -> pet.getOwner().setPhoneNumber(newOwnerPhone));
                         System.out.println("Owner phone updated successfully.");
                         return;
 
                     case 8:
                         System.out.print("Enter new owner address: ");
                         String newOwnerAddress = scanner.nextLine().trim();
-                        petToModify.getOwner().setAddress(newOwnerAddress);
+                        service.modifyPet(petToModify, pet -> pet.getOwner().setAddress(newOwnerAddress));
                         System.out.println("Owner address updated successfully.");
                         return;
 
@@ -271,65 +310,55 @@ public class PetClinicManagementSystem {
         }
     }
 
+    // A page at a time, so a large clinic neither floods the terminal nor waits for the whole list.
     public void viewAllPets() {
         if (pets.isEmpty()) {
             System.out.println("No pets available.");
-        } else {
-            System.out.println("List of pets in the clinic:");
-            for (Pet pet : pets) {
-                System.out.println(pet);
-                System.out.println("Owner: " + pet.getOwner().getName() +
-                        " (Phone: " + pet.getOwner().getFormattedPhoneNumber() + ")");
-                System.out.println("---");
-            }
-        }
-    }
-
-    private String findMostFrequentString(List<String> list) {
-        if (list.isEmpty()) return "None";
-
-        String mostFrequent = list.get(0);
-        int maxCount = 1;
-
-        List<String> uniqueStrings = getUniqueStrings(list);
-        for (String current : uniqueStrings) {
-            int currentCount = countOccurrences(list, current);
-            if (currentCount > maxCount) {
-                mostFrequent = current;
-                maxCount = currentCount;
-            }
+            return;
         }
 
-        return mostFrequent;
-    }
-
-    private List<String> getUniqueStrings(List<String> list) {
-        List<String> uniqueStrings = new ArrayList<>();
-
-        for (String item : list) {
-            boolean isUnique = true;
-            for (String unique : uniqueStrings) {
-                if (item.equals(unique)) {
-                    isUnique = false;
-                    break;
-                }
+        System.out.print("Sort by name or owner (n/o, or press Enter for name): ");
+        PetQuery query = new PetQuery().limit(PAGE_SIZE).orderBy(
+                scanner.nextLine().trim().equalsIgnoreCase("o") ? PetQuery.Order.OWNER : PetQuery.Order.NAME);
+        System.out.println("List of pets in the clinic:");
+        while (true) {
+            long startedAt = viewAllPetsTimer.start();
+            PetPage page = service.findPets(query);
+            for (Pet pet : page.getPets()) {
+                listing.println(pet);
+                listing.append("Owner: ").println(pet.getOwner());
+                listing.println("---");
             }
-            if (isUnique) {
-                uniqueStrings.add(item);
+            listing.flush();
+            viewAllPetsTimer.record(startedAt);
+            if (!page.hasMore() || !wantsMore()) {
+                return;
             }
+            query.after(page.getNextCursor());
         }
+    }
 
-        return uniqueStrings;
+    private boolean wantsMore() {
+        System.out.print("Press Enter for more, or type q to stop: ");
+        return !scanner.nextLine().trim().equalsIgnoreCase("q");
     }
 
-    private int countOccurrences(List<String> list, String target) {
-        int count = 0;
-        for (String item : list) {
-            if (item.equals(target)) {
-                count++;
+    public void viewOwnerPets() {
+        System.out.print("Enter owner phone number: ");
+        try {
+            Owner owner = service.findOwnerByPhone(scanner.nextLine().trim());
+            if (owner == null) {
+                System.out.println("No owner found with that phone number.");
+                return;
             }
+            System.out.println("Pets owned by " + owner.getName() + " (" + owner.getAddress() + "):");
+            for (Pet pet : service.getPetsForOwner(owner)) {
+                listing.append('#').append(pet.getId()).append(' ').println(pet);
+            }
+            listing.flush();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
         }
-        return count;
     }
 
     public void generateReport() {
@@ -338,76 +367,35 @@ public class PetClinicManagementSystem {
             return;
         }
 
-        int dogCount = 0;
-        int catCount = 0;
-        int hamsterCount = 0;
-
-        List<String> colours = new ArrayList<>();
-        List<String> breeds = new ArrayList<>();
-        List<String> owners = new ArrayList<>();
-
-        for (Pet pet : pets) {
-            if (pet.getType().equalsIgnoreCase("Dog")) {
-                dogCount++;
-            } else if (pet.getType().equalsIgnoreCase("Hamster")) {
-                hamsterCount++;
-            } else if (pet.getType().equalsIgnoreCase("Cat")) {
-                catCount++;
-            }
-
-            colours.add(pet.getColour().toLowerCase());
-            breeds.add(pet.getBreed().toLowerCase());
-            owners.add(pet.getOwner().getName().toLowerCase());
-        }
-
-        String dominantColour = findMostFrequentString(colours);
-
-        String dominantBreed = findMostFrequentString(breeds);
-
-        String dominantOwner = findMostFrequentString(owners);
-
-        String dominantPetType;
-        if (dogCount >= catCount && dogCount >= hamsterCount) {
-            dominantPetType = "Dog";
-        } else if (catCount >= dogCount && catCount >= hamsterCount) {
-            dominantPetType = "Cat";
-        } else {
-            dominantPetType = "Hamster";
-        }
+        ClinicReport report = service.buildReport();
 
         System.out.println("----------------------------");
         System.out.println("Pet Type Distribution:");
-        System.out.println("Dogs: " + dogCount);
-        System.out.println("Cats: " + catCount);
-        System.out.println("Hamsters: " + hamsterCount);
+        System.out.println("Dogs: " + report.getTypeCount("Dog"));
+        System.out.println("Cats: " + report.getTypeCount("Cat"));
+        System.out.println("Hamsters: " + report.getTypeCount("Hamster"));
 
         System.out.println("\nColour Distribution:");
-        List<String> uniqueColours = getUniqueStrings(colours);
-        for (String uniqueColour : uniqueColours) {
-            int count = countOccurrences(colours, uniqueColour);
-            System.out.println(uniqueColour + ": " + count);
-        }
+        printDistribution(report.getColourCounts());
 
         System.out.println("\nBreed Distribution:");
-        List<String> uniqueBreeds = getUniqueStrings(breeds);
-        for (String uniqueBreed : uniqueBreeds) {
-            int count = countOccurrences(breeds, uniqueBreed);
-            System.out.println(uniqueBreed + ": " + count);
-        }
+        printDistribution(report.getBreedCounts());
 
         System.out.println("\nOwner Distribution:");
-        List<String> uniqueOwners = getUniqueStrings(owners);
-        for (String uniqueOwner : uniqueOwners) {
-            int count = countOccurrences(owners, uniqueOwner);
-            System.out.println(uniqueOwner + ": " + count);
-        }
+        printDistribution(report.getOwnerCounts());
 
         System.out.println("\nSummary:");
-        System.out.println("Total Pets: " + pets.size());
-        System.out.println("Dominant Colour: " + dominantColour);
-        System.out.println("Dominant Pet Type: " + dominantPetType);
-        System.out.println("Dominant Breed: " + dominantBreed);
-        System.out.println("Most Frequent Owner: " + dominantOwner);
+        System.out.println("Total Pets: " + report.getTotalPets());
+        System.out.println("Dominant Colour: " + report.getDominantColour());
+        System.out.println("Dominant Pet Type: " + report.getDominantPetType());
+        System.out.println("Dominant Breed: " + report.getDominantBreed());
+        System.out.println("Most Frequent Owner: " + report.getDominantOwner());
+    }
+
+    private void printDistribution(Map<String, Integer> counts) {
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+        }
     }
 
     public void addAppointment() {
@@ -420,6 +408,9 @@ public class PetClinicManagementSystem {
             Pet selectedPet = selectPet("Select a pet for the appointment:");
             if (selectedPet == null) return;
 
+            System.out.print("Enter veterinarian name: ");
+            Veterinarian veterinarian = new Veterinarian(scanner.nextLine().trim());
+
             boolean validAppointment = false;
             LocalDateTime dateTime = null;
             Integer duration = null;
@@ -428,7 +419,7 @@ public class PetClinicManagementSystem {
                 System.out.print("Enter appointment date and time (HH:mm dd/MM/yyyy): ");
                 dateTime = parseDateTime(scanner.nextLine().trim());
 
-                if (!isWithinClinicHours(dateTime)) {
+                if (!ClinicService.isWithinClinicHours(dateTime)) {
                     System.out.println("Appointment must be between 8:00 AM and 6:00 PM. Please choose another time.");
                     continue;
                 }
@@ -449,8 +440,9 @@ public class PetClinicManagementSystem {
                 }
 
                 int appointmentDuration = (duration != null) ? duration : Appointment.DEFAULT_DURATION;
-                if (isAppointmentConflict(dateTime, appointmentDuration)) {
+                if (isAppointmentConflict(dateTime, appointmentDuration, veterinarian, selectedPet, null)) {
                     System.out.println("This time slot is already booked. Please choose another time.");
+                    printSuggestedSlots(dateTime, appointmentDuration, veterinarian, selectedPet);
                     continue;
                 }
 
@@ -460,11 +452,12 @@ public class PetClinicManagementSystem {
             System.out.print("Enter reason for appointment: ");
             String reason = scanner.nextLine().trim();
 
-            System.out.print("Enter veterinarian name: ");
-            String veterinarian = scanner.nextLine().trim();
-
-            Appointment newAppointment = new Appointment(selectedPet, dateTime, reason, veterinarian, duration);
-            appointments.add(newAppointment);
+            Appointment newAppointment = new Appointment(selectedPet, dateTime, reason, veterinarian.getName(), duration);
+            Appointment conflict = service.bookAppointment(newAppointment);
+            if (conflict != null) {
+                System.out.println("This time slot was booked at another desk: " + conflict);
+                return;
+            }
 
             System.out.println("Appointment added successfully:");
             System.out.println(newAppointment);
@@ -474,29 +467,94 @@ public class PetClinicManagementSystem {
     }
 
 
-    private boolean isAppointmentConflict(LocalDateTime newDateTime, int durationMinutes) {
-        LocalDateTime newEndTime = newDateTime.plusMinutes(durationMinutes);
+    // A course of appointments at the same time every few days, booked together or not at all.
+    public void addRecurringAppointments() {
+        try {
+            if (pets.isEmpty()) {
+                System.out.println("No pets available. Please add a pet first.");
+                return;
+            }
+
+            Pet selectedPet = selectPet("Select a pet for the appointments:");
+            if (selectedPet == null) return;
 
-        for (Appointment existingAppointment : appointments) {
-            if (existingAppointment.getStatus() == Appointment.AppointmentStatus.CANCELLED) {
-                continue;
+            System.out.print("Enter veterinarian name: ");
+            String veterinarian = scanner.nextLine().trim();
+
+            System.out.print("Enter first appointment date and time (HH:mm dd/MM/yyyy): ");
+            LocalDateTime first = parseDateTime(scanner.nextLine().trim());
+            if (!ClinicService.isWithinClinicHours(first)) {
+                System.out.println("Appointment must be between 8:00 AM and 6:00 PM.");
+                return;
             }
 
-            LocalDateTime existingStartTime = existingAppointment.getDateTime();
-            LocalDateTime existingEndTime = existingStartTime.plusMinutes(existingAppointment.getDuration());
+            System.out.print("Enter appointment duration in minutes (or press Enter for default 30 minutes): ");
+            String durationInput = scanner.nextLine().trim();
+            Integer duration = durationInput.isEmpty() ? null : Integer.parseInt(durationInput);
 
-            if ((newDateTime.isBefore(existingEndTime) && newEndTime.isAfter(existingStartTime)) ||
-                    newDateTime.isEqual(existingStartTime)) {
-                System.out.println("Conflict with appointment: " + existingAppointment);
-                return true;
+            System.out.print("Enter reason for appointments: ");
+            String reason = scanner.nextLine().trim();
+
+            System.out.print("Repeat every how many days: ");
+            int everyDays = Integer.parseInt(scanner.nextLine().trim());
+            System.out.print("Number of appointments: ");
+            int count = Integer.parseInt(scanner.nextLine().trim());
+
+            List<Appointment> batch = RecurrenceRule.everyDays(first, everyDays, count)
+                    .expand(selectedPet, reason, veterinarian, duration);
+            Map<Appointment, Appointment> conflicts = service.bookAppointments(batch);
+            if (!conflicts.isEmpty()) {
+                System.out.println(conflicts.size() + " of " + batch.size() + " appointments clash, so none were booked:");
+                for (Map.Entry<Appointment, Appointment> conflict : conflicts.entrySet()) {
+                    System.out.println(conflict.getKey().getFormattedDateTime() + " is blocked by " + conflict.getValue());
+                }
+                return;
             }
+
+            System.out.println("Booked " + batch.size() + " appointments for " + selectedPet.getName() + " with "
+                    + batch.get(0).getVeterinarian().getName() + ", from " + batch.get(0).getFormattedDateTime()
+                    + " to " + batch.get(batch.size() - 1).getFormattedDateTime() + ".");
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number input. Please enter valid numeric values.");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error adding appointments: " + e.getMessage());
+        }
+    }
+
+    private boolean isAppointmentConflict(LocalDateTime newDateTime, int durationMinutes, Veterinarian veterinarian,
+                                          Pet pet, Appointment ignore) {
+        Appointment existingAppointment = service.findConflict(newDateTime, durationMinutes, veterinarian, pet, ignore);
+        if (existingAppointment != null) {
+            System.out.println("Conflict with appointment: " + existingAppointment);
+            return true;
         }
         return false;
     }
 
-    private boolean isWithinClinicHours(LocalDateTime dateTime) {
-        int hour = dateTime.getHour();
-        return hour >= 8 && hour < 18;
+    // Suggests the vet's own next free slots first, then the earliest slots with any other vet.
+    private void printSuggestedSlots(LocalDateTime requested, int durationMinutes, Veterinarian veterinarian, Pet pet) {
+        LocalDateTime from = requested.isBefore(LocalDateTime.now()) ? LocalDateTime.now() : requested;
+        LocalDate lastDay = from.toLocalDate().plusDays(SUGGESTION_DAYS);
+        printSlots("Next available with " + veterinarian.getName() + ":",
+                service.findFreeSlots(durationMinutes, from, lastDay, SUGGESTION_COUNT, veterinarian, pet), false);
+        if (service.getVeterinarians().size() > 1) {
+            printSlots("Next available with any vet:",
+                    service.findFreeSlots(durationMinutes, from, lastDay, SUGGESTION_COUNT, null, pet), true);
+        }
+    }
+
+    private void printSlots(String heading, List<AppointmentSchedule.Slot> slots, boolean showVeterinarian) {
+        if (slots.isEmpty()) {
+            System.out.println(heading + " no free slots in the next " + SUGGESTION_DAYS + " days.");
+            return;
+        }
+        StringBuilder line = new StringBuilder(heading);
+        for (AppointmentSchedule.Slot slot : slots) {
+            line.append(' ').append(showVeterinarian ? slot.toString() : slot.getStart().format(Appointment.DATE_TIME_FORMAT))
+                    .append(';');
+        }
+        line.setLength(line.length() - 1);
+        System.out.println(line);
     }
 
     public void deleteAppointment() {
@@ -507,8 +565,12 @@ public class PetClinicManagementSystem {
 
         Appointment appointmentToRemove = searchAppointment("Select an appointment to delete:");
         if (appointmentToRemove != null) {
-            appointments.remove(appointmentToRemove);
-            System.out.println("Appointment deleted successfully.");
+            try {
+                service.removeAppointment(appointmentToRemove);
+                System.out.println("Appointment deleted successfully.");
+            } catch (IllegalArgumentException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
         }
     }
 
@@ -521,6 +583,10 @@ public class PetClinicManagementSystem {
         Appointment appointmentToModify = searchAppointment("Select an appointment to modify:");
         if (appointmentToModify == null) return;
 
+        modifyAppointmentAttributes(appointmentToModify);
+    }
+
+    private void modifyAppointmentAttributes(Appointment appointmentToModify) {
         while (true) {
             System.out.println("\nModify Appointment:");
             System.out.println("1. Change Date and Time");
@@ -543,50 +609,47 @@ public class PetClinicManagementSystem {
                             System.out.print("Enter new date and time (HH:mm dd/MM/yyyy): ");
                             newDateTime = parseDateTime(scanner.nextLine().trim());
 
-                            if (!isWithinClinicHours(newDateTime)) {
+                            if (!ClinicService.isWithinClinicHours(newDateTime)) {
                                 System.out.println("Appointment must be between 8:00 AM and 6:00 PM. Please choose another time.");
                                 continue;
                             }
 
-                            boolean hasConflict = false;
-                            for (Appointment other : appointments) {
-                                if (other != appointmentToModify && other.getStatus() != Appointment.AppointmentStatus.CANCELLED) {
-                                    LocalDateTime otherStart = other.getDateTime();
-                                    LocalDateTime otherEnd = otherStart.plusMinutes(other.getDuration());
-                                    LocalDateTime newEnd = newDateTime.plusMinutes(appointmentToModify.getDuration());
-
-                                    if ((newDateTime.isBefore(otherEnd) && newEnd.isAfter(otherStart)) ||
-                                            newDateTime.isEqual(otherStart)) {
-                                        System.out.println("Conflict with appointment: " + other);
-                                        hasConflict = true;
-                                        break;
-                                    }
-                                }
-                            }
-
-                            if (hasConflict) {
+                            if (isAppointmentConflict(newDateTime, appointmentToModify.getDuration(),
+                                    appointmentToModify.getVeterinarian(), appointmentToModify.getPet(), appointmentToModify)) {
                                 System.out.println("This time slot is already booked. Please choose another time.");
+                                printSuggestedSlots(newDateTime, appointmentToModify.getDuration(),
+                                        appointmentToModify.getVeterinarian(), appointmentToModify.getPet());
                                 continue;
                             }
 
                             validDateTime = true;
                         }
 
-                        appointmentToModify.setDateTime(newDateTime);
+                        Appointment moved = service.rescheduleAppointment(appointmentToModify, newDateTime,
+                                appointmentToModify.getDuration());
+                        if (moved != null) {
+                            System.out.println("This time slot was booked at another desk: " + moved);
+                            return;
+                        }
                         System.out.println("Date and time updated successfully.");
                         return;
 
                     case 2:
                         System.out.print("Enter new reason: ");
                         String newReason = scanner.nextLine().trim();
-                        appointmentToModify.setReason(newReason);
+                        service.modifyAppointment(appointmentToModify, appointment -> appointment.setReason(newReason));
                         System.out.println("Reason updated successfully.");
                         return;
 
                     case 3:
                         System.out.print("Enter new veterinarian name: ");
-                        String newVeterinarian = scanner.nextLine().trim();
-                        appointmentToModify.setVeterinarian(newVeterinarian);
+                        Veterinarian newVeterinarian = new Veterinarian(scanner.nextLine().trim());
+                        Appointment busy = service.rescheduleAppointment(appointmentToModify,
+                                appointmentToModify.getDateTime(), appointmentToModify.getDuration(), newVeterinarian);
+                        if (busy != null) {
+                            System.out.println(newVeterinarian.getName() + " is busy at that time: " + busy);
+                            return;
+                        }
                         System.out.println("Veterinarian updated successfully.");
                         return;
 
@@ -597,7 +660,18 @@ public class PetClinicManagementSystem {
                         }
                         System.out.print("Enter status number: ");
                         int statusChoice = Integer.parseInt(scanner.nextLine().trim());
-                        appointmentToModify.setStatus(Appointment.AppointmentStatus.values()[statusChoice - 1]);
+                        if (statusChoice < 1 || statusChoice > Appointment.AppointmentStatus.values().length) {
+                            System.out.println("Invalid status selection.");
+                            return;
+                        }
+                        Appointment.AppointmentStatus newStatus = Appointment.AppointmentStatus.values()[statusChoice - 1];
+                        Appointment taken = service.modifyAppointment(appointmentToModify,
+                                appointment -> appointment.setStatus(newStatus));
+                        if (taken != null) {
+                            System.out.println("That slot has been booked since: " + taken);
+                            System.out.println("Reschedule the appointment before bringing it back.");
+                            return;
+                        }
                         System.out.println("Status updated successfully.");
                         return;
 
@@ -610,29 +684,13 @@ public class PetClinicManagementSystem {
                         }
 
                         LocalDateTime appointmentDateTime = appointmentToModify.getDateTime();
-                        int durationToCheck = (newDuration != null) ? newDuration : Appointment.DEFAULT_DURATION;
-
-                        boolean hasConflictWithNewDuration = false;
-                        for (Appointment other : appointments) {
-                            if (other != appointmentToModify && other.getStatus() != Appointment.AppointmentStatus.CANCELLED) {
-                                LocalDateTime otherStart = other.getDateTime();
-                                LocalDateTime otherEnd = otherStart.plusMinutes(other.getDuration());
-                                LocalDateTime newEnd = appointmentDateTime.plusMinutes(durationToCheck);
-
-                                if ((appointmentDateTime.isBefore(otherEnd) && newEnd.isAfter(otherStart))) {
-                                    System.out.println("New duration conflicts with appointment: " + other);
-                                    hasConflictWithNewDuration = true;
-                                    break;
-                                }
-                            }
-                        }
 
-                        if (hasConflictWithNewDuration) {
+                        Appointment other = service.rescheduleAppointment(appointmentToModify, appointmentDateTime, newDuration);
+                        if (other != null) {
+                            System.out.println("New duration conflicts with appointment: " + other);
                             System.out.println("Cannot update duration due to conflicts with other appointments.");
                             return;
                         }
-
-                        appointmentToModify.setDuration(newDuration);
                         System.out.println("Duration updated successfully.");
                         return;
 
@@ -658,8 +716,19 @@ public class PetClinicManagementSystem {
         }
 
         System.out.println("List of Appointments:");
-        for (Appointment appointment : appointments) {
-            System.out.println(appointment);
+        AppointmentQuery query = new AppointmentQuery().limit(PAGE_SIZE);
+        while (true) {
+            long startedAt = viewAppointmentsTimer.start();
+            AppointmentPage page = service.findAppointments(query);
+            for (Appointment appointment : page.getAppointments()) {
+                listing.println(appointment);
+            }
+            listing.flush();
+            viewAppointmentsTimer.record(startedAt);
+            if (!page.hasMore() || !wantsMore()) {
+                return;
+            }
+            query.after(page.getNextCursor());
         }
     }
 
@@ -669,30 +738,25 @@ public class PetClinicManagementSystem {
             return;
         }
 
-        System.out.print("Enter pet name or owner name to search: ");
-        String searchTerm = scanner.nextLine().trim().toLowerCase();
+        System.out.print("Enter pet name, owner name, reason, or vet to search: ");
+        String searchTerm = scanner.nextLine().trim();
 
-        List<Appointment> matchingAppointments = new ArrayList<>();
-        for (Appointment appointment : appointments) {
-            if (appointment.getPet().getName().toLowerCase().contains(searchTerm) ||
-                    appointment.getPet().getOwner().getName().toLowerCase().contains(searchTerm)) {
-                matchingAppointments.add(appointment);
-            }
-        }
+        List<Appointment> matchingAppointments = service.searchAppointments(searchTerm, SEARCH_RESULTS);
 
         if (matchingAppointments.isEmpty()) {
             System.out.println("No appointments found matching the search criteria.");
         } else {
-            System.out.println("Matching Appointments:");
+            listing.println("Matching Appointments:");
             for (Appointment appointment : matchingAppointments) {
-                System.out.println(appointment);
+                listing.println(appointment);
             }
+            listing.flush();
         }
     }
 
     private LocalDateTime parseDateTime(String dateTimeStr) {
         try {
-            return LocalDateTime.parse(dateTimeStr, DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy"));
+            return LocalDateTime.parse(dateTimeStr, Appointment.DATE_TIME_FORMAT);
         } catch (DateTimeParseException e) {
             throw new IllegalArgumentException("Invalid date and time format. Use HH:mm dd/MM/yyyy");
         }
@@ -700,21 +764,38 @@ public class PetClinicManagementSystem {
 
     private Pet selectPet(String prompt) {
         System.out.println(prompt);
+        PetQuery query = new PetQuery().limit(PAGE_SIZE);
+        while (true) {
+            PetPage page = service.findPets(query);
+            for (Pet pet : page.getPets()) {
+                listing.append('#').append(pet.getId()).append(' ').println(pet);
+            }
+            listing.flush();
 
-        for (Pet pet : pets) {
-            System.out.println(pet);
+            System.out.print(page.hasMore() ? "Enter pet name or #ID, or press Enter for more: " : "Enter pet name or #ID: ");
+            String choice = scanner.nextLine().trim();
+            if (!choice.isEmpty() || !page.hasMore()) {
+                return choosePet(choice);
+            }
+            query.after(page.getNextCursor());
         }
+    }
 
-        System.out.print("Enter pet name: ");
-        String petName = scanner.nextLine().trim();
-
-        List<Pet> matchingPets = new ArrayList<>();
-        for (Pet pet : pets) {
-            if (pet.getName().equalsIgnoreCase(petName)) {
-                matchingPets.add(pet);
+    private Pet choosePet(String petName) {
+        if (petName.startsWith("#")) {
+            String id = petName.substring(1).trim();
+            Pet pet = null;
+            if (!id.isEmpty() && id.length() < 19 && id.chars().allMatch(Character::isDigit)) {
+                pet = service.getPet(Long.parseLong(id));
+            }
+            if (pet == null) {
+                System.out.println("No pet found with ID " + petName + ".");
             }
+            return pet;
         }
 
+        List<Pet> matchingPets = new ArrayList<>(service.findPetsByName(petName));
+
         if (matchingPets.isEmpty()) {
             System.out.println("No pet found with the name '" + petName + "'.");
             return null;
@@ -724,7 +805,8 @@ public class PetClinicManagementSystem {
             System.out.println("Multiple pets found with name '" + petName + "'. Please select by owner:");
             for (int i = 0; i < matchingPets.size(); i++) {
                 Pet pet = matchingPets.get(i);
-                System.out.println((i + 1) + ". " + pet.getName() + " (Owner: " + pet.getOwner().getName() + ")");
+                System.out.println((i + 1) + ". " + pet.getName() + " #" + pet.getId() +
+                        " (Owner: " + pet.getOwner().getName() + ")");
             }
 
             System.out.print("Enter number: ");
@@ -748,38 +830,42 @@ public class PetClinicManagementSystem {
             return null;
         }
 
+        // Numbers run on from page to page, so any appointment shown so far can be picked.
+        List<Appointment> listed = new ArrayList<>();
         System.out.println(prompt);
-        for (int i = 0; i < appointments.size(); i++) {
-            System.out.println((i + 1) + ". " + appointments.get(i));
-        }
-        System.out.print("Enter appointment number: ");
+        AppointmentQuery query = new AppointmentQuery().limit(PAGE_SIZE);
+        while (true) {
+            AppointmentPage page = service.findAppointments(query);
+            for (Appointment appointment : page.getAppointments()) {
+                listed.add(appointment);
+                listing.append(listed.size()).append(". ").println(appointment);
+            }
+            listing.flush();
 
-        try {
-            int appointmentChoice = Integer.parseInt(scanner.nextLine().trim());
-            if (appointmentChoice < 1 || appointmentChoice > appointments.size()) {
-                System.out.println("Invalid appointment selection.");
+            System.out.print(page.hasMore() ? "Enter appointment number, or press Enter for more: "
+                    : "Enter appointment number: ");
+            String choice = scanner.nextLine().trim();
+            if (choice.isEmpty() && page.hasMore()) {
+                query.after(page.getNextCursor());
+                continue;
+            }
+            try {
+                int appointmentChoice = Integer.parseInt(choice);
+                if (appointmentChoice < 1 || appointmentChoice > listed.size()) {
+                    System.out.println("Invalid appointment selection.");
+                    return null;
+                }
+                return listed.get(appointmentChoice - 1);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a number.");
                 return null;
             }
-            return appointments.get(appointmentChoice - 1);
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid input. Please enter a number.");
-            return null;
         }
     }
 
     public void saveAppointments() {
-        try (BufferedWriter appointmentWriter = new BufferedWriter(new FileWriter(APPOINTMENT_DETAILS_FILE))) {
-            for (Appointment appointment : appointments) {
-                appointmentWriter.write(
-                        appointment.getPet().getName() + ", " +
-                                appointment.getFormattedDateTime() + ", " +
-                                appointment.getReason() + ", " +
-                                appointment.getVeterinarian() + ", " +
-                                appointment.getDuration() + ", " +
-                                appointment.getStatus()
-                );
-                appointmentWriter.newLine();
-            }
+        try {
+            service.saveAppointments(new FileWriter(APPOINTMENT_DETAILS_FILE));
             System.out.println("Appointments saved successfully.");
         } catch (IOException e) {
             System.out.println("Error saving appointments: " + e.getMessage());
@@ -788,45 +874,16 @@ public class PetClinicManagementSystem {
 
     public void loadAppointments() {
         File appointmentFile = new File(APPOINTMENT_DETAILS_FILE);
-        appointments.clear();
+        service.clearAppointments();
 
         if (!appointmentFile.exists()) {
             System.out.println("No previous appointment data found.");
             return;
         }
 
-        try (BufferedReader appointmentReader = new BufferedReader(new FileReader(appointmentFile))) {
-            String line;
-            while ((line = appointmentReader.readLine()) != null) {
-                try {
-                    String[] parts = line.split(", ");
-
-                    Pet pet = pets.stream()
-                            .filter(p -> p.getName().equals(parts[0]))
-                            .findFirst()
-                            .orElseThrow(() -> new IllegalArgumentException("Pet not found"));
-
-                    LocalDateTime dateTime = LocalDateTime.parse(parts[1], DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy"));
-                    String reason = parts[2];
-                    String veterinarian = parts[3];
-
-                    Integer duration = null;
-                    Appointment.AppointmentStatus status;
-
-                    if (parts.length >= 6) {
-                        duration = Integer.parseInt(parts[4]);
-                        status = Appointment.AppointmentStatus.valueOf(parts[5]);
-                    } else {
-                        status = Appointment.AppointmentStatus.valueOf(parts[4]);
-                    }
-
-                    Appointment appointment = new Appointment(pet, dateTime, reason, veterinarian, duration);
-                    appointment.setStatus(status);
-                    appointments.add(appointment);
-                } catch (Exception e) {
-                    System.out.println("Error loading an appointment: " + e.getMessage());
-                }
-            }
+        try {
+            LoadReport report = service.loadAppointments(new FileReader(appointmentFile));
+            report.printErrors("Error loading appointment at");
             System.out.println("Appointments loaded successfully. Total: " + appointments.size());
         } catch (IOException e) {
             System.out.println("Error loading appointments: " + e.getMessage());
@@ -834,43 +891,14 @@ public class PetClinicManagementSystem {
     }
 
     public void saveData() {
-        try (BufferedWriter petWriter = new BufferedWriter(new FileWriter(PET_DETAILS_FILE))) {
-            List<Pet> validPets = new ArrayList<>();
-
-            for (Pet pet : pets) {
-                if (pet != null &&
-                        pet.getName() != null && !pet.getName().trim().isEmpty() &&
-                        pet.age > 0 &&
-                        pet.getColour() != null && !pet.getColour().trim().isEmpty() &&
-                        pet.weight > 0 &&
-                        pet.getBreed() != null && !pet.getBreed().trim().isEmpty() &&
-                        pet.getOwner() != null) {
-                    validPets.add(pet);
-                }
-            }
-
-            if (validPets.isEmpty()) {
+        try {
+            int saved = service.savePets(new FileWriter(PET_DETAILS_FILE));
+            if (saved == 0) {
                 System.out.println("No valid pets to save.");
                 return;
             }
-
-            for (Pet pet : validPets) {
-                petWriter.write(
-                        pet.getName() + ", " +
-                                pet.age + ", " +
-                                pet.getColour() + ", " +
-                                pet.weight + ", " +
-                                pet.getType() + ": " +
-                                pet.getBreed() + ", " +
-                                pet.getOwner().getName() + ", " +
-                                pet.getOwner().getPhoneNumber() + ", " +
-                                pet.getOwner().getAddress()
-                );
-                petWriter.newLine();
-            }
             System.out.println("Pet details saved successfully.");
-            System.out.println("Total valid pets saved: " + validPets.size());
-
+            System.out.println("Total valid pets saved: " + saved);
         } catch (IOException e) {
             System.out.println("Error saving data: " + e.getMessage());
         }
@@ -879,10 +907,7 @@ public class PetClinicManagementSystem {
     public void loadData() {
         File petFile = new File(PET_DETAILS_FILE);
 
-        pets.clear();
-
-        int successfulLoads = 0;
-        int failedLoads = 0;
+        service.clearPets();
 
         if (!petFile.exists()) {
             System.out.println("No previous data found.");
@@ -891,49 +916,281 @@ public class PetClinicManagementSystem {
             return;
         }
 
-        try (BufferedReader petReader = new BufferedReader(new FileReader(petFile))) {
-            String line;
+        LoadReport report = new LoadReport();
+        try {
+            report = service.loadPets(new FileReader(petFile));
+        } catch (IOException e) {
+            System.out.println("Error loading data: " + e.getMessage());
+        }
+
+        System.out.println("Successfully loaded " + report.getLoaded() + " pets.");
+        System.out.println("Failed to load " + report.getFailed() + " pets.");
+        report.printErrors("Skipped pet at");
+        System.out.println("Total pets after loading: " + pets.size());
+    }
+
+    public boolean saveSnapshot() {
+        try {
+            service.writeSnapshot();
+            System.out.println("Clinic snapshot saved successfully.");
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error saving clinic snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void checkpoint() {
+        try {
+            service.checkpoint();
+            System.out.println("Clinic snapshot saved successfully.");
+        } catch (IOException e) {
+            System.out.println("Error saving clinic snapshot: " + e.getMessage());
+        }
+    }
+
+    public void openJournal(boolean loadedFromSnapshot) {
+        Path journalFile = service.getJournalFile();
+        boolean recovered = false;
+        try {
+            if (Files.exists(journalFile) && Files.size(journalFile) > 0) {
+                if (loadedFromSnapshot) {
+                    int applied = service.replayJournal();
+                    recovered = true;
+                    System.out.println("Recovered " + applied + " journal entries. Pets: " + pets.size() +
+                            ", Appointments: " + appointments.size());
+                } else {
+                    Path ignored = service.setJournalAside();
+                    System.out.println("Journal does not match the loaded text files; kept it as " + ignored + ".");
+                }
+            }
+            service.openJournal();
+        } catch (IOException e) {
+            System.out.println("Error opening journal: " + e.getMessage());
+            System.out.println("The clinic is read-only: no changes are accepted until the journal is fixed and the system restarted.");
+            return;
+        }
+
+        if (!loadedFromSnapshot || recovered) {
+            checkpoint();
+        }
+    }
+
+    // Finished appointments from before today move to the archive at start-up and on exit.
+    public void archiveAppointments() {
+        try {
+            int archived = service.archiveAppointments();
+            if (archived > 0) {
+                System.out.println("Archived " + archived + " finished appointment(s) to " + service.getArchiveDirectory() + ".");
+            }
+        } catch (IOException e) {
+            System.out.println("Error archiving appointments: " + e.getMessage());
+        }
+    }
 
-            while ((line = petReader.readLine()) != null) {
+    public void closeJournal() {
+        try {
+            service.closeJournal();
+        } catch (IOException e) {
+            System.out.println("Error closing journal: " + e.getMessage());
+        }
+    }
+
+    public boolean loadSnapshot() {
+        File snapshotFile = new File(SNAPSHOT_FILE);
+        File petFile = new File(PET_DETAILS_FILE);
+        File appointmentFile = new File(APPOINTMENT_DETAILS_FILE);
+        if (!snapshotFile.exists() || snapshotFile.lastModified() < petFile.lastModified() ||
+                snapshotFile.lastModified() < appointmentFile.lastModified()) {
+            return false;
+        }
+
+        try {
+            long startedAt = loadSnapshotTimer.start();
+            service.restore(ClinicSnapshot.read(snapshotFile.toPath()));
+            loadSnapshotTimer.record(startedAt);
+            System.out.println("Clinic snapshot loaded. Pets: " + pets.size() + ", Appointments: " + appointments.size());
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error loading clinic snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void bulkImportPets() {
+        System.out.print("Enter path of the pet records file to import: ");
+        String path = scanner.nextLine().trim();
+
+        try {
+            long startedAt = bulkImportTimer.start();
+            BulkPetImporter.Result result = new BulkPetImporter().importPets(Paths.get(path));
+            service.importPets(result.getPets());
+            service.recordLoad("pets", result.getReport());
+            bulkImportTimer.record(startedAt);
+
+            LoadReport report = result.getReport();
+            System.out.println("Successfully imported " + report.getLoaded() + " pets.");
+            System.out.println("Failed to import " + report.getFailed() + " pets.");
+            report.printErrors("Skipped pet at");
+            System.out.println("Total pets after import: " + pets.size());
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Error importing pets: " + e.getMessage());
+        }
+    }
+
+    // "--http PORT" serves the JSON API from the same clinic while the menu keeps running.
+    private ClinicHttpServer startHttpServer(String[] args) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (!args[i].equals("--http")) {
+                continue;
+            }
+            try {
+                ClinicHttpServer server = new ClinicHttpServer(service, Integer.parseInt(args[i + 1]));
+                server.start();
+                System.out.println("HTTP API listening on port " + server.getPort() +
+                        (server.usesVirtualThreads() ? " (virtual threads)." : " (thread pool)."));
+                return server;
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid HTTP port: " + args[i + 1]);
+            } catch (IOException e) {
+                System.out.println("Error starting HTTP API: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // Appointments between two dates, optionally for one status and one vet, a page at a time.
+    public void findAppointments() {
+        try {
+            System.out.print("From date (dd/MM/yyyy, or press Enter for today): ");
+            String fromInput = scanner.nextLine().trim();
+            LocalDate from = fromInput.isEmpty() ? LocalDate.now() : LocalDate.parse(fromInput, Appointment.DATE_FORMAT);
+            System.out.print("To date (dd/MM/yyyy, or press Enter for the same day): ");
+            String toInput = scanner.nextLine().trim();
+            LocalDate to = toInput.isEmpty() ? from : LocalDate.parse(toInput, Appointment.DATE_FORMAT);
+
+            AppointmentQuery query = new AppointmentQuery()
+                    .from(from.atStartOfDay())
+                    .to(to.plusDays(1).atStartOfDay());
+
+            System.out.print("Status (SCHEDULED/COMPLETED/CANCELLED, or press Enter for any): ");
+            String statusInput = scanner.nextLine().trim();
+            if (!statusInput.isEmpty()) {
                 try {
-                    String[] parts = line.split(", ");
-                    String name = parts[0];
-                    int age = Integer.parseInt(parts[1]);
-                    String colour = parts[2];
-                    double weight = Double.parseDouble(parts[3]);
-                    String type = parts[4].split(":")[0].trim();
-                    String breed = parts[4].split(":")[1].trim();
-
-                    String ownerName = parts[5];
-                    String ownerPhone = parts[6];
-                    String ownerAddress = parts[7];
-
-                    Owner owner = new Owner(ownerName, ownerPhone, ownerAddress);
-
-                    Pet pet;
-                    if (type.equalsIgnoreCase("Cat")) {
-                        pet = new Pet.Cat(name, age, colour, weight, breed, owner);
-                    } else if (type.equalsIgnoreCase("Dog")) {
-                        pet = new Pet.Dog(name, age, colour, weight, breed, owner);
-                    } else if (type.equalsIgnoreCase("Hamster")) {
-                        pet = new Pet.Hamster(name, age, colour, weight, breed, owner);
-                    } else {
-                        pet = new Pet.Dog(name, age, colour, weight, breed, owner);
-                    }
+                    query.status(Appointment.AppointmentStatus.valueOf(statusInput.toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Unknown status '" + statusInput + "'.");
+                    return;
+                }
+            }
 
-                    pets.add(pet);
-                    successfulLoads++;
-                } catch (Exception e) {
-                    failedLoads++;
+            System.out.print("Veterinarian name (or press Enter for any): ");
+            String veterinarianInput = scanner.nextLine().trim();
+            if (!veterinarianInput.isEmpty()) {
+                Veterinarian veterinarian = service.findVeterinarian(veterinarianInput);
+                if (veterinarian == null) {
+                    System.out.println("No veterinarian found with that name.");
+                    return;
                 }
+                query.veterinarian(veterinarian);
             }
+
+            int shown = 0;
+            while (true) {
+                AppointmentPage page = service.findAppointments(query);
+                for (Appointment appointment : page.getAppointments()) {
+                    System.out.println(appointment);
+                }
+                shown += page.getAppointments().size();
+                if (!page.hasMore()) {
+                    break;
+                }
+                System.out.print("Press Enter for more, or type q to stop: ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                    break;
+                }
+                query.after(page.getNextCursor());
+            }
+            System.out.println(shown == 0 ? "No appointments found matching the search criteria."
+                    : shown + " appointment(s) shown.");
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date format. Please use dd/MM/yyyy.");
+        }
+    }
+
+    // Archived appointments are read from disk for the dates asked for, optionally matching a pet, owner,
+    // vet or reason.
+    public void searchArchivedAppointments() {
+        try {
+            System.out.print("From date (dd/MM/yyyy, or press Enter for 30 days ago): ");
+            String fromInput = scanner.nextLine().trim();
+            LocalDate from = fromInput.isEmpty() ? LocalDate.now().minusDays(30) : LocalDate.parse(fromInput, Appointment.DATE_FORMAT);
+            System.out.print("To date (dd/MM/yyyy, or press Enter for yesterday): ");
+            String toInput = scanner.nextLine().trim();
+            LocalDate to = toInput.isEmpty() ? LocalDate.now().minusDays(1) : LocalDate.parse(toInput, Appointment.DATE_FORMAT);
+            System.out.print("Pet, owner, veterinarian or reason (or press Enter for any): ");
+            String term = scanner.nextLine().trim().toLowerCase();
+
+            List<ArchivedAppointment> found = service.findArchivedAppointments(from, to.plusDays(1),
+                    term.isEmpty() ? null : archived -> archived.getPetName().toLowerCase().contains(term)
+                            || archived.getOwnerName().toLowerCase().contains(term)
+                            || archived.getVeterinarian().toLowerCase().contains(term)
+                            || archived.getReason().toLowerCase().contains(term),
+                    ARCHIVE_RESULTS + 1);
+            if (found.isEmpty()) {
+                System.out.println("No archived appointments found matching the search criteria.");
+                return;
+            }
+            for (ArchivedAppointment archived : found.subList(0, Math.min(found.size(), ARCHIVE_RESULTS))) {
+                listing.println(archived);
+            }
+            listing.flush();
+            if (found.size() > ARCHIVE_RESULTS) {
+                System.out.println("Showing the first " + ARCHIVE_RESULTS + "; narrow the dates to see the rest.");
+            }
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date format. Please use dd/MM/yyyy.");
         } catch (IOException e) {
-            System.out.println("Error loading data: " + e.getMessage());
+            System.out.println("Error reading the appointment archive: " + e.getMessage());
+        }
+    }
+
+    public void viewVeterinarianSchedule() {
+        List<Veterinarian> veterinarians = service.getVeterinarians();
+        if (veterinarians.isEmpty()) {
+            System.out.println("No veterinarians have appointments yet.");
+            return;
         }
+        System.out.println("Veterinarians:");
+        for (Veterinarian veterinarian : veterinarians) {
+            System.out.println("- " + veterinarian.getName());
+        }
+        System.out.print("Enter veterinarian name: ");
+        Veterinarian veterinarian = service.findVeterinarian(scanner.nextLine().trim());
+        if (veterinarian == null) {
+            System.out.println("No veterinarian found with that name.");
+            return;
+        }
+        System.out.print("Enter date (dd/MM/yyyy): ");
+        try {
+            LocalDate day = LocalDate.parse(scanner.nextLine().trim(), Appointment.DATE_FORMAT);
+            List<Appointment> schedule = service.getVeterinarianDay(veterinarian, day);
+            if (schedule.isEmpty()) {
+                System.out.println(veterinarian.getName() + " has no appointments on " + day.format(Appointment.DATE_FORMAT) + ".");
+                return;
+            }
+            System.out.println("Appointments for " + veterinarian.getName() + " on " + day.format(Appointment.DATE_FORMAT) + ":");
+            for (Appointment appointment : schedule) {
+                System.out.println(appointment);
+            }
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date format. Please use dd/MM/yyyy.");
+        }
+    }
 
-        System.out.println("Successfully loaded " + successfulLoads + " pets.");
-        System.out.println("Failed to load " + failedLoads + " pets.");
-        System.out.println("Total pets after loading: " + pets.size());
+    // Counts and latency percentiles since start-up; the HTTP API serves the same in Prometheus format at /metrics.
+    public void viewMetrics() {
+        System.out.print(service.getMetrics().formatTable());
     }
 
     public void displayMenu() {
@@ -952,13 +1209,27 @@ public class PetClinicManagementSystem {
         System.out.println("10. View Appointments");
         System.out.println("11. Search Appointments");
         System.out.println("12. Save & Exit");
+        System.out.println("13. Bulk Import Pets");
+        System.out.println("14. View Pets by Owner");
+        System.out.println("15. View Veterinarian Schedule");
+        System.out.println("16. Book Recurring Appointments");
+        System.out.println("17. Find Appointments");
+        System.out.println("18. View Operation Metrics");
+        System.out.println("19. Delete Owner and Their Pets");
+        System.out.println("20. Search Archived Appointments");
         System.out.print("Choose an option: ");
     }
 
     public static void main(String[] args) {
         PetClinicManagementSystem system = new PetClinicManagementSystem();
-        system.loadData();
-        system.loadAppointments();
+        boolean loadedFromSnapshot = system.loadSnapshot();
+        if (!loadedFromSnapshot) {
+            system.loadData();
+            system.loadAppointments();
+        }
+        system.openJournal(loadedFromSnapshot);
+        system.archiveAppointments();
+        ClinicHttpServer httpServer = system.startHttpServer(args);
 
         while (true) {
             system.displayMenu();
@@ -979,16 +1250,32 @@ public class PetClinicManagementSystem {
                     case 10: system.viewAppointments(); break;
                     case 11: system.searchAppointments(); break;
                     case 12:
+                        system.archiveAppointments();
                         system.saveData();
                         system.saveAppointments();
+                        system.checkpoint();
+                        if (httpServer != null) {
+                            httpServer.stop();
+                        }
+                        system.closeJournal();
                         System.out.println("Exiting the system...");
                         System.exit(0);
                         break;
+                    case 13: system.bulkImportPets(); break;
+                    case 14: system.viewOwnerPets(); break;
+                    case 15: system.viewVeterinarianSchedule(); break;
+                    case 16: system.addRecurringAppointments(); break;
+                    case 17: system.findAppointments(); break;
+                    case 18: system.viewMetrics(); break;
+                    case 19: system.deleteOwner(); break;
+                    case 20: system.searchArchivedAppointments(); break;
                     default:
                         System.out.println("Invalid choice. Please try again.");
                 }
             } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a number between 1 and 12.");
+                System.out.println("Invalid input. Please enter a number between 1 and 20.");
+            } catch (UncheckedIOException e) {
+                System.out.println("Error saving changes: " + e.getMessage());
             }
         }
     }
@@ -0,0 +1,46 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+public class PetIndex {
+    private static final Comparator<Pet> BY_ID = Comparator.comparingLong(Pet::getId);
+
+    private final Map<String, Set<Pet>> byName = new ConcurrentHashMap<>();
+
+    public void add(Pet pet) {
+        put(byName, pet.getName(), pet);
+    }
+
+    public void remove(Pet pet) {
+        delete(byName, pet.getName(), pet);
+    }
+
+    public void clear() {
+        byName.clear();
+    }
+
+    public Set<Pet> findByName(String name) {
+        return lookup(byName, name);
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    private static void put(Map<String, Set<Pet>> map, String value, Pet pet) {
+        map.computeIfAbsent(key(value), k -> new ConcurrentSkipListSet<>(BY_ID)).add(pet);
+    }
+
+    private static void delete(Map<String, Set<Pet>> map, String value, Pet pet) {
+        String key = key(value);
+        Set<Pet> matches = map.get(key);
+        if (matches != null && matches.remove(pet) && matches.isEmpty()) {
+            map.remove(key, matches);
+        }
+    }
+
+    private static Set<Pet> lookup(Map<String, Set<Pet>> map, String value) {
+        Set<Pet> matches = map.get(key(value));
+        return matches == null ? Collections.emptySet() : Collections.unmodifiableSet(matches);
+    }
+}
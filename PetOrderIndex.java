@@ -0,0 +1,96 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Pets sorted by name and by owner then name, for paging through the whole clinic. A query seeks past its
+// cursor and reads one page, so a page costs O(log n + page size) however many pets there are. Sort keys
+// must not change while a pet is indexed: callers remove it, change it, and add it back.
+public class PetOrderIndex {
+    private final Map<PetQuery.Order, NavigableMap<SortKey, Pet>> byOrder = new EnumMap<>(PetQuery.Order.class);
+
+    public PetOrderIndex() {
+        for (PetQuery.Order order : PetQuery.Order.values()) {
+            byOrder.put(order, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    public void add(Pet pet) {
+        for (Map.Entry<PetQuery.Order, NavigableMap<SortKey, Pet>> sorted : byOrder.entrySet()) {
+            sorted.getValue().put(SortKey.of(sorted.getKey(), pet), pet);
+        }
+    }
+
+    public void remove(Pet pet) {
+        for (Map.Entry<PetQuery.Order, NavigableMap<SortKey, Pet>> sorted : byOrder.entrySet()) {
+            sorted.getValue().remove(SortKey.of(sorted.getKey(), pet));
+        }
+    }
+
+    public void clear() {
+        byOrder.values().forEach(Map::clear);
+    }
+
+    public PetPage query(PetQuery query) {
+        NavigableMap<SortKey, Pet> sorted = byOrder.get(query.getOrder());
+        if (query.getAfterFirst() != null) {
+            if (query.getAfterOrder() != query.getOrder()) {
+                throw new IllegalArgumentException("That page cursor belongs to a listing in another order");
+            }
+            sorted = sorted.tailMap(new SortKey(query.getAfterFirst(), query.getAfterSecond(), query.getAfterId()), false);
+        }
+
+        List<Pet> page = new ArrayList<>(Math.min(query.getLimit(), 256));
+        Iterator<Map.Entry<SortKey, Pet>> entries = sorted.entrySet().iterator();
+        while (entries.hasNext() && page.size() < query.getLimit()) {
+            page.add(entries.next().getValue());
+        }
+        if (!entries.hasNext()) {
+            return new PetPage(page, null);
+        }
+        SortKey last = SortKey.of(query.getOrder(), page.get(page.size() - 1));
+        return new PetPage(page, PetQuery.cursorOf(query.getOrder(), last.first, last.second, last.id));
+    }
+
+    // Compared ignoring case first so "bella" sits next to "Bella", then exactly, then by id, which makes
+    // the order total and stable.
+    private static final class SortKey implements Comparable<SortKey> {
+        private final String first;
+        private final String second;
+        private final long id;
+
+        SortKey(String first, String second, long id) {
+            this.first = first;
+            this.second = second;
+            this.id = id;
+        }
+
+        static SortKey of(PetQuery.Order order, Pet pet) {
+            return order == PetQuery.Order.OWNER
+                    ? new SortKey(pet.getOwner().getName(), pet.getName(), pet.getId())
+                    : new SortKey(pet.getName(), "", pet.getId());
+        }
+
+        @Override
+        public int compareTo(SortKey other) {
+            int order = compareText(first, other.first);
+            if (order == 0) {
+                order = compareText(second, other.second);
+            }
+            return order != 0 ? order : Long.compare(id, other.id);
+        }
+
+        private static int compareText(String a, String b) {
+            int order = String.CASE_INSENSITIVE_ORDER.compare(a, b);
+            return order != 0 ? order : a.compareTo(b);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SortKey && compareTo((SortKey) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(first, second, id);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+import java.util.List;
+
+public class PetPage {
+    private final List<Pet> pets;
+    private final String nextCursor;
+
+    PetPage(List<Pet> pets, String nextCursor) {
+        this.pets = pets;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Pet> getPets() {
+        return pets;
+    }
+
+    // Null on the last page.
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
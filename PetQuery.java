@@ -0,0 +1,89 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+// Options for ClinicService.findPets. Pets come in the chosen order with ties broken by id, so the order is
+// stable from one page to the next. A page ends with a cursor that is passed back through after().
+public class PetQuery {
+    public static final int DEFAULT_LIMIT = 20;
+
+    public enum Order {
+        NAME, OWNER
+    }
+
+    private Order order = Order.NAME;
+    private Order afterOrder;
+    private String afterFirst;
+    private String afterSecond;
+    private long afterId;
+    private int limit = DEFAULT_LIMIT;
+
+    public PetQuery orderBy(Order order) {
+        this.order = order == null ? Order.NAME : order;
+        return this;
+    }
+
+    public PetQuery limit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    // The cursor carries the last pet's sort key rather than just its id, so paging carries on from the
+    // right place even if that pet has since been renamed or deleted.
+    public PetQuery after(String cursor) {
+        if (cursor == null) {
+            afterFirst = null;
+            return this;
+        }
+        try {
+            String[] parts = cursor.split("\\.", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            Order cursorOrder = Order.valueOf(parts[0].toUpperCase(Locale.ROOT));
+            String key = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            int separator = key.indexOf('\0');
+            afterId = Long.parseLong(parts[2]);
+            afterFirst = key.substring(0, separator);
+            afterSecond = key.substring(separator + 1);
+            afterOrder = cursorOrder;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor '" + cursor + "'");
+        }
+        return this;
+    }
+
+    static String cursorOf(Order order, String first, String second, long id) {
+        String key = first + '\0' + second;
+        return order.name().toLowerCase(Locale.ROOT) + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(key.getBytes(StandardCharsets.UTF_8)) + "." + id;
+    }
+
+    Order getOrder() {
+        return order;
+    }
+
+    // The order the cursor was issued for; a cursor only makes sense in that order.
+    Order getAfterOrder() {
+        return afterOrder;
+    }
+
+    String getAfterFirst() {
+        return afterFirst;
+    }
+
+    String getAfterSecond() {
+        return afterSecond;
+    }
+
+    long getAfterId() {
+        return afterId;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+}
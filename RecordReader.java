@@ -0,0 +1,285 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+public class RecordReader implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIELDS = 32;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private final Reader reader;
+    private char[] buffer;
+    private int position;
+    private int limit;
+    private int lineStart;
+    private int lineEnd;
+    private int lineNumber;
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private int fieldCount;
+
+    public RecordReader(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[DEFAULT_BUFFER_SIZE];
+    }
+
+    public RecordReader(char[] data, int length) {
+        this.reader = null;
+        this.buffer = data;
+        this.limit = length;
+    }
+
+    public boolean next() throws IOException {
+        while (true) {
+            int newline = findNewline();
+            if (newline < 0) {
+                return false;
+            }
+            lineNumber++;
+            lineStart = position;
+            lineEnd = newline;
+            position = Math.min(newline + 1, limit);
+            if (lineEnd > lineStart && buffer[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                tokenize();
+                return true;
+            }
+        }
+    }
+
+    private int findNewline() throws IOException {
+        int scan = position;
+        while (true) {
+            for (; scan < limit; scan++) {
+                if (buffer[scan] == '\n') {
+                    return scan;
+                }
+            }
+            int consumed = position;
+            if (!fill()) {
+                return position < limit ? limit : -1;
+            }
+            scan -= consumed;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (reader == null) {
+            return false;
+        }
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        } else if (remaining == buffer.length) {
+            char[] larger = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, larger, 0, remaining);
+            buffer = larger;
+        }
+        position = 0;
+        limit = remaining;
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private void tokenize() {
+        fieldCount = 0;
+        int start = lineStart;
+        for (int i = lineStart; i < lineEnd - 1 && fieldCount < MAX_FIELDS - 1; i++) {
+            if (buffer[i] == ',' && buffer[i + 1] == ' ') {
+                fieldStart[fieldCount] = start;
+                fieldEnd[fieldCount] = i;
+                fieldCount++;
+                start = i + 2;
+                i++;
+            }
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = lineEnd;
+        fieldCount++;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public String getLine() {
+        return new String(buffer, lineStart, lineEnd - lineStart);
+    }
+
+    public String getField(int field) {
+        return new String(buffer, fieldStart[field], fieldEnd[field] - fieldStart[field]);
+    }
+
+    public String getFields(int first, int last) {
+        return new String(buffer, fieldStart[first], fieldEnd[last] - fieldStart[first]);
+    }
+
+    public boolean fieldEquals(int field, String value) {
+        int length = fieldEnd[field] - fieldStart[field];
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[fieldStart[field] + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getSubField(int field, char separator, int part) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        int split = -1;
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == separator) {
+                split = i;
+                break;
+            }
+        }
+        if (split < 0) {
+            return null;
+        }
+        return part == 0 ? trimmed(start, split) : trimmed(split + 1, end);
+    }
+
+    private String trimmed(int start, int end) {
+        while (start < end && buffer[start] == ' ') {
+            start++;
+        }
+        while (end > start && buffer[end - 1] == ' ') {
+            end--;
+        }
+        return new String(buffer, start, end - start);
+    }
+
+    public int getInt(int field, int invalid) {
+        int i = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 9) {
+            return invalid;
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            char c = buffer[i];
+            if (c < '0' || c > '9') {
+                return invalid;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    public double getDouble(int field, double invalid) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = buffer[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return invalid;
+        }
+        if (i == end && digits <= 15) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+
+        // Exponents and very long mantissas are rare; validate the shape so parseDouble cannot throw.
+        if (i < end && (buffer[i] == 'e' || buffer[i] == 'E')) {
+            i++;
+            if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            for (; i < end && buffer[i] >= '0' && buffer[i] <= '9'; i++) {
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return invalid;
+            }
+        }
+        if (i != end) {
+            return invalid;
+        }
+        return Double.parseDouble(new String(buffer, start, end - start));
+    }
+
+    public LocalDateTime getDateTime(int field) {
+        int start = fieldStart[field];
+        if (fieldEnd[field] - start != 16 || buffer[start + 2] != ':' || buffer[start + 5] != ' ' ||
+                buffer[start + 8] != '/' || buffer[start + 11] != '/') {
+            return null;
+        }
+        int hour = digits(start, 2);
+        int minute = digits(start + 3, 2);
+        int day = digits(start + 6, 2);
+        int month = digits(start + 9, 2);
+        int year = digits(start + 12, 4);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || month < 1 || month > 12 || year < 0 || day < 1 ||
+                day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = buffer[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+// A course of appointments at the same time of day: the first one, then one every interval, count in all.
+public class RecurrenceRule {
+    public static final int MAX_OCCURRENCES = 10_000;
+
+    private final LocalDateTime first;
+    private final Period interval;
+    private final int count;
+
+    public RecurrenceRule(LocalDateTime first, Period interval, int count) {
+        if (first == null) {
+            throw new IllegalArgumentException("First appointment date and time cannot be null");
+        }
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Repeat interval must be positive");
+        }
+        if (count < 1 || count > MAX_OCCURRENCES) {
+            throw new IllegalArgumentException("Number of appointments must be between 1 and " + MAX_OCCURRENCES);
+        }
+        this.first = first;
+        this.interval = interval;
+        this.count = count;
+    }
+
+    public static RecurrenceRule everyDays(LocalDateTime first, int days, int count) {
+        return new RecurrenceRule(first, Period.ofDays(days), count);
+    }
+
+    public List<LocalDateTime> occurrences() {
+        List<LocalDateTime> occurrences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            occurrences.add(first.plus(interval.multipliedBy(i)));
+        }
+        return occurrences;
+    }
+
+    public List<Appointment> expand(Pet pet, String reason, String veterinarian, Integer duration) {
+        List<Appointment> appointments = new ArrayList<>(count);
+        for (LocalDateTime dateTime : occurrences()) {
+            appointments.add(new Appointment(pet, dateTime, reason, veterinarian, duration));
+        }
+        return appointments;
+    }
+
+    public LocalDateTime getFirst() {
+        return first;
+    }
+
+    public Period getInterval() {
+        return interval;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
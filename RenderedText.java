@@ -0,0 +1,22 @@
+// A string rendered from a model object, kept with the versions of everything it was built from: the
+// object itself and, where the text mentions them, its pet and owner. Setters bump their object's version
+// after changing it, so a copy rendered before a change, even one racing the setter, stops matching and is
+// rebuilt on the next call. Instances are immutable, so swapping one into a plain field is safe.
+final class RenderedText {
+    private final String text;
+    private final int version;
+    private final int petVersion;
+    private final int ownerVersion;
+
+    RenderedText(String text, int version, int petVersion, int ownerVersion) {
+        this.text = text;
+        this.version = version;
+        this.petVersion = petVersion;
+        this.ownerVersion = ownerVersion;
+    }
+
+    static String get(RenderedText cached, int version, int petVersion, int ownerVersion) {
+        return cached != null && cached.version == version && cached.petVersion == petVersion
+                && cached.ownerVersion == ownerVersion ? cached.text : null;
+    }
+}
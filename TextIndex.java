@@ -0,0 +1,435 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Word search over a few text fields per item. Each distinct word is stored once, in sorted order, with
+// the items that contain it per field. Words are also filed under their trigrams, so a substring query only
+// checks words holding every trigram of it, and under each spelling with one letter dropped, so a query
+// one typo away (a letter added, dropped, changed or two swapped) finds them by looking up its own
+// spellings with one letter dropped. Results are ranked by how the word matched (exact, prefix, substring,
+// then one typo), then by field, earlier fields first, and the search stops once the limit is filled.
+public class TextIndex<T> {
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int SUBSTRING = 2;
+    private static final int FUZZY = 3;
+
+    private final int fieldCount;
+    private final Comparator<T> order;
+    private final Map<String, Term<T>> dictionary = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Term<T>> terms = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> deletions = new ConcurrentHashMap<>();
+    // The words each item was indexed under, field after field with a null between fields.
+    private final Map<T, String[]> indexed = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[64];
+
+    public TextIndex(int fieldCount, Comparator<T> order) {
+        this.fieldCount = fieldCount;
+        this.order = order;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    // Indexes the item under the given field texts, replacing whatever it was indexed under before. Writes
+    // for one item are serialized by its stripe; words stay in the dictionary once seen, so writers for
+    // different items never need to agree on when a word can be dropped.
+    public void index(T item, String... fields) {
+        if (fields.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " fields, got " + fields.length);
+        }
+        List<String> words = new ArrayList<>();
+        for (int field = 0; field < fieldCount; field++) {
+            if (field > 0) {
+                words.add(null);
+            }
+            Collections.addAll(words, tokenize(fields[field]));
+        }
+        String[] flat = words.toArray(new String[0]);
+        synchronized (stripe(item)) {
+            unindex(item);
+            int field = 0;
+            for (int i = 0; i < flat.length; i++) {
+                if (flat[i] == null) {
+                    field++;
+                } else {
+                    Term<T> term = term(flat[i]);
+                    term.add(field, item, order);
+                    flat[i] = term.word;
+                }
+            }
+            indexed.put(item, flat);
+        }
+    }
+
+    public void remove(T item) {
+        synchronized (stripe(item)) {
+            unindex(item);
+        }
+    }
+
+    private void unindex(T item) {
+        String[] words = indexed.remove(item);
+        if (words == null) {
+            return;
+        }
+        int field = 0;
+        for (String word : words) {
+            if (word == null) {
+                field++;
+            } else {
+                dictionary.get(word).remove(field, item);
+            }
+        }
+    }
+
+    // Exact lookups go through the hash dictionary; the sorted copy of it is only walked for prefixes.
+    private Term<T> term(String word) {
+        Term<T> term = dictionary.get(word);
+        if (term != null) {
+            return term;
+        }
+        Term<T> created = new Term<>(word, fieldCount);
+        term = dictionary.putIfAbsent(word, created);
+        if (term != null) {
+            return term;
+        }
+        terms.put(word, created);
+        for (String trigram : trigrams(word)) {
+            trigrams.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(word);
+        }
+        for (String deletion : deletions(word)) {
+            deletions.computeIfAbsent(deletion, d -> ConcurrentHashMap.newKeySet()).add(word);
+        }
+        return created;
+    }
+
+    private Object stripe(T item) {
+        return stripes[item.hashCode() & (stripes.length - 1)];
+    }
+
+    // Only safe while nothing else is writing; the service clears under its exclusive lock.
+    public void clear() {
+        dictionary.clear();
+        terms.clear();
+        trigrams.clear();
+        deletions.clear();
+        indexed.clear();
+    }
+
+    // Every word of the query must match some word of the item. The longest query word drives the search
+    // through the index and sets the ranking; the others are checked against the words each of those items
+    // was indexed under.
+    public List<T> search(String query, int limit) {
+        String[] words = tokenize(query);
+        if (words.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String driver = words[0];
+        for (String word : words) {
+            if (word.length() > driver.length()) {
+                driver = word;
+            }
+        }
+        Map<String, Set<String>> others = new LinkedHashMap<>();
+        for (String word : words) {
+            if (!word.equals(driver)) {
+                Set<String> loose = new HashSet<>(substringMatches(word));
+                loose.addAll(fuzzyMatches(word));
+                String next = terms.ceilingKey(word);
+                if (loose.isEmpty() && (next == null || !next.startsWith(word))) {
+                    return Collections.emptyList();
+                }
+                others.put(word, loose);
+            }
+        }
+
+        Set<T> results = new LinkedHashSet<>();
+        for (int quality = EXACT; quality <= FUZZY && results.size() < limit; quality++) {
+            Collection<Term<T>> matched = matches(driver, quality);
+            for (int field = 0; field < fieldCount && results.size() < limit; field++) {
+                for (Term<T> term : matched) {
+                    Collection<T> items = term.items(field);
+                    if (items == null) {
+                        continue;
+                    }
+                    for (T item : items) {
+                        if (results.size() >= limit) {
+                            break;
+                        }
+                        if (!results.contains(item) && matchesAll(item, others)) {
+                            results.add(item);
+                        }
+                    }
+                    if (results.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    // The terms matching word at exactly this quality, best first; prefix matches are read lazily.
+    private Collection<Term<T>> matches(String word, int quality) {
+        switch (quality) {
+            case EXACT: {
+                Term<T> term = dictionary.get(word);
+                return term == null ? Collections.emptyList() : Collections.singletonList(term);
+            }
+            case PREFIX:
+                return terms.subMap(word, false, word + Character.MAX_VALUE, false).values();
+            case SUBSTRING:
+                return toTerms(substringMatches(word));
+            default:
+                return toTerms(fuzzyMatches(word));
+        }
+    }
+
+    // Words containing word other than at their start, in order.
+    private List<String> substringMatches(String word) {
+        if (word.length() < 3) {
+            return Collections.emptyList();
+        }
+        Set<String> smallest = null;
+        List<Set<String>> others = new ArrayList<>();
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            Set<String> candidates = trigrams.get(word.substring(i, i + 3));
+            if (candidates == null) {
+                return Collections.emptyList();
+            }
+            if (smallest == null || candidates.size() < smallest.size()) {
+                if (smallest != null) {
+                    others.add(smallest);
+                }
+                smallest = candidates;
+            } else {
+                others.add(candidates);
+            }
+        }
+        List<String> found = new ArrayList<>();
+        for (String candidate : smallest) {
+            if (candidate.contains(word) && !candidate.startsWith(word) && containsAll(others, candidate)) {
+                found.add(candidate);
+            }
+        }
+        Collections.sort(found);
+        return found;
+    }
+
+    private static boolean containsAll(List<Set<String>> sets, String value) {
+        for (Set<String> set : sets) {
+            if (!set.contains(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Words one typo away from word that do not contain it, in order. Dropping the same letter from both
+    // spellings lines up a changed letter, and dropping either of two swapped letters lines those up.
+    private List<String> fuzzyMatches(String word) {
+        if (word.length() < 4) {
+            return Collections.emptyList();
+        }
+        Set<String> candidates = new HashSet<>();
+        Set<String> inserted = deletions.get(word);
+        if (inserted != null) {
+            candidates.addAll(inserted);
+        }
+        for (String deletion : deletions(word)) {
+            if (dictionary.containsKey(deletion)) {
+                candidates.add(deletion);
+            }
+            Set<String> changed = deletions.get(deletion);
+            if (changed != null) {
+                candidates.addAll(changed);
+            }
+        }
+        List<String> found = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (!candidate.contains(word) && isOneTypoApart(word, candidate)) {
+                found.add(candidate);
+            }
+        }
+        Collections.sort(found);
+        return found;
+    }
+
+    private List<Term<T>> toTerms(List<String> words) {
+        List<Term<T>> found = new ArrayList<>(words.size());
+        for (String word : words) {
+            Term<T> term = dictionary.get(word);
+            if (term != null) {
+                found.add(term);
+            }
+        }
+        return found;
+    }
+
+    private boolean matchesAll(T item, Map<String, Set<String>> others) {
+        if (others.isEmpty()) {
+            return true;
+        }
+        String[] itemWords = indexed.get(item);
+        if (itemWords == null) {
+            return false;
+        }
+        for (Map.Entry<String, Set<String>> other : others.entrySet()) {
+            if (!matchesAny(itemWords, other.getKey(), other.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesAny(String[] itemWords, String word, Set<String> loose) {
+        for (String candidate : itemWords) {
+            if (candidate != null && (candidate.startsWith(word) || loose.contains(candidate))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // One letter added, dropped or changed, or two neighbouring letters swapped.
+    static boolean isOneTypoApart(String a, String b) {
+        if (a.length() < b.length()) {
+            String shorter = a;
+            a = b;
+            b = shorter;
+        }
+        if (a.length() - b.length() > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (i == b.length()) {
+            return a.length() > b.length();
+        }
+        if (a.length() > b.length()) {
+            return a.regionMatches(i + 1, b, i, b.length() - i);
+        }
+        if (a.regionMatches(i + 1, b, i + 1, b.length() - i - 1)) {
+            return true;
+        }
+        return i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i) &&
+                a.regionMatches(i + 2, b, i + 2, b.length() - i - 2);
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        Set<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    // Words with digits in them, such as microchip or house numbers, are only matched from their start.
+    private static boolean isSpelled(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> trigrams(String word) {
+        if (word.length() < 3 || !isSpelled(word)) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            result.add(word.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    // The word with each of its letters dropped in turn, for words long enough to be matched with a typo.
+    private static Set<String> deletions(String word) {
+        if (word.length() < 4 || !isSpelled(word)) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < word.length(); i++) {
+            result.add(word.substring(0, i) + word.substring(i + 1));
+        }
+        return result;
+    }
+
+    // Items keep the term's copy of the word, so each distinct word is held once. Most words belong to a
+    // single item, so a field holds that item directly until a second one arrives and it becomes a set.
+    private static final class Term<T> {
+        private final String word;
+        private final AtomicReferenceArray<Object> fields;
+
+        Term(String word, int fieldCount) {
+            this.word = word;
+            this.fields = new AtomicReferenceArray<>(fieldCount);
+        }
+
+        @SuppressWarnings("unchecked")
+        Collection<T> items(int field) {
+            Object items = fields.get(field);
+            if (items == null || items instanceof Set) {
+                return (Set<T>) items;
+            }
+            return Collections.singletonList((T) items);
+        }
+
+        @SuppressWarnings("unchecked")
+        void add(int field, T item, Comparator<T> order) {
+            while (true) {
+                Object items = fields.get(field);
+                if (items instanceof Set) {
+                    ((Set<T>) items).add(item);
+                    return;
+                }
+                if (items == null) {
+                    if (fields.compareAndSet(field, null, item)) {
+                        return;
+                    }
+                } else if (items.equals(item)) {
+                    return;
+                } else {
+                    Set<T> set = new ConcurrentSkipListSet<>(order);
+                    set.add((T) items);
+                    set.add(item);
+                    if (fields.compareAndSet(field, items, set)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void remove(int field, T item) {
+            while (true) {
+                Object items = fields.get(field);
+                if (items instanceof Set) {
+                    ((Set<T>) items).remove(item);
+                    return;
+                }
+                if (items == null || !items.equals(item) || fields.compareAndSet(field, items, null)) {
+                    return;
+                }
+            }
+        }
+    }
+}
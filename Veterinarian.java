@@ -0,0 +1,41 @@
+import java.util.Locale;
+
+// Vets are identified by name, ignoring case and spacing, so "Dr  Smith" and "dr smith" share a calendar.
+public class Veterinarian {
+    private final String name;
+    private final String key;
+
+    public Veterinarian(String name) {
+        this.name = ClinicValidation.veterinarianName(name).orThrow();
+        this.key = this.name.toLowerCase(Locale.ROOT);
+    }
+
+    public static String normalizeName(String name) {
+        return ClinicValidation.collapseWhitespace(name).toLowerCase(Locale.ROOT);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return key.equals(((Veterinarian) o).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+}
@@ -0,0 +1,31 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class VeterinarianRegistry {
+    private static final Comparator<Veterinarian> BY_NAME = Comparator.comparing(Veterinarian::getKey);
+
+    private final Map<String, Veterinarian> byName = new ConcurrentHashMap<>();
+
+    public Veterinarian intern(Veterinarian veterinarian) {
+        Veterinarian existing = byName.putIfAbsent(veterinarian.getKey(), veterinarian);
+        return existing != null ? existing : veterinarian;
+    }
+
+    public Veterinarian find(String name) {
+        return name == null ? null : byName.get(Veterinarian.normalizeName(name));
+    }
+
+    public List<Veterinarian> getVeterinarians() {
+        List<Veterinarian> veterinarians = new ArrayList<>(byName.values());
+        veterinarians.sort(BY_NAME);
+        return veterinarians;
+    }
+
+    public int size() {
+        return byName.size();
+    }
+
+    public void clear() {
+        byName.clear();
+    }
+}
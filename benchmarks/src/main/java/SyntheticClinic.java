@@ -0,0 +1,122 @@
+import clinic.benchmarks.ClinicWorkload;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// The clinic behind the JMH benchmarks, driven through the same service calls the menu makes.
+public class SyntheticClinic implements ClinicWorkload {
+    private static final int PROBES = 1024;
+
+    private final ClinicService service = new ClinicService(Paths.get("SyntheticClinic.dat"), Paths.get("SyntheticClinic.log"));
+    private final LocalDateTime[] slotProbes = new LocalDateTime[PROBES];
+    private final Veterinarian[] vetProbes = new Veterinarian[PROBES];
+    private final Pet[] petProbes = new Pet[PROBES];
+    private final String[] petQueries = new String[PROBES];
+    private final String[] appointmentQueries = new String[PROBES];
+
+    @Override
+    public void build(int count, long seed) {
+        ClinicDataGenerator generator = new ClinicDataGenerator(seed, count, count / 2);
+        List<Pet> pets = generator.populate(service);
+        int booked = generator.getAppointmentCount();
+        List<String> vets = generator.getVeterinarians();
+
+        // Half the conflict probes land on a booked slot, half on slots after the last booking.
+        Random random = new Random(seed);
+        for (int i = 0; i < PROBES; i++) {
+            int slot = i % 2 == 0 && booked > 0 ? random.nextInt(booked) : booked + random.nextInt(10_000);
+            slotProbes[i] = generator.startOf(slot);
+            vetProbes[i] = service.findVeterinarian(vets.get(random.nextInt(vets.size())));
+            petProbes[i] = pets.get(random.nextInt(count));
+        }
+        for (int i = 0; i < PROBES; i++) {
+            Pet sample = pets.get(random.nextInt(count));
+            String name = sample.getName();
+            switch (i % 5) {
+                case 0: petQueries[i] = name; break;
+                case 1: petQueries[i] = name.substring(0, 3); break;
+                case 2: petQueries[i] = name.substring(1, Math.min(5, name.length())); break;
+                case 3: petQueries[i] = name.charAt(0) + name.substring(2, 3) + name.charAt(1) + name.substring(3); break;
+                default: petQueries[i] = sample.getOwner().getName().split(" ")[1] + " " + name.substring(0, 4);
+            }
+            switch (i % 4) {
+                case 0: appointmentQueries[i] = ClinicDataGenerator.REASONS[random.nextInt(
+                        ClinicDataGenerator.REASONS.length)].split(" ")[0]; break;
+                case 1: appointmentQueries[i] = "alergy"; break;
+                case 2: appointmentQueries[i] = vets.get(random.nextInt(vets.size())); break;
+                default: appointmentQueries[i] = booked > 0 ? pets.get(generator.petOf(random.nextInt(booked))).getName() : name;
+            }
+        }
+    }
+
+    @Override
+    public boolean isAppointmentConflict(int probe) {
+        int i = probe & (PROBES - 1);
+        return service.findConflict(slotProbes[i], Appointment.DEFAULT_DURATION, vetProbes[i], petProbes[i], null) != null;
+    }
+
+    // The earliest free hour with the probe's vet from the probe's slot on, searching at most a month ahead.
+    @Override
+    public int findFreeSlots(int probe) {
+        int i = probe & (PROBES - 1);
+        return service.findFreeSlots(60, slotProbes[i], slotProbes[i].toLocalDate().plusDays(30), 1, vetProbes[i], null).size();
+    }
+
+    @Override
+    public int searchPet(int probe) {
+        return service.searchPets(petQueries[probe & (PROBES - 1)], PetClinicManagementSystem.SEARCH_RESULTS).size();
+    }
+
+    @Override
+    public int searchAppointments(int probe) {
+        return service.searchAppointments(appointmentQueries[probe & (PROBES - 1)],
+                PetClinicManagementSystem.SEARCH_RESULTS).size();
+    }
+
+    @Override
+    public Object generateReport() {
+        return service.buildReport();
+    }
+
+    @Override
+    public int saveData(Path file) throws IOException {
+        return service.savePets(new FileWriter(file.toFile()));
+    }
+
+    @Override
+    public int saveAppointments(Path file) throws IOException {
+        return service.saveAppointments(new FileWriter(file.toFile()));
+    }
+
+    // Like the menu's loads, these replace what the clinic holds with the file's contents.
+    @Override
+    public int loadData(Path file) throws IOException {
+        service.clearPets();
+        return service.loadPets(new FileReader(file.toFile())).getLoaded();
+    }
+
+    @Override
+    public int loadAppointments(Path file) throws IOException {
+        service.clearAppointments();
+        return service.loadAppointments(new FileReader(file.toFile())).getLoaded();
+    }
+
+    @Override
+    public int saveSnapshot(Path file) throws IOException {
+        ClinicSnapshot.write(file, service.getPets(), service.getAppointments());
+        return service.getPets().size();
+    }
+
+    // Reads the snapshot and replaces what the clinic holds with it, as startup does.
+    @Override
+    public int loadSnapshot(Path file) throws IOException {
+        ClinicSnapshot snapshot = ClinicSnapshot.read(file);
+        service.restore(snapshot);
+        return snapshot.getPets().size();
+    }
+}
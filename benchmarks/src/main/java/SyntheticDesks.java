@@ -0,0 +1,104 @@
+import clinic.benchmarks.DeskWorkload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// The booking side of the desks behind the JMH benchmarks, driven through the same service calls the menu makes.
+public class SyntheticDesks implements DeskWorkload {
+    private static final int SLOTS_PER_DAY = 20;
+    private static final int VETERINARIANS = 20;
+    private static final int DAYS_PER_DESK = 1000;
+
+    private ClinicService service;
+    private List<Pet> pets;
+    private LocalDateTime firstSlot;
+
+    @Override
+    public void build(int count, long seed, Path journalDirectory) {
+        service = journalDirectory == null
+                ? new ClinicService(Paths.get("SyntheticDesks.dat"), Paths.get("SyntheticDesks.log"))
+                : new ClinicService(journalDirectory.resolve("ClinicSnapshot.dat"), journalDirectory.resolve("ClinicJournal.log"));
+        pets = new ClinicDataGenerator(seed, count, 0).populate(service);
+        firstSlot = LocalDate.now().plusDays(1).atTime(ClinicService.OPENING_TIME);
+        if (journalDirectory != null) {
+            try {
+                service.checkpoint();
+                service.openJournal();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Every twentieth pet moves to the next half hour and every four hundredth to the next day, so each
+    // vet sees each pet's course at its own time of the week.
+    @Override
+    public Object planCourses(int size) {
+        List<Appointment> appointments = new ArrayList<>(size);
+        int weeks = (size + pets.size() - 1) / pets.size();
+        for (int p = 0; appointments.size() < size; p++) {
+            LocalDateTime start = firstSlot.plusDays(p / (SLOTS_PER_DAY * VETERINARIANS) % 7)
+                    .plusMinutes(p / VETERINARIANS % SLOTS_PER_DAY * 30L);
+            appointments.addAll(RecurrenceRule.everyDays(start, 7, Math.min(weeks, size - appointments.size()))
+                    .expand(pets.get(p), "Physio", "Dr " + (char) ('A' + p % VETERINARIANS) + "lder", null));
+        }
+        return appointments;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int bookOneAtATime(Object courses) {
+        int booked = 0;
+        for (Appointment appointment : (List<Appointment>) courses) {
+            if (service.bookAppointment(appointment) == null) {
+                booked++;
+            }
+        }
+        return booked;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int bookAll(Object courses) {
+        List<Appointment> batch = (List<Appointment>) courses;
+        return service.bookAppointments(batch).isEmpty() ? batch.size() : 0;
+    }
+
+    @Override
+    public void clearBookings() throws IOException {
+        service.clearAppointments();
+        service.checkpoint();
+    }
+
+    @Override
+    public boolean bookOwnDay(int desk, int attempt) {
+        LocalDateTime slot = firstSlot.plusDays((long) desk * DAYS_PER_DESK + attempt / SLOTS_PER_DAY % DAYS_PER_DESK)
+                .plusMinutes(attempt % SLOTS_PER_DAY * 30L);
+        return bookAndFree(new Appointment(pets.get(attempt % pets.size()), slot, "Checkup", "Dr Smith", null));
+    }
+
+    @Override
+    public boolean bookSharedDay(int desk, int attempt) {
+        LocalDateTime slot = firstSlot.plusMinutes(attempt % SLOTS_PER_DAY * 30L);
+        return bookAndFree(new Appointment(pets.get(desk % pets.size()), slot, "Checkup", "Dr Smith", null));
+    }
+
+    private boolean bookAndFree(Appointment appointment) {
+        if (service.bookAppointment(appointment) != null) {
+            return false;
+        }
+        service.removeAppointment(appointment);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.closeJournal();
+    }
+}
@@ -0,0 +1,99 @@
+import clinic.benchmarks.FieldWorkload;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Drives the Owner and Appointment setters with generated values. The *WithRegex methods keep the
+// replaceAll and matches calls the setters made before ClinicValidation, as the baseline.
+public class SyntheticFields implements FieldWorkload {
+    private static final int PROBES = 1024;
+
+    private final String[] phoneProbes = new String[PROBES];
+    private final String[] badPhoneProbes = new String[PROBES];
+    private final String[] vetProbes = new String[PROBES];
+    private Owner owner;
+    private Appointment appointment;
+
+    @Override
+    public void build(long seed) {
+        ClinicDataGenerator generator = new ClinicDataGenerator(seed, PROBES, PROBES);
+        List<String> vets = generator.getVeterinarians();
+        Random random = new Random(seed);
+        for (int i = 0; i < PROBES; i++) {
+            String phone = ClinicDataGenerator.phoneNumber(random.nextInt(1_000_000));
+            phoneProbes[i] = i % 2 == 0 ? phone : Owner.normalizePhoneNumber(phone);
+            badPhoneProbes[i] = i % 2 == 0 ? phone.substring(0, phone.length() - 2) : "0" + phone.replace('+', '-');
+            String vet = vets.get(random.nextInt(vets.size()));
+            vetProbes[i] = i % 4 == 0 ? " " + vet.replace(" ", "  ") : vet;
+        }
+        owner = generator.owner(0);
+        appointment = new Appointment(generator.pet(0), LocalDateTime.now().plusYears(1), "Checkup", vets.get(0), null);
+    }
+
+    @Override
+    public String setPhoneNumber(int probe) {
+        owner.setPhoneNumber(phoneProbes[probe & (PROBES - 1)]);
+        return owner.getPhoneNumber();
+    }
+
+    @Override
+    public String setPhoneNumberWithRegex(int probe) {
+        return normalizePhoneNumberWithRegex(phoneProbes[probe & (PROBES - 1)]);
+    }
+
+    @Override
+    public String setVeterinarian(int probe) {
+        appointment.setVeterinarian(vetProbes[probe & (PROBES - 1)]);
+        return appointment.getVeterinarian().getName();
+    }
+
+    @Override
+    public String setVeterinarianWithRegex(int probe) {
+        return veterinarianKeyWithRegex(vetProbes[probe & (PROBES - 1)]);
+    }
+
+    @Override
+    public String rejectPhoneNumber(int probe) {
+        return ClinicValidation.phoneNumber(badPhoneProbes[probe & (PROBES - 1)]).getError();
+    }
+
+    @Override
+    public String rejectPhoneNumberByException(int probe) {
+        try {
+            return Owner.normalizePhoneNumber(badPhoneProbes[probe & (PROBES - 1)]);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String normalizePhoneNumberWithRegex(String phoneNumber) {
+        if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
+            throw new IllegalArgumentException("Phone number cannot be empty");
+        }
+        phoneNumber = phoneNumber.trim();
+        if (phoneNumber.contains("+") && !phoneNumber.startsWith("+")) {
+            throw new IllegalArgumentException("Invalid phone number: '+' can only be at the start");
+        }
+        String cleanedNumber = phoneNumber.startsWith("+")
+                ? "+" + phoneNumber.substring(1).replaceAll("[^0-9]", "")
+                : phoneNumber.replaceAll("[^0-9]", "");
+        if ((cleanedNumber.startsWith("+") && (cleanedNumber.length() < 12 || cleanedNumber.length() > 13)) ||
+                (cleanedNumber.startsWith("07") && cleanedNumber.length() != 11) ||
+                (!cleanedNumber.startsWith("+") && !cleanedNumber.startsWith("07") && cleanedNumber.length() != 10)) {
+            throw new IllegalArgumentException("Invalid phone number format");
+        }
+        return cleanedNumber;
+    }
+
+    private static String veterinarianKeyWithRegex(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Veterinarian name cannot be empty");
+        }
+        if (!name.matches("[a-zA-Z ]+")) {
+            throw new IllegalArgumentException("Veterinarian name cannot contain numbers");
+        }
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
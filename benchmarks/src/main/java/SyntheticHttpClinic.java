@@ -0,0 +1,54 @@
+import clinic.benchmarks.HttpWorkload;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// The clinic behind the HTTP benchmarks: the same service and server that --http starts.
+public class SyntheticHttpClinic implements HttpWorkload {
+    private static final int SLOTS_PER_DAY = 20;
+    private static final int DAYS_PER_CLIENT = 10_000;
+
+    private List<Pet> pets;
+    private LocalDateTime firstSlot;
+    private ClinicHttpServer server;
+
+    @Override
+    public void build(int count, long seed) throws IOException {
+        ClinicService service = new ClinicService(Paths.get("SyntheticHttpClinic.dat"), Paths.get("SyntheticHttpClinic.log"));
+        pets = new ClinicDataGenerator(seed, count, 0).populate(service);
+        firstSlot = LocalDate.now().plusDays(1).atTime(ClinicService.OPENING_TIME);
+        server = new ClinicHttpServer(service, 0);
+        server.start();
+    }
+
+    @Override
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getPort();
+    }
+
+    @Override
+    public boolean usesVirtualThreads() {
+        return server.usesVirtualThreads();
+    }
+
+    @Override
+    public long petId(int probe) {
+        return pets.get(Math.floorMod(probe, pets.size())).getId();
+    }
+
+    @Override
+    public String bookingBody(int client, int booking) {
+        LocalDateTime slot = firstSlot.plusDays((long) client * DAYS_PER_CLIENT + booking / SLOTS_PER_DAY % DAYS_PER_CLIENT)
+                .plusMinutes(booking % SLOTS_PER_DAY * 30L);
+        return "{\"petId\":" + petId(client * 7919 + booking) + ",\"dateTime\":\"" +
+                slot.format(Appointment.DATE_TIME_FORMAT) + "\",\"reason\":\"Checkup\",\"veterinarian\":\"Dr Smith\"}";
+    }
+
+    @Override
+    public void stop() {
+        server.stop();
+    }
+}
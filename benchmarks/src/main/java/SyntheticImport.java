@@ -0,0 +1,73 @@
+import clinic.benchmarks.ImportWorkload;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// The pet file behind the import benchmarks, parsed with the same RecordReader and ClinicTextFormat
+// path as Load Data and Bulk Import.
+public class SyntheticImport implements ImportWorkload {
+    private Path file;
+    private int rows;
+
+    @Override
+    public void build(int count, long seed, Path petFile) throws IOException {
+        file = petFile;
+        rows = count;
+        Path appointmentFile = Files.createTempFile("AppointmentDetails", ".txt");
+        try {
+            new ClinicDataGenerator(seed, count, 0).writeText(petFile, appointmentFile);
+        } finally {
+            Files.deleteIfExists(appointmentFile);
+        }
+    }
+
+    @Override
+    public int parseSequentially() throws IOException {
+        return parse(null).size();
+    }
+
+    @Override
+    public int importMapped() throws IOException {
+        return new BulkPetImporter().importPets(file).getPets().size();
+    }
+
+    @Override
+    public long retainedBytes(boolean shareOwners) throws IOException {
+        long baseline = usedHeap();
+        List<Pet> pets = parse(shareOwners ? new OwnerRegistry() : null);
+        long retained = usedHeap() - baseline;
+        if (pets.size() != rows) {
+            throw new IllegalStateException("Parsed " + pets.size() + " of " + rows + " pets");
+        }
+        return retained;
+    }
+
+    private List<Pet> parse(OwnerRegistry owners) throws IOException {
+        List<Pet> pets = new ArrayList<>(rows);
+        LoadReport report = new LoadReport();
+        try (RecordReader record = new RecordReader(new FileReader(file.toFile()))) {
+            while (record.next()) {
+                Pet pet = ClinicTextFormat.parsePet(record, report);
+                if (pet != null) {
+                    if (owners != null) {
+                        owners.addPet(pet);
+                    }
+                    pets.add(pet);
+                }
+            }
+        }
+        return pets;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,40 @@
+import clinic.benchmarks.JournalWorkload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+// The journal behind the JMH benchmarks, written to directly as the service does inside a change.
+public class SyntheticJournal implements JournalWorkload {
+    private Pet[] pets;
+    private ClinicJournal journal;
+
+    @Override
+    public void build(int count, long seed, Path file) {
+        ClinicDataGenerator generator = new ClinicDataGenerator(seed, count, 0);
+        pets = new Pet[count];
+        for (int i = 0; i < count; i++) {
+            pets[i] = generator.pet(i);
+        }
+        try {
+            journal = new ClinicJournal(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void recordAddPet(int probe) throws IOException {
+        journal.recordAddPet(pets[Math.floorMod(probe, pets.length)]);
+    }
+
+    @Override
+    public void truncate() throws IOException {
+        journal.truncate();
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
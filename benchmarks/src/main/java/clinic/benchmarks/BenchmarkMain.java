@@ -0,0 +1,40 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Takes the usual JMH options, but unless -rf or -rff is given the results also go to a timestamped
+// JSON file under results/, so every run leaves something to compare against.
+public class BenchmarkMain {
+    private static final Path RESULTS = Paths.get("results");
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions command = new CommandLineOptions(args);
+        if (command.shouldHelp()) {
+            command.showHelp();
+            return;
+        }
+        if (command.shouldList() || command.shouldListWithParams()) {
+            new Runner(command).list();
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(command);
+        if (!command.getResultFormat().hasValue() && !command.getResult().hasValue()) {
+            Files.createDirectories(RESULTS);
+            options.resultFormat(ResultFormatType.JSON)
+                    .result(RESULTS.resolve("jmh-" + LocalDateTime.now().format(STAMP) + ".json").toString());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,38 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class BookingBenchmark {
+    private int probe;
+
+    @Benchmark
+    public boolean isAppointmentConflict(ClinicState clinic) {
+        return clinic.workload.isAppointmentConflict(probe++);
+    }
+
+    @Benchmark
+    public int findFreeSlots(ClinicState clinic) {
+        return clinic.workload.findFreeSlots(probe++);
+    }
+
+    // Weekly courses with the journal open: one fsync wait per appointment against one record per batch.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int bookOneAtATime(CourseState course) {
+        return course.workload.bookOneAtATime(course.courses);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int bookAppointments(CourseState course) {
+        return course.workload.bookAll(course.courses);
+    }
+}
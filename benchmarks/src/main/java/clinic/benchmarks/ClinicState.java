@@ -0,0 +1,16 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+public class ClinicState {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int pets;
+
+    ClinicWorkload workload;
+
+    @Setup(Level.Trial)
+    public void build() {
+        workload = ClinicWorkload.create(pets, 42);
+    }
+}
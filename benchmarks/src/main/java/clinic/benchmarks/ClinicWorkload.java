@@ -0,0 +1,44 @@
+package clinic.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// The clinic classes live in the default package, which a named package cannot import, and JMH refuses
+// benchmarks in the default package. SyntheticClinic implements this from the default package instead.
+public interface ClinicWorkload {
+    static ClinicWorkload create(int pets, long seed) {
+        try {
+            ClinicWorkload workload = (ClinicWorkload) Class.forName("SyntheticClinic").getDeclaredConstructor().newInstance();
+            workload.build(pets, seed);
+            return workload;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the synthetic clinic", e);
+        }
+    }
+
+    // Fills the clinic with the given number of pets and half as many appointments.
+    void build(int pets, long seed);
+
+    // Each probe picks one of a fixed set of queries, so consecutive calls do not repeat the same one.
+    boolean isAppointmentConflict(int probe);
+
+    int findFreeSlots(int probe);
+
+    int searchPet(int probe);
+
+    int searchAppointments(int probe);
+
+    Object generateReport();
+
+    int saveData(Path file) throws IOException;
+
+    int saveAppointments(Path file) throws IOException;
+
+    int loadData(Path file) throws IOException;
+
+    int loadAppointments(Path file) throws IOException;
+
+    int saveSnapshot(Path file) throws IOException;
+
+    int loadSnapshot(Path file) throws IOException;
+}
@@ -0,0 +1,71 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Desks booking at once, each call one booking that is freed again so the diary stays the same size.
+// On separate days the desks take different day locks and should scale with cores; on a shared day they
+// queue for one lock and most attempts find the slot taken.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class ConcurrentBookingBenchmark {
+    private DeskWorkload workload;
+
+    @State(Scope.Thread)
+    public static class Desk {
+        int index;
+        int attempt;
+
+        @Setup(Level.Trial)
+        public void seat(ThreadParams thread) {
+            index = thread.getThreadIndex();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void build() {
+        workload = DeskWorkload.create(1_000, 42, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        workload.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean oneDesk(Desk desk) {
+        return workload.bookOwnDay(desk.index, desk.attempt++);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public boolean twoDesks(Desk desk) {
+        return workload.bookOwnDay(desk.index, desk.attempt++);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean fourDesks(Desk desk) {
+        return workload.bookOwnDay(desk.index, desk.attempt++);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean eightDesks(Desk desk) {
+        return workload.bookOwnDay(desk.index, desk.attempt++);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean eightDesksSharingADay(Desk desk) {
+        return workload.bookSharedDay(desk.index, desk.attempt++);
+    }
+}
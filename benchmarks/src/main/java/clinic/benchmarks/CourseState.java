@@ -0,0 +1,43 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// A journaled clinic of 2,000 pets and no bookings. Each invocation gets freshly planned courses and
+// the bookings are cleared after it, so every call books into an empty diary.
+@State(Scope.Benchmark)
+public class CourseState {
+    @Param({"1000", "10000"})
+    public int appointments;
+
+    DeskWorkload workload;
+    Object courses;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void build() throws IOException {
+        directory = Files.createTempDirectory("clinic-benchmark");
+        workload = DeskWorkload.create(2_000, 42, directory);
+    }
+
+    @Setup(Level.Invocation)
+    public void plan() {
+        courses = workload.planCourses(appointments);
+    }
+
+    @TearDown(Level.Invocation)
+    public void clear() throws IOException {
+        workload.clearBookings();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        workload.close();
+        Files.deleteIfExists(directory.resolve("ClinicSnapshot.dat"));
+        Files.deleteIfExists(directory.resolve("ClinicJournal.log"));
+        Files.deleteIfExists(directory);
+    }
+}
@@ -0,0 +1,39 @@
+package clinic.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Bookings as the desks make them, through the service and, when a directory is given, its journal.
+// Implemented from the default package by SyntheticDesks, like ClinicWorkload.
+public interface DeskWorkload {
+    static DeskWorkload create(int pets, long seed, Path journalDirectory) {
+        try {
+            DeskWorkload workload = (DeskWorkload) Class.forName("SyntheticDesks").getDeclaredConstructor().newInstance();
+            workload.build(pets, seed, journalDirectory);
+            return workload;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the synthetic desks", e);
+        }
+    }
+
+    // Registers the pets with no appointments and opens a journal in the directory unless it is null.
+    void build(int pets, long seed, Path journalDirectory);
+
+    // A fresh set of weekly courses, one per pet until the size is reached, none clashing with another.
+    Object planCourses(int size);
+
+    int bookOneAtATime(Object courses);
+
+    int bookAll(Object courses);
+
+    // Drops every booking and empties the journal, so the next courses book into an empty diary.
+    void clearBookings() throws IOException;
+
+    // Books one of the desk's own slots on a day no other desk uses and frees it again.
+    boolean bookOwnDay(int desk, int attempt);
+
+    // Tries one of a single day's slots that every desk wants, freeing it again when the desk gets it.
+    boolean bookSharedDay(int desk, int attempt);
+
+    void close() throws IOException;
+}
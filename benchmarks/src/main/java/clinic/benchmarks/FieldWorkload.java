@@ -0,0 +1,31 @@
+package clinic.benchmarks;
+
+// Field validation as the setters run it, next to the regex version they replaced. Like ClinicWorkload it
+// is implemented from the default package, by SyntheticFields.
+public interface FieldWorkload {
+    static FieldWorkload create(long seed) {
+        try {
+            FieldWorkload workload = (FieldWorkload) Class.forName("SyntheticFields").getDeclaredConstructor().newInstance();
+            workload.build(seed);
+            return workload;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the synthetic fields", e);
+        }
+    }
+
+    // Half the phone probes are typed with spaces and a country code, half are already clean.
+    void build(long seed);
+
+    String setPhoneNumber(int probe);
+
+    String setPhoneNumberWithRegex(int probe);
+
+    String setVeterinarian(int probe);
+
+    String setVeterinarianWithRegex(int probe);
+
+    // Invalid phone numbers, reported as a result and as the exception the setter throws.
+    String rejectPhoneNumber(int probe);
+
+    String rejectPhoneNumberByException(int probe);
+}
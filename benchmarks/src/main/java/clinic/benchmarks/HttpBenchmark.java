@@ -0,0 +1,90 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Requests per second from keep-alive HttpURLConnection clients against a server holding 10,000 pets,
+// in the same JVM. Reads fetch a random pet; the mix books an appointment on every tenth request.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class HttpBenchmark {
+    private HttpWorkload workload;
+
+    @State(Scope.Thread)
+    public static class Client {
+        int index;
+        int request;
+
+        @Setup(Level.Trial)
+        public void connect(ThreadParams thread) {
+            index = thread.getThreadIndex();
+            request = index * 7919;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        workload = HttpWorkload.create(10_000, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        workload.stop();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int readPets(Client client) {
+        return call("GET", "/pets/" + workload.petId(client.request++), null);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int readPetsAndBook(Client client) {
+        int request = client.request++;
+        if (request % 10 == 0) {
+            return call("POST", "/appointments", workload.bookingBody(client.index, request / 10));
+        }
+        return call("GET", "/pets/" + workload.petId(request), null);
+    }
+
+    // The body is read to the end so the connection goes back to the keep-alive cache. A repeated
+    // booking answers 409, which is still a served request.
+    private int call(String method, String path, String body) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(workload.getBaseUrl() + path).openConnection();
+            connection.setRequestMethod(method);
+            if (body != null) {
+                connection.setDoOutput(true);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (in != null) {
+                    in.readAllBytes();
+                }
+            }
+            if (status >= 400 && status != 409) {
+                throw new IllegalStateException(method + " " + path + " returned " + status);
+            }
+            return status;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package clinic.benchmarks;
+
+import java.io.IOException;
+
+// A clinic served over HTTP on a free local port. Implemented from the default package by
+// SyntheticHttpClinic, like ClinicWorkload.
+public interface HttpWorkload {
+    static HttpWorkload create(int pets, long seed) throws IOException {
+        try {
+            HttpWorkload workload = (HttpWorkload) Class.forName("SyntheticHttpClinic").getDeclaredConstructor().newInstance();
+            workload.build(pets, seed);
+            return workload;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the synthetic HTTP clinic", e);
+        }
+    }
+
+    // Registers the pets with no appointments and starts the server.
+    void build(int pets, long seed) throws IOException;
+
+    String getBaseUrl();
+
+    boolean usesVirtualThreads();
+
+    long petId(int probe);
+
+    // A POST /appointments body for a slot no other client books; it clashes only if the client repeats it.
+    String bookingBody(int client, int booking);
+
+    void stop();
+}
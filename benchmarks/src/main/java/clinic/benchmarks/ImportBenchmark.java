@@ -0,0 +1,44 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// A PetDetails file parsed line by line, as Load Data does, and split across cores by Bulk Import.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class ImportBenchmark {
+    @Param({"100000", "1000000"})
+    public int pets;
+
+    private Path file;
+    private ImportWorkload workload;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = Files.createTempFile("PetDetails", ".txt");
+        workload = ImportWorkload.create(pets, 42, file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int parseSequentially() throws IOException {
+        return workload.parseSequentially();
+    }
+
+    @Benchmark
+    public int importMapped() throws IOException {
+        return workload.importMapped();
+    }
+}
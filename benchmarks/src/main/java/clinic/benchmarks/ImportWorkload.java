@@ -0,0 +1,29 @@
+package clinic.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// A generated pet file read the ways the clinic reads one. Implemented from the default package by
+// SyntheticImport, like ClinicWorkload.
+public interface ImportWorkload {
+    static ImportWorkload create(int pets, long seed, Path file) throws IOException {
+        try {
+            ImportWorkload workload = (ImportWorkload) Class.forName("SyntheticImport").getDeclaredConstructor().newInstance();
+            workload.build(pets, seed, file);
+            return workload;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the synthetic import", e);
+        }
+    }
+
+    // Writes the pets to the file in the PetDetails format; households share a phone number.
+    void build(int pets, long seed, Path file) throws IOException;
+
+    int parseSequentially() throws IOException;
+
+    int importMapped() throws IOException;
+
+    // Parses the file and returns the heap the pets keep alive, with one Owner per household when
+    // shareOwners is set and one per pet otherwise.
+    long retainedBytes(boolean shareOwners) throws IOException;
+}
@@ -0,0 +1,61 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Durable ADD_PET records per second. Each call waits for its record to be forced, so one writer pays a
+// whole fsync per record while concurrent writers share the flusher's commits.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class JournalBenchmark {
+    private Path file;
+    private JournalWorkload workload;
+
+    @State(Scope.Thread)
+    public static class Writer {
+        int probe;
+    }
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        file = Files.createTempFile("ClinicJournal", ".log");
+        workload = JournalWorkload.create(20_000, 42, file);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws IOException {
+        workload.truncate();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        workload.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneWriter(Writer writer) throws IOException {
+        workload.recordAddPet(writer.probe++);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void fourWriters(Writer writer) throws IOException {
+        workload.recordAddPet(writer.probe++);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void sixteenWriters(Writer writer) throws IOException {
+        workload.recordAddPet(writer.probe++);
+    }
+}
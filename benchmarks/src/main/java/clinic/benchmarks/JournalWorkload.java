@@ -0,0 +1,26 @@
+package clinic.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Durable journal appends, each returning once its record has been forced to disk. Implemented from the
+// default package by SyntheticJournal, like ClinicWorkload.
+public interface JournalWorkload {
+    static JournalWorkload create(int pets, long seed, Path file) {
+        try {
+            JournalWorkload workload = (JournalWorkload) Class.forName("SyntheticJournal").getDeclaredConstructor().newInstance();
+            workload.build(pets, seed, file);
+            return workload;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the synthetic journal", e);
+        }
+    }
+
+    void build(int pets, long seed, Path file);
+
+    void recordAddPet(int probe) throws IOException;
+
+    void truncate() throws IOException;
+
+    void close() throws IOException;
+}
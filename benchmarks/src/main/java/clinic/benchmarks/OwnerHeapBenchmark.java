@@ -0,0 +1,51 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// The heap that parsed pets keep alive with one Owner per pet and with owners shared per household. The
+// score is only the time to parse and collect; read the retainedMegabytes counter next to it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class OwnerHeapBenchmark {
+    @Param({"300000"})
+    public int pets;
+
+    private Path file;
+    private ImportWorkload workload;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public double retainedMegabytes;
+    }
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = Files.createTempFile("PetDetails", ".txt");
+        workload = ImportWorkload.create(pets, 42, file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void ownerPerPet(Heap heap) throws IOException {
+        heap.retainedMegabytes = workload.retainedBytes(false) / 1e6;
+    }
+
+    @Benchmark
+    public void ownerPerHousehold(Heap heap) throws IOException {
+        heap.retainedMegabytes = workload.retainedBytes(true) / 1e6;
+    }
+}
@@ -0,0 +1,73 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Saves write to a scratch file and loads read files saved from the same clinic at setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class PersistenceBenchmark {
+    private Path directory;
+    private Path petFile;
+    private Path appointmentFile;
+    private Path snapshotFile;
+    private Path scratchFile;
+
+    @Setup(Level.Trial)
+    public void writeFiles(ClinicState clinic) throws IOException {
+        directory = Files.createTempDirectory("clinic-benchmark");
+        petFile = directory.resolve("PetDetails.txt");
+        appointmentFile = directory.resolve("AppointmentDetails.txt");
+        snapshotFile = directory.resolve("ClinicSnapshot.dat");
+        scratchFile = directory.resolve("scratch.txt");
+        clinic.workload.saveData(petFile);
+        clinic.workload.saveAppointments(appointmentFile);
+        clinic.workload.saveSnapshot(snapshotFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        for (Path file : new Path[] {petFile, appointmentFile, snapshotFile, scratchFile}) {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int saveData(ClinicState clinic) throws IOException {
+        return clinic.workload.saveData(scratchFile);
+    }
+
+    @Benchmark
+    public int saveAppointments(ClinicState clinic) throws IOException {
+        return clinic.workload.saveAppointments(scratchFile);
+    }
+
+    @Benchmark
+    public int loadData(ClinicState clinic) throws IOException {
+        return clinic.workload.loadData(petFile);
+    }
+
+    @Benchmark
+    public int loadAppointments(ClinicState clinic) throws IOException {
+        return clinic.workload.loadAppointments(appointmentFile);
+    }
+
+    @Benchmark
+    public int saveSnapshot(ClinicState clinic) throws IOException {
+        return clinic.workload.saveSnapshot(scratchFile);
+    }
+
+    @Benchmark
+    public int loadSnapshot(ClinicState clinic) throws IOException {
+        return clinic.workload.loadSnapshot(snapshotFile);
+    }
+}
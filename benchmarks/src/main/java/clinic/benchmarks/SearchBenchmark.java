@@ -0,0 +1,25 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class SearchBenchmark {
+    private int probe;
+
+    @Benchmark
+    public int searchPet(ClinicState clinic) {
+        return clinic.workload.searchPet(probe++);
+    }
+
+    @Benchmark
+    public int searchAppointments(ClinicState clinic) {
+        return clinic.workload.searchAppointments(probe++);
+    }
+}
@@ -0,0 +1,51 @@
+package clinic.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+    private FieldWorkload fields;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void build() {
+        fields = FieldWorkload.create(42);
+    }
+
+    @Benchmark
+    public String setPhoneNumber() {
+        return fields.setPhoneNumber(probe++);
+    }
+
+    @Benchmark
+    public String setPhoneNumberWithRegex() {
+        return fields.setPhoneNumberWithRegex(probe++);
+    }
+
+    @Benchmark
+    public String setVeterinarian() {
+        return fields.setVeterinarian(probe++);
+    }
+
+    @Benchmark
+    public String setVeterinarianWithRegex() {
+        return fields.setVeterinarianWithRegex(probe++);
+    }
+
+    @Benchmark
+    public String rejectPhoneNumber() {
+        return fields.rejectPhoneNumber(probe++);
+    }
+
+    @Benchmark
+    public String rejectPhoneNumberByException() {
+        return fields.rejectPhoneNumberByException(probe++);
+    }
+}
@@ -0,0 +1,154 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentArchiveTest {
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    private AppointmentArchive archive;
+    private Pet rex;
+    private Pet tom;
+
+    @BeforeEach
+    void setUp() {
+        archive = new AppointmentArchive(directory);
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        rex = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", owner);
+        tom = new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", owner);
+    }
+
+    private static Appointment finished(Pet pet, LocalDateTime dateTime) {
+        return Appointment.restore(pet, dateTime, "Checkup\tand jabs", "Dr Smith", 30,
+                Appointment.AppointmentStatus.COMPLETED);
+    }
+
+    private List<Path> files() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory)) {
+            listing.forEach(files::add);
+        }
+        return files;
+    }
+
+    @Test
+    void findReturnsTheRangeInStartOrderAcrossMonths() throws IOException {
+        Appointment march = finished(rex, LocalDateTime.of(2024, 3, 5, 9, 0));
+        Appointment february = finished(tom, LocalDateTime.of(2024, 2, 20, 11, 0));
+        Appointment earlyFebruary = finished(rex, LocalDateTime.of(2024, 2, 1, 10, 0));
+        Appointment january = finished(tom, LocalDateTime.of(2024, 1, 31, 17, 0));
+        archive.append(List.of(march, february, earlyFebruary, january));
+
+        List<ArchivedAppointment> found = archive.find(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 6), null, 10);
+        assertEquals(List.of(earlyFebruary.getId(), february.getId(), march.getId()), ids(found));
+        assertEquals(List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2), YearMonth.of(2024, 3)), archive.getMonths());
+
+        ArchivedAppointment first = found.get(0);
+        assertEquals(rex.getId(), first.getPetId());
+        assertEquals("Rex", first.getPetName());
+        assertEquals("Mary Byrne", first.getOwnerName());
+        assertEquals("Dr Smith", first.getVeterinarian());
+        assertEquals("Checkup and jabs", first.getReason());
+        assertEquals(Appointment.AppointmentStatus.COMPLETED, first.getStatus());
+        assertEquals(30, first.getDuration());
+    }
+
+    @Test
+    void findKeepsTheEarliestMatchesUpToTheLimit() throws IOException {
+        List<Appointment> appointments = new ArrayList<>();
+        for (int day = 28; day >= 1; day--) {
+            appointments.add(finished(day % 2 == 0 ? rex : tom, LocalDateTime.of(2024, 6, day, 9, 0)));
+        }
+        archive.append(appointments.subList(0, 14));
+        archive.append(appointments.subList(14, 28));
+
+        List<ArchivedAppointment> found = archive.find(FROM, TO, a -> a.getPetId() == rex.getId(), 3);
+        assertEquals(3, found.size());
+        assertEquals(LocalDateTime.of(2024, 6, 2, 9, 0), found.get(0).getDateTime());
+        assertEquals(LocalDateTime.of(2024, 6, 4, 9, 0), found.get(1).getDateTime());
+        assertEquals(LocalDateTime.of(2024, 6, 6, 9, 0), found.get(2).getDateTime());
+    }
+
+    // A crash between archiving and journaling the removal archives the same appointments again next run.
+    @Test
+    void anAppointmentArchivedTwiceIsFoundOnce() throws IOException {
+        Appointment visit = finished(rex, LocalDateTime.of(2024, 4, 10, 9, 0));
+        archive.append(List.of(visit));
+        archive.append(List.of(visit, finished(tom, LocalDateTime.of(2024, 4, 10, 10, 0))));
+
+        assertEquals(2, files().size());
+        assertEquals(2, archive.find(FROM, TO, null, 10).size());
+    }
+
+    @Test
+    void eachRunWritesItsOwnFileAndLeavesNoTemporaries() throws IOException {
+        archive.append(List.of(finished(rex, LocalDateTime.of(2024, 4, 10, 9, 0))));
+        archive.append(List.of(finished(rex, LocalDateTime.of(2024, 4, 11, 9, 0))));
+        List<String> names = new ArrayList<>();
+        for (Path file : files()) {
+            names.add(file.getFileName().toString());
+        }
+        names.sort(null);
+        assertEquals(List.of("appointments-2024-04.1.txt.gz", "appointments-2024-04.2.txt.gz"), names);
+    }
+
+    @Test
+    void aTruncatedFileFailsTheRead() throws IOException {
+        List<Appointment> appointments = new ArrayList<>();
+        for (int day = 1; day <= 28; day++) {
+            appointments.add(finished(rex, LocalDateTime.of(2024, 5, day, 9, 0)));
+        }
+        archive.append(appointments);
+        Path file = files().get(0);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        IOException failure = assertThrows(IOException.class, () -> archive.find(FROM, TO, null, 10));
+        assertTrue(failure.getMessage().contains(file.getFileName().toString()));
+    }
+
+    @Test
+    void aBadLineFailsTheRead() throws IOException {
+        Path file = directory.resolve("appointments-2024-05.1.txt.gz");
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8)) {
+            out.write("not\tan\tarchived\tappointment\n");
+        }
+        assertThrows(IOException.class, () -> archive.find(FROM, TO, null, 10));
+    }
+
+    @Test
+    void anEmptyOrMissingArchiveFindsNothing() throws IOException {
+        AppointmentArchive missing = new AppointmentArchive(directory.resolve("missing"));
+        assertTrue(missing.find(FROM, TO, null, 10).isEmpty());
+        assertTrue(missing.getMonths().isEmpty());
+        assertTrue(archive.find(FROM, TO, null, 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<ArchivedAppointment> archived) {
+        List<Long> ids = new ArrayList<>();
+        for (ArchivedAppointment appointment : archived) {
+            ids.add(appointment.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentQueryTest {
+    @TempDir
+    Path directory;
+
+    private ClinicService service;
+    private Pet rex;
+    private Pet tom;
+    private final List<Appointment> booked = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new ClinicService(directory.resolve("ClinicSnapshot.dat"), directory.resolve("ClinicJournal.log"));
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        rex = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", owner);
+        tom = new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", owner);
+        service.addPet(rex);
+        service.addPet(tom);
+        // Two vets seeing a pet each at the same times, so start times tie and the id breaks the tie.
+        LocalDate day = LocalDate.now().plusDays(7);
+        for (int hour = 9; hour < 13; hour++) {
+            book(new Appointment(rex, day.atTime(hour, 0), "Checkup", "Dr Smith", null));
+            book(new Appointment(tom, day.atTime(hour, 0), "Vaccination", "Dr Jones", null));
+        }
+    }
+
+    private void book(Appointment appointment) {
+        assertNull(service.bookAppointment(appointment));
+        booked.add(appointment);
+    }
+
+    private List<Appointment> walk(AppointmentQuery query, int pageSize) {
+        List<Appointment> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            AppointmentPage page = service.findAppointments(query.limit(pageSize).after(cursor));
+            assertTrue(page.getAppointments().size() <= pageSize);
+            seen.addAll(page.getAppointments());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    @Test
+    void pagesWalkEveryAppointmentOnceInStartOrder() {
+        for (int pageSize : new int[] {1, 3, 8, 20}) {
+            assertEquals(booked, walk(new AppointmentQuery(), pageSize));
+        }
+    }
+
+    @Test
+    void filtersHoldAcrossPages() {
+        LocalDateTime ten = booked.get(2).getDateTime();
+        List<Appointment> expected = new ArrayList<>();
+        for (Appointment appointment : booked) {
+            if (appointment.getVeterinarian().getName().equals("Dr Jones") && !appointment.getDateTime().isBefore(ten)) {
+                expected.add(appointment);
+            }
+        }
+        AppointmentQuery query = new AppointmentQuery().from(ten).veterinarian(new Veterinarian("dr  jones"));
+        assertEquals(expected, walk(query, 2));
+
+        service.modifyAppointment(booked.get(3), appointment -> appointment.setStatus(Appointment.AppointmentStatus.CANCELLED));
+        expected.remove(booked.get(3));
+        assertEquals(expected, walk(query.status(Appointment.AppointmentStatus.SCHEDULED), 2));
+    }
+
+    // The cursor holds the last appointment's start and id, so cancelling it does not lose the place.
+    @Test
+    void theNextPageDoesNotDependOnTheLastAppointmentStillBeingThere() {
+        AppointmentPage first = service.findAppointments(new AppointmentQuery().limit(3));
+        service.removeAppointment(first.getAppointments().get(2));
+        AppointmentPage second = service.findAppointments(new AppointmentQuery().limit(3).after(first.getNextCursor()));
+        assertEquals(booked.subList(3, 6), second.getAppointments());
+    }
+
+    @Test
+    void badCursorsAndPageSizesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AppointmentQuery().after("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> new AppointmentQuery().after("12.x"));
+        assertThrows(IllegalArgumentException.class, () -> new AppointmentQuery().limit(0));
+        assertThrows(IllegalArgumentException.class, () -> new AppointmentQuery().statuses(java.util.Set.of()));
+    }
+}
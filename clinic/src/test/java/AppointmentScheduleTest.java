@@ -0,0 +1,207 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentScheduleTest {
+    private AppointmentSchedule schedule;
+    private Pet rex;
+    private Pet tom;
+
+    @BeforeEach
+    void setUp() {
+        schedule = new AppointmentSchedule();
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        rex = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", owner);
+        tom = new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", owner);
+    }
+
+    private static LocalDateTime nextWeekAt(int hour, int minute) {
+        return LocalDate.now().plusDays(7).atTime(hour, minute);
+    }
+
+    private static Appointment visit(Pet pet, LocalDateTime start, String veterinarian, int duration) {
+        return new Appointment(pet, start, "Checkup", veterinarian, duration);
+    }
+
+    // Conflicts come back in start order, each mapped to the earlier batch appointment in its way.
+    @Test
+    void findConflictsCatchesClashesInsideTheBatch() {
+        Appointment first = visit(rex, nextWeekAt(9, 0), "Dr Smith", 30);
+        Appointment sameVet = visit(tom, nextWeekAt(9, 15), "Dr Smith", 30);
+        Appointment samePet = visit(rex, nextWeekAt(9, 0), "Dr Jones", 15);
+
+        Map<Appointment, Appointment> conflicts = schedule.findConflicts(List.of(first, sameVet, samePet));
+        assertEquals(Map.of(samePet, first, sameVet, first), conflicts);
+        assertEquals(List.of(samePet, sameVet), List.copyOf(conflicts.keySet()));
+    }
+
+    @Test
+    void findConflictsChecksTheBatchAgainstBookings() {
+        Appointment booked = visit(rex, nextWeekAt(10, 0), "Dr Smith", 30);
+        schedule.add(booked);
+        Appointment overlapping = visit(tom, nextWeekAt(10, 15), "Dr Smith", 30);
+        Appointment afterwards = visit(tom, nextWeekAt(10, 45), "Dr Smith", 30);
+
+        assertEquals(Map.of(overlapping, booked), schedule.findConflicts(List.of(afterwards, overlapping)));
+    }
+
+    // A long appointment still blocks ones that start after a shorter one in between has ended.
+    @Test
+    void findConflictsRemembersTheLongestRunningAppointment() {
+        Appointment surgery = visit(rex, nextWeekAt(9, 0), "Dr Smith", 120);
+        Appointment quick = visit(tom, nextWeekAt(9, 0), "Dr Jones", 15);
+        Appointment later = visit(tom, nextWeekAt(10, 0), "Dr Smith", 15);
+
+        assertEquals(Map.of(later, surgery), schedule.findConflicts(List.of(surgery, quick, later)));
+    }
+
+    @Test
+    void findConflictsAcceptsBackToBackAppointments() {
+        Appointment first = visit(rex, nextWeekAt(9, 0), "Dr Smith", 30);
+        Appointment second = visit(rex, nextWeekAt(9, 30), "Dr Smith", 30);
+        Appointment cancelled = visit(tom, nextWeekAt(9, 0), "Dr Smith", 30);
+        cancelled.setStatus(Appointment.AppointmentStatus.CANCELLED);
+
+        assertTrue(schedule.findConflicts(List.of(second, first, cancelled)).isEmpty());
+    }
+
+    // Appointments are half-open: one that ends at 09:30 leaves 09:30 free.
+    @Test
+    void findConflictTreatsTouchingAppointmentsAsFree() {
+        Appointment booked = visit(rex, nextWeekAt(9, 0), "Dr Smith", 30);
+        schedule.add(booked);
+        Veterinarian smith = booked.getVeterinarian();
+
+        assertNull(schedule.findConflict(nextWeekAt(9, 30), 30, smith, tom, null));
+        assertNull(schedule.findConflict(nextWeekAt(8, 30), 30, smith, tom, null));
+        assertSame(booked, schedule.findConflict(nextWeekAt(9, 29), 30, smith, tom, null));
+        assertSame(booked, schedule.findConflict(nextWeekAt(8, 31), 30, smith, tom, null));
+        assertSame(booked, schedule.findConflict(nextWeekAt(9, 10), 5, smith, tom, null));
+        assertSame(booked, schedule.findConflict(nextWeekAt(8, 0), 180, smith, tom, null));
+    }
+
+    // An appointment longer than the ones after it is still found from a start well past its own.
+    @Test
+    void findConflictFindsALongAppointmentStartedEarlier() {
+        Appointment surgery = visit(rex, nextWeekAt(8, 0), "Dr Smith", 240);
+        schedule.add(surgery);
+        schedule.add(visit(tom, nextWeekAt(13, 0), "Dr Smith", 15));
+
+        assertSame(surgery, schedule.findConflict(nextWeekAt(11, 45), 15, surgery.getVeterinarian(), null, null));
+        assertNull(schedule.findConflict(nextWeekAt(12, 0), 15, surgery.getVeterinarian(), null, null));
+    }
+
+    @Test
+    void cancelledAppointmentsAreNotInTheSchedule() {
+        Appointment cancelled = visit(rex, nextWeekAt(9, 0), "Dr Smith", 30);
+        cancelled.setStatus(Appointment.AppointmentStatus.CANCELLED);
+        schedule.add(cancelled);
+
+        assertNull(schedule.findConflict(nextWeekAt(9, 0), 30, cancelled.getVeterinarian(), rex, null));
+        assertTrue(schedule.getDay(cancelled.getVeterinarian(), nextWeekAt(9, 0).toLocalDate()).isEmpty());
+    }
+
+    @Test
+    void removedAndIgnoredAppointmentsDoNotConflict() {
+        Appointment booked = visit(rex, nextWeekAt(9, 0), "Dr Smith", 30);
+        schedule.add(booked);
+
+        assertNull(schedule.findConflict(nextWeekAt(9, 15), 30, booked.getVeterinarian(), rex, booked));
+        schedule.remove(booked);
+        assertNull(schedule.findConflict(nextWeekAt(9, 15), 30, booked.getVeterinarian(), rex, null));
+    }
+
+    private List<AppointmentSchedule.Slot> freeSlots(LocalDateTime from, int duration, int count, List<Veterinarian> vets,
+                                                     Pet pet) {
+        return schedule.findFreeSlots(from, from.toLocalDate().plusDays(1), ClinicService.OPENING_TIME,
+                ClinicService.CLOSING_TIME, duration, count, vets, pet);
+    }
+
+    private static List<LocalDateTime> starts(List<AppointmentSchedule.Slot> slots) {
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (AppointmentSchedule.Slot slot : slots) {
+            starts.add(slot.getStart());
+        }
+        return starts;
+    }
+
+    @Test
+    void freeSlotsFitBetweenOpeningAndClosing() {
+        List<AppointmentSchedule.Slot> slots = freeSlots(nextWeekAt(0, 0), 60, 100, List.of(), null);
+        assertEquals(nextWeekAt(8, 0), slots.get(0).getStart());
+        assertEquals(nextWeekAt(17, 0), slots.get(36).getStart());
+        assertEquals(nextWeekAt(8, 0).plusDays(1), slots.get(37).getStart());
+        assertNull(slots.get(0).getVeterinarian());
+    }
+
+    // The search starts at the next step on the grid, and a slot that would run past closing waits for the next day.
+    @Test
+    void freeSlotsStartOnTheGridAndSpillIntoTheNextDay() {
+        assertEquals(List.of(nextWeekAt(10, 15), nextWeekAt(10, 30)),
+                starts(freeSlots(nextWeekAt(10, 5), 30, 2, List.of(), null)));
+        assertEquals(List.of(nextWeekAt(17, 0), nextWeekAt(8, 0).plusDays(1)),
+                starts(freeSlots(nextWeekAt(16, 50), 60, 2, List.of(), null)));
+    }
+
+    @Test
+    void freeSlotsSkipBookedTimeAndOfferTheFirstFreeVet() {
+        Appointment morning = visit(rex, nextWeekAt(8, 0), "Dr Smith", 60);
+        Appointment jonesBusy = visit(tom, nextWeekAt(9, 0), "Dr Jones", 30);
+        schedule.add(morning);
+        schedule.add(jonesBusy);
+        Veterinarian smith = morning.getVeterinarian();
+        Veterinarian jones = jonesBusy.getVeterinarian();
+
+        List<AppointmentSchedule.Slot> slots = freeSlots(nextWeekAt(8, 0), 30, 3, List.of(smith, jones), null);
+        assertEquals(List.of(nextWeekAt(8, 0), nextWeekAt(8, 15), nextWeekAt(8, 30)), starts(slots));
+        assertEquals(jones, slots.get(0).getVeterinarian());
+        assertEquals(List.of(nextWeekAt(9, 0), nextWeekAt(9, 15)), starts(freeSlots(nextWeekAt(8, 0), 30, 2, List.of(smith), null)));
+        assertEquals(smith, freeSlots(nextWeekAt(9, 0), 30, 1, List.of(smith, jones), null).get(0).getVeterinarian());
+    }
+
+    // A pet in with one vet cannot be booked with another at the same time.
+    @Test
+    void freeSlotsAvoidTimeThePetIsBusy() {
+        schedule.add(visit(rex, nextWeekAt(8, 0), "Dr Smith", 120));
+        Veterinarian jones = new Veterinarian("Dr Jones");
+
+        assertEquals(List.of(nextWeekAt(10, 0)), starts(freeSlots(nextWeekAt(8, 0), 30, 1, List.of(jones), rex)));
+        assertEquals(List.of(nextWeekAt(8, 0)), starts(freeSlots(nextWeekAt(8, 0), 30, 1, List.of(jones), tom)));
+    }
+
+    @Test
+    void twoVetsCanSeeDifferentPetsInTheSameSlot() {
+        Appointment smith = visit(rex, nextWeekAt(9, 0), "Dr Smith", 30);
+        Appointment jones = visit(tom, nextWeekAt(9, 0), "Dr Jones", 30);
+
+        assertTrue(schedule.findConflicts(List.of(smith, jones)).isEmpty());
+        schedule.add(smith);
+        assertNull(schedule.findConflict(nextWeekAt(9, 0), 30, jones.getVeterinarian(), tom, null));
+        assertSame(smith, schedule.findConflict(nextWeekAt(9, 0), 30, jones.getVeterinarian(), rex, null));
+    }
+
+    // A vet's day comes from their own calendar, in start order, under any spelling of their name.
+    @Test
+    void eachVetHasACalendarOfTheirOwn() {
+        Appointment late = visit(rex, nextWeekAt(15, 0), "Dr Smith", 30);
+        Appointment early = visit(tom, nextWeekAt(9, 0), "dr  SMITH", 30);
+        Appointment other = visit(tom, nextWeekAt(11, 0), "Dr Jones", 30);
+        Appointment tomorrow = visit(rex, nextWeekAt(9, 0).plusDays(1), "Dr Smith", 30);
+        for (Appointment appointment : List.of(late, early, other, tomorrow)) {
+            schedule.add(appointment);
+        }
+
+        LocalDate day = nextWeekAt(9, 0).toLocalDate();
+        assertEquals(List.of(early, late), schedule.getDay(new Veterinarian("Dr Smith"), day));
+        assertEquals(List.of(other), schedule.getDay(new Veterinarian("Dr Jones"), day));
+        assertTrue(schedule.getDay(new Veterinarian("Dr Brown"), day).isEmpty());
+        assertSame(late, schedule.findConflict(nextWeekAt(15, 0), 30, new Veterinarian("DR smith"), null, null));
+    }
+}
@@ -0,0 +1,243 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClinicJournalTest {
+    @TempDir
+    Path directory;
+
+    private static LocalDateTime nextWeekAt(int hour) {
+        return LocalDate.now().plusDays(7).atTime(hour, 0);
+    }
+
+    private ClinicService openService() throws IOException {
+        ClinicService service = new ClinicService(directory.resolve("ClinicSnapshot.dat"),
+                directory.resolve("ClinicJournal.log"));
+        service.openJournal();
+        return service;
+    }
+
+    private static Map<Long, String> describePets(ClinicService service) {
+        Map<Long, String> pets = new TreeMap<>();
+        for (Pet pet : service.getPets()) {
+            pets.put(pet.getId(), pet.toString());
+        }
+        return pets;
+    }
+
+    private static Map<Long, String> describeAppointments(ClinicService service) {
+        Map<Long, String> appointments = new TreeMap<>();
+        for (Appointment appointment : service.getAppointments()) {
+            appointments.put(appointment.getId(), appointment.getPet().getId() + " " + appointment);
+        }
+        return appointments;
+    }
+
+    @Test
+    void replayRebuildsEveryJournaledChange() throws IOException {
+        ClinicService service = openService();
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        Pet rex = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", owner);
+        Pet tom = new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", owner);
+        Pet nibbles = new Pet.Hamster("Nibbles", 1, "White", 0.1, "Syrian", new Owner("Sean Walsh", "0861234567", "2 High Street"));
+        service.addPet(rex);
+        service.addPet(tom);
+        service.addPet(nibbles);
+        Appointment checkup = new Appointment(rex, nextWeekAt(9), "Annual checkup", "Dr Smith", 30);
+        Appointment vaccination = new Appointment(tom, nextWeekAt(10), "Vaccination", "Dr Smith", 15);
+        Appointment dental = new Appointment(nibbles, nextWeekAt(11), "Dental check", "Dr Jones", 45);
+        assertNull(service.bookAppointment(checkup));
+        assertNull(service.bookAppointment(vaccination));
+        assertNull(service.bookAppointment(dental));
+        service.modifyPet(rex, pet -> pet.setName("Rexy"));
+        service.modifyAppointment(checkup, appointment -> appointment.setStatus(Appointment.AppointmentStatus.COMPLETED));
+        service.rescheduleAppointment(vaccination, nextWeekAt(14), 20);
+        service.removePet(nibbles);
+        service.closeJournal();
+
+        ClinicService recovered = openService();
+        assertEquals(10, recovered.replayJournal());
+        assertEquals(describePets(service), describePets(recovered));
+        assertEquals(describeAppointments(service), describeAppointments(recovered));
+        assertEquals(2, recovered.getAppointments().size());
+        assertNull(recovered.getAppointment(dental.getId()));
+        recovered.closeJournal();
+    }
+
+    // The add is journaled before the pet joins the household, so the record carries the owner as typed.
+    @Test
+    void aPetAddedToAKnownHouseholdReplaysIntoThatHousehold() throws IOException {
+        ClinicService service = openService();
+        Pet rex = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", new Owner("Mary Byrne", "0871234567", "1 Main Street"));
+        Pet tom = new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", new Owner("M Byrne", "087 123 4567", "Main St"));
+        service.addPet(rex);
+        service.addPet(tom);
+        assertSame(rex.getOwner(), tom.getOwner());
+        service.closeJournal();
+
+        ClinicService recovered = openService();
+        assertEquals(2, recovered.replayJournal());
+        assertEquals(describePets(service), describePets(recovered));
+        assertSame(recovered.getPet(rex.getId()).getOwner(), recovered.getPet(tom.getId()).getOwner());
+        recovered.closeJournal();
+    }
+
+    // An import is checkpointed rather than journaled, so a restart finds it in the snapshot.
+    @Test
+    void importedPetsAreInTheSnapshotAfterARestart() throws IOException {
+        ClinicService service = openService();
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        service.addPet(new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", owner));
+        service.importPets(List.of(new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", owner),
+                new Pet.Hamster("Nibbles", 1, "White", 0.1, "Syrian", new Owner("Sean Walsh", "0861234567", "2 High Street"))));
+        assertEquals(0, Files.size(service.getJournalFile()));
+        service.closeJournal();
+
+        ClinicService recovered = openService();
+        recovered.restore(ClinicSnapshot.read(recovered.getSnapshotFile()));
+        assertEquals(0, recovered.replayJournal());
+        assertEquals(describePets(service), describePets(recovered));
+        recovered.closeJournal();
+    }
+
+    // A deleted pet takes its appointments with it, including ones booked and changed before the delete.
+    @Test
+    void replayedPetDeletionDropsOnlyThatPetsAppointments() throws IOException {
+        Path file = directory.resolve("ClinicJournal.log");
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        Pet rex = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", owner);
+        Pet tom = new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", owner);
+        List<Appointment> rexVisits = new ArrayList<>();
+        try (ClinicJournal journal = new ClinicJournal(file)) {
+            journal.recordAddPet(rex);
+            journal.recordAddPet(tom);
+            for (int hour = 9; hour < 12; hour++) {
+                Appointment visit = new Appointment(rex, nextWeekAt(hour), "Checkup", "Dr Smith", null);
+                rexVisits.add(visit);
+                journal.recordAddAppointment(visit);
+            }
+            journal.recordAddAppointments(List.of(new Appointment(tom, nextWeekAt(9), "Checkup", "Dr Jones", null)));
+            rexVisits.get(0).setStatus(Appointment.AppointmentStatus.CANCELLED);
+            journal.recordModifyAppointment(rexVisits.get(0));
+            journal.recordDeleteAppointment(rexVisits.get(1));
+            journal.recordDeletePet(rex);
+        }
+
+        List<Pet> pets = new ArrayList<>();
+        List<Appointment> appointments = new ArrayList<>();
+        assertEquals(9, ClinicJournal.replay(file, pets, appointments));
+        assertEquals(1, pets.size());
+        assertEquals(tom.getId(), pets.get(0).getId());
+        assertEquals(1, appointments.size());
+        assertEquals(tom.getId(), appointments.get(0).getPet().getId());
+    }
+
+    // A crash mid-write leaves part of a record at the end; replay keeps what came before it and cuts the
+    // file back so the next record follows the last whole one.
+    @Test
+    void replayDropsATornTail() throws IOException {
+        Path file = directory.resolve("ClinicJournal.log");
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        try (ClinicJournal journal = new ClinicJournal(file)) {
+            journal.recordAddPet(new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", owner));
+            journal.recordAddPet(new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", owner));
+        }
+        long whole = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 7, 7}, StandardOpenOption.APPEND);
+
+        List<Pet> pets = new ArrayList<>();
+        assertEquals(2, ClinicJournal.replay(file, pets, new ArrayList<>()));
+        assertEquals(2, pets.size());
+        assertEquals(whole, Files.size(file));
+    }
+
+    @Test
+    void replayStopsAtARecordWithABadChecksum() throws IOException {
+        Path file = directory.resolve("ClinicJournal.log");
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        try (ClinicJournal journal = new ClinicJournal(file)) {
+            journal.recordAddPet(new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", owner));
+        }
+        long first = Files.size(file);
+        try (ClinicJournal journal = new ClinicJournal(file)) {
+            journal.recordAddPet(new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", owner));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+
+        List<Pet> pets = new ArrayList<>();
+        assertEquals(1, ClinicJournal.replay(file, pets, new ArrayList<>()));
+        assertEquals("Rex", pets.get(0).getName());
+        assertEquals(first, Files.size(file));
+    }
+
+    // A record that names an unknown pet cannot be applied, so replay fails after the rename before it.
+    private static Path journalWithABadRecordAfterARename(Path file, Pet rex) throws IOException {
+        Owner stranger = new Owner("Sean Walsh", "0861234567", "2 High Street");
+        Pet unknown = new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", stranger);
+        try (ClinicJournal journal = new ClinicJournal(file)) {
+            rex.setName("Rexy");
+            rex.getOwner().setAddress("9 Low Road");
+            journal.recordModifyPet(rex);
+            rex.setName("Rex");
+            rex.getOwner().setAddress("1 Main Street");
+            journal.recordAddAppointment(new Appointment(unknown, nextWeekAt(9), "Checkup", "Dr Smith", null));
+        }
+        return file;
+    }
+
+    @Test
+    void aFailedReplayPutsBackThePetsItChanged() throws IOException {
+        Pet rex = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", new Owner("Mary Byrne", "0871234567", "1 Main Street"));
+        Path file = journalWithABadRecordAfterARename(directory.resolve("ClinicJournal.log"), rex);
+
+        List<Pet> pets = new ArrayList<>(List.of(rex));
+        assertThrows(IOException.class, () -> ClinicJournal.replay(file, pets, new ArrayList<>()));
+        assertEquals(List.of(rex), pets);
+        assertEquals("Rex", rex.getName());
+        assertEquals("1 Main Street", rex.getOwner().getAddress());
+    }
+
+    // Records written after the bad one would never be replayed, and a snapshot would drop the journal's base.
+    @Test
+    void aJournalThatCannotBeReplayedRefusesChangesAndCheckpoints() throws IOException {
+        ClinicService service = new ClinicService(directory.resolve("ClinicSnapshot.dat"),
+                directory.resolve("ClinicJournal.log"));
+        Pet rex = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", new Owner("Mary Byrne", "0871234567", "1 Main Street"));
+        service.addPet(rex);
+        journalWithABadRecordAfterARename(service.getJournalFile(), rex);
+
+        assertThrows(IOException.class, service::replayJournal);
+        assertEquals("Rex", service.getPet(rex.getId()).getName());
+        assertEquals(List.of(rex), service.searchPets("rex", 10));
+        Pet tom = new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", rex.getOwner());
+        assertThrows(UncheckedIOException.class, () -> service.addPet(tom));
+        assertThrows(IOException.class, service::checkpoint);
+        assertFalse(Files.exists(service.getSnapshotFile()));
+    }
+
+    @Test
+    void aJournalThatCannotBeOpenedRefusesChanges() throws IOException {
+        Path journal = Files.createDirectory(directory.resolve("ClinicJournal.log"));
+        ClinicService service = new ClinicService(directory.resolve("ClinicSnapshot.dat"), journal);
+
+        assertThrows(IOException.class, service::openJournal);
+        Pet rex = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", new Owner("Mary Byrne", "0871234567", "1 Main Street"));
+        assertThrows(UncheckedIOException.class, () -> service.addPet(rex));
+        assertTrue(service.getPets().isEmpty());
+    }
+}
@@ -0,0 +1,174 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClinicServiceTest {
+    @TempDir
+    Path directory;
+
+    private ClinicService service;
+    private Pet rex;
+    private Pet tom;
+
+    @BeforeEach
+    void setUp() {
+        service = new ClinicService(directory.resolve("ClinicSnapshot.dat"), directory.resolve("ClinicJournal.log"));
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        rex = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", owner);
+        tom = new Pet.Cat("Tom", 5, "Grey", 4.0, "Persian", owner);
+        service.addPet(rex);
+        service.addPet(tom);
+    }
+
+    private static LocalDateTime nextWeekAt(int hour) {
+        return LocalDate.now().plusDays(7).atTime(hour, 0);
+    }
+
+    // Restored appointments may start in the past, as ones loaded from the text file or the snapshot do.
+    @Test
+    void aStartedAppointmentCanChangeVetAndDurationWithoutMoving() {
+        LocalDateTime started = LocalDateTime.now().minusMinutes(10).withSecond(0).withNano(0);
+        Appointment appointment = Appointment.restore(rex, started, "Checkup", "Dr Smith", 30,
+                Appointment.AppointmentStatus.SCHEDULED);
+        service.restore(new ClinicSnapshot(List.of(rex, tom), List.of(appointment)));
+
+        assertNull(service.rescheduleAppointment(appointment, started, 45, new Veterinarian("Dr Jones")));
+        assertEquals(started, appointment.getDateTime());
+        assertEquals(45, appointment.getDuration());
+        assertEquals("Dr Jones", appointment.getVeterinarian().getName());
+    }
+
+    @Test
+    void aCancelledAppointmentCannotComeBackOverABookingMadeSince() {
+        Appointment first = new Appointment(rex, nextWeekAt(9), "Checkup", "Dr Smith", null);
+        assertNull(service.bookAppointment(first));
+        assertNull(service.modifyAppointment(first, a -> a.setStatus(Appointment.AppointmentStatus.CANCELLED)));
+        Appointment second = new Appointment(tom, nextWeekAt(9), "Vaccination", "Dr Smith", null);
+        assertNull(service.bookAppointment(second));
+
+        assertSame(second, service.modifyAppointment(first, a -> a.setStatus(Appointment.AppointmentStatus.SCHEDULED)));
+        assertEquals(Appointment.AppointmentStatus.CANCELLED, first.getStatus());
+        assertEquals(List.of(second), service.getVeterinarianDay(second.getVeterinarian(), nextWeekAt(9).toLocalDate()));
+    }
+
+    @Test
+    void aCancelledAppointmentCannotBeMovedOntoABooking() {
+        Appointment first = new Appointment(rex, nextWeekAt(9), "Checkup", "Dr Smith", null);
+        Appointment second = new Appointment(tom, nextWeekAt(10), "Vaccination", "Dr Smith", null);
+        assertNull(service.bookAppointment(first));
+        assertNull(service.bookAppointment(second));
+        assertNull(service.modifyAppointment(first, a -> a.setStatus(Appointment.AppointmentStatus.CANCELLED)));
+
+        assertSame(second, service.rescheduleAppointment(first, nextWeekAt(10), null));
+        assertEquals(nextWeekAt(9), first.getDateTime());
+    }
+
+    @Test
+    void editsThatKeepTheSlotAreNotChecked() {
+        Appointment first = new Appointment(rex, nextWeekAt(9), "Checkup", "Dr Smith", null);
+        assertNull(service.bookAppointment(first));
+        assertNull(service.modifyAppointment(first, a -> a.setReason("Limping")));
+        assertNull(service.modifyAppointment(first, a -> a.setStatus(Appointment.AppointmentStatus.COMPLETED)));
+        assertEquals("Limping", first.getReason());
+    }
+
+    // A move and an un-cancel in one edit are checked against the slot the appointment ends up in.
+    @Test
+    void aMoveAndAnUncancelTogetherAreCheckedAsOneEdit() {
+        Appointment first = new Appointment(rex, nextWeekAt(9), "Checkup", "Dr Smith", null);
+        Appointment second = new Appointment(tom, nextWeekAt(10), "Vaccination", "Dr Smith", null);
+        assertNull(service.bookAppointment(first));
+        assertNull(service.bookAppointment(second));
+        assertNull(service.modifyAppointment(first, a -> a.setStatus(Appointment.AppointmentStatus.CANCELLED)));
+
+        assertSame(second, service.updateAppointment(first, nextWeekAt(10), null, null,
+                a -> a.setStatus(Appointment.AppointmentStatus.SCHEDULED)));
+        assertEquals(nextWeekAt(9), first.getDateTime());
+        assertEquals(Appointment.AppointmentStatus.CANCELLED, first.getStatus());
+    }
+
+    @Test
+    void anUpdateIsJournaledAsOneRecord() throws IOException {
+        Path journal = directory.resolve("ClinicJournal.log");
+        service.openJournal();
+        Appointment first = new Appointment(rex, nextWeekAt(9), "Checkup", "Dr Smith", null);
+        assertNull(service.bookAppointment(first));
+        assertNull(service.updateAppointment(first, nextWeekAt(11), 45, new Veterinarian("Dr Jones"),
+                a -> a.setReason("Limping")));
+        service.closeJournal();
+
+        List<Appointment> appointments = new ArrayList<>();
+        assertEquals(2, ClinicJournal.replay(journal, new ArrayList<>(List.of(rex, tom)), appointments));
+        Appointment replayed = appointments.get(0);
+        assertEquals(nextWeekAt(11), replayed.getDateTime());
+        assertEquals(45, replayed.getDuration());
+        assertEquals("Dr Jones", replayed.getVeterinarian().getName());
+        assertEquals("Limping", replayed.getReason());
+    }
+
+    @Test
+    void aChangeThatMovesTheSlotIsRefusedAndUndone() {
+        Appointment first = new Appointment(rex, nextWeekAt(9), "Checkup", "Dr Smith", null);
+        assertNull(service.bookAppointment(first));
+        assertThrows(IllegalArgumentException.class, () -> service.modifyAppointment(first, a -> {
+            a.setReason("Limping");
+            a.setDateTime(nextWeekAt(12));
+        }));
+        assertEquals(nextWeekAt(9), first.getDateTime());
+        assertEquals("Checkup", first.getReason());
+        assertNotNull(service.findConflict(nextWeekAt(9), 30, first.getVeterinarian(), null, null));
+    }
+
+    // Nothing from a rejected batch is booked, journaled or left in the calendars.
+    @Test
+    void aBatchThatClashesWithItselfBooksNothing() {
+        Appointment first = new Appointment(rex, nextWeekAt(9), "Physio", "Dr Smith", 60);
+        Appointment clash = new Appointment(tom, nextWeekAt(9).plusMinutes(30), "Physio", "Dr Smith", null);
+        Appointment free = new Appointment(tom, nextWeekAt(14), "Physio", "Dr Jones", null);
+
+        assertEquals(Map.of(clash, first), service.bookAppointments(List.of(free, first, clash)));
+        assertTrue(service.getAppointments().isEmpty());
+        assertNull(service.findConflict(nextWeekAt(9), 60, first.getVeterinarian(), rex, null));
+        assertNull(service.findConflict(nextWeekAt(14), 30, free.getVeterinarian(), tom, null));
+    }
+
+    @Test
+    void aBatchThatClashesWithABookingBooksNothing() throws IOException {
+        service.openJournal();
+        Appointment booked = new Appointment(rex, nextWeekAt(11), "Checkup", "Dr Smith", null);
+        assertNull(service.bookAppointment(booked));
+        Appointment free = new Appointment(tom, nextWeekAt(9), "Physio", "Dr Smith", null);
+        Appointment clash = new Appointment(tom, nextWeekAt(11).plusMinutes(15), "Physio", "Dr Smith", null);
+
+        assertEquals(Map.of(clash, booked), service.bookAppointments(List.of(free, clash)));
+        assertEquals(List.of(booked), List.copyOf(service.getAppointments()));
+        assertNull(service.findConflict(nextWeekAt(9), 30, free.getVeterinarian(), tom, null));
+        service.closeJournal();
+        List<Appointment> replayed = new ArrayList<>();
+        assertEquals(1, ClinicJournal.replay(service.getJournalFile(), new ArrayList<>(List.of(rex, tom)), replayed));
+        assertEquals(1, replayed.size());
+    }
+
+    @Test
+    void aBookedBatchIsJournaledAsOneRecord() throws IOException {
+        service.openJournal();
+        List<Appointment> course = RecurrenceRule.everyDays(nextWeekAt(9), 7, 4).expand(rex, "Physio", "Dr Smith", null);
+        assertTrue(service.bookAppointments(course).isEmpty());
+        assertEquals(4, service.getAppointments().size());
+        service.closeJournal();
+
+        List<Appointment> replayed = new ArrayList<>();
+        assertEquals(1, ClinicJournal.replay(service.getJournalFile(), new ArrayList<>(List.of(rex, tom)), replayed));
+        assertEquals(4, replayed.size());
+    }
+}
@@ -0,0 +1,81 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClinicSnapshotTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripKeepsPetsAppointmentsAndIds() throws IOException {
+        Owner mary = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        Owner sean = new Owner("Sean Walsh", "0861234567", "2 High Street");
+        List<Pet> pets = List.of(
+                new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", mary),
+                new Pet.Cat("Tom", 5, "Grey", 4.25, "Persian", mary),
+                new Pet.Hamster("Nibbles", 1, "White", 0.1, "Syrian", sean));
+        LocalDateTime past = LocalDate.now().minusDays(3).atTime(9, 30);
+        List<Appointment> appointments = List.of(
+                new Appointment(pets.get(0), LocalDate.now().plusDays(2).atTime(10, 0), "Annual checkup", "Dr Smith", 45),
+                Appointment.restore(pets.get(2), past, "Dental check", "Dr Jones", 20,
+                        Appointment.AppointmentStatus.COMPLETED));
+        Path file = directory.resolve("ClinicSnapshot.dat");
+        ClinicSnapshot.write(file, pets, appointments);
+
+        ClinicSnapshot read = ClinicSnapshot.read(file);
+        assertEquals(pets.size(), read.getPets().size());
+        for (int i = 0; i < pets.size(); i++) {
+            Pet expected = pets.get(i);
+            Pet actual = read.getPets().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getClass(), actual.getClass());
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected.getOwner().getId(), actual.getOwner().getId());
+            assertEquals(expected.getOwner().getFormattedPhoneNumber(), actual.getOwner().getFormattedPhoneNumber());
+            assertEquals(expected.getOwner().getAddress(), actual.getOwner().getAddress());
+        }
+        // Pets of one household share one owner after the read, as they did before the write.
+        assertSame(read.getPets().get(0).getOwner(), read.getPets().get(1).getOwner());
+
+        assertEquals(appointments.size(), read.getAppointments().size());
+        for (int i = 0; i < appointments.size(); i++) {
+            Appointment expected = appointments.get(i);
+            Appointment actual = read.getAppointments().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getPet().getId(), actual.getPet().getId());
+            assertEquals(expected.getDateTime(), actual.getDateTime());
+            assertEquals(expected.getDuration(), actual.getDuration());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertEquals(expected.getReason(), actual.getReason());
+            assertEquals(expected.getVeterinarian(), actual.getVeterinarian());
+        }
+    }
+
+    // The snapshot is written under its own name only once complete, so a short file is damage and fails.
+    @Test
+    void readRejectsATruncatedSnapshot() throws IOException {
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        Path file = directory.resolve("ClinicSnapshot.dat");
+        ClinicSnapshot.write(file, List.of(new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", owner)), new ArrayList<>());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> ClinicSnapshot.read(file));
+    }
+
+    @Test
+    void readRejectsAFileThatIsNotASnapshot() throws IOException {
+        Path file = directory.resolve("ClinicSnapshot.dat");
+        Files.writeString(file, "Rex, 3, Brown, 20.5, Dog: Labrador, Mary Byrne, 0871234567, 1 Main Street\n");
+        assertThrows(IOException.class, () -> ClinicSnapshot.read(file));
+    }
+}
@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClinicStatisticsTest {
+    private static final String[] COLOURS = {"Brown", "brown", "Grey", "Black", "White"};
+    private static final String[] BREEDS = {"Labrador", "Persian", "Syrian", "Beagle"};
+    private static final String[] OWNERS = {"Mary Byrne", "John Kelly", "mary byrne", "Ann Walsh"};
+
+    private static Pet pet(Random random, int i) {
+        Owner owner = new Owner(OWNERS[random.nextInt(OWNERS.length)], "0871234567", "1 Main Street");
+        String colour = COLOURS[random.nextInt(COLOURS.length)];
+        String breed = BREEDS[random.nextInt(BREEDS.length)];
+        switch (random.nextInt(3)) {
+            case 0:
+                return new Pet.Dog("Pet" + i, 3, colour, 20.5, breed, owner);
+            case 1:
+                return new Pet.Cat("Pet" + i, 3, colour, 4.0, breed, owner);
+            default:
+                return new Pet.Hamster("Pet" + i, 1, colour, 0.2, breed, owner);
+        }
+    }
+
+    // Counts recomputed from the pets themselves, keyed the way the statistics key them.
+    private static Map<String, Integer> recount(List<Pet> pets, int field) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Pet pet : pets) {
+            String key;
+            if (field == 0) {
+                key = pet.getColour().toLowerCase();
+            } else if (field == 1) {
+                key = pet.getBreed().toLowerCase();
+            } else {
+                key = pet.getOwner().getName().toLowerCase();
+            }
+            counts.merge(key, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static int max(Map<String, Integer> counts) {
+        int max = 0;
+        for (int count : counts.values()) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+
+    private static void assertMatches(List<Pet> pets, ClinicReport report) {
+        assertEquals(pets.size(), report.getTotalPets());
+        int dogs = 0;
+        int cats = 0;
+        for (Pet pet : pets) {
+            if (pet.getType().equals("Dog")) {
+                dogs++;
+            } else if (pet.getType().equals("Cat")) {
+                cats++;
+            }
+        }
+        assertEquals(dogs, report.getTypeCount("Dog"));
+        assertEquals(cats, report.getTypeCount("Cat"));
+        assertEquals(pets.size() - dogs - cats, report.getTypeCount("Hamster"));
+
+        Map<String, Integer> colours = recount(pets, 0);
+        Map<String, Integer> breeds = recount(pets, 1);
+        Map<String, Integer> owners = recount(pets, 2);
+        assertEquals(colours, report.getColourCounts());
+        assertEquals(breeds, report.getBreedCounts());
+        assertEquals(owners, report.getOwnerCounts());
+        // Ties may go to any of the leaders, so only the leader's count is compared.
+        if (pets.isEmpty()) {
+            assertEquals("None", report.getDominantColour());
+        } else {
+            assertEquals(max(colours), colours.get(report.getDominantColour()));
+            assertEquals(max(breeds), breeds.get(report.getDominantBreed()));
+            assertEquals(max(owners), owners.get(report.getDominantOwner()));
+        }
+    }
+
+    @Test
+    void countsMatchARecountAsPetsComeAndGo() {
+        Random random = new Random(42);
+        ClinicStatistics statistics = new ClinicStatistics();
+        List<Pet> pets = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            if (pets.isEmpty() || random.nextInt(3) != 0) {
+                Pet pet = pet(random, step);
+                pets.add(pet);
+                statistics.add(pet);
+            } else {
+                statistics.remove(pets.remove(random.nextInt(pets.size())));
+            }
+            if (step % 50 == 0) {
+                assertMatches(pets, statistics.toReport());
+            }
+        }
+        while (!pets.isEmpty()) {
+            statistics.remove(pets.remove(pets.size() - 1));
+        }
+        assertMatches(pets, statistics.toReport());
+        assertTrue(statistics.toReport().getColourCounts().isEmpty());
+    }
+
+    // Ties go to the value that reached the top count first.
+    @Test
+    void aTieGoesToTheFirstValueToReachTheTopCount() {
+        Owner owner = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        ClinicStatistics statistics = new ClinicStatistics();
+        statistics.add(new Pet.Dog("A", 3, "Brown", 20.5, "Labrador", owner));
+        statistics.add(new Pet.Dog("B", 3, "Black", 20.5, "Labrador", owner));
+        statistics.add(new Pet.Dog("C", 3, "Black", 20.5, "Labrador", owner));
+        Pet brown = new Pet.Dog("D", 3, "Brown", 20.5, "Labrador", owner);
+        statistics.add(brown);
+        assertEquals("black", statistics.getDominantColour());
+
+        statistics.remove(brown);
+        statistics.add(brown);
+        assertEquals("black", statistics.getDominantColour());
+        assertEquals("Dog", statistics.toReport().getDominantPetType());
+    }
+
+    @Test
+    void clearingStartsAgainFromNothing() {
+        ClinicStatistics statistics = new ClinicStatistics();
+        statistics.add(pet(new Random(1), 0));
+        statistics.clear();
+        assertMatches(new ArrayList<>(), statistics.toReport());
+        assertEquals("None", statistics.getDominantOwner());
+    }
+}
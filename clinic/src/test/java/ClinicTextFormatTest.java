@@ -0,0 +1,181 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClinicTextFormatTest {
+    private static final Owner OWNER = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+    private static final Pet REX = new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", OWNER);
+
+    private static List<Pet> parsePets(String text, LoadReport report) throws IOException {
+        List<Pet> pets = new ArrayList<>();
+        try (RecordReader record = new RecordReader(new StringReader(text))) {
+            while (record.next()) {
+                Pet pet = ClinicTextFormat.parsePet(record, report);
+                if (pet != null) {
+                    pets.add(pet);
+                    report.recordSuccess();
+                }
+            }
+        }
+        return pets;
+    }
+
+    private static Appointment parseAppointment(String line, LoadReport report) throws IOException {
+        try (RecordReader record = new RecordReader(new StringReader(line))) {
+            assertTrue(record.next());
+            return ClinicTextFormat.parseAppointment(record, Map.of("Rex", REX)::get, report);
+        }
+    }
+
+    @Test
+    void commasInTheAddressStayInTheAddress() throws IOException {
+        LoadReport report = new LoadReport();
+        List<Pet> pets = parsePets("Rex, 3, Brown, 20.5, Dog: Labrador, Mary Byrne, 0871234567, 1 Main Street, Apt 2, Belfast\n", report);
+
+        assertEquals(1, pets.size());
+        assertEquals("1 Main Street, Apt 2, Belfast", pets.get(0).getOwner().getAddress());
+        assertEquals("Labrador", pets.get(0).getBreed());
+        assertTrue(report.getErrors().isEmpty());
+    }
+
+    // Blank lines are skipped but still counted, so the numbers match what an editor shows.
+    @Test
+    void malformedLinesAreReportedWithTheirLineNumbers() throws IOException {
+        String text = "Rex, 3, Brown, 20.5, Dog: Labrador, Mary Byrne, 0871234567, 1 Main Street\n" +
+                "Tom, three, Grey, 4.0, Cat: Persian, Mary Byrne, 0871234567, 1 Main Street\n" +
+                "\n" +
+                "Tom, 5, Grey, 4.0, Cat: Persian\n" +
+                "Tom, 5, Grey, heavy, Cat: Persian, Mary Byrne, 0871234567, 1 Main Street\n" +
+                "Tom, 5, Grey, 4.0, Persian, Mary Byrne, 0871234567, 1 Main Street\n" +
+                "Tom, 5, Grey, 4.0, Cat: Persian, Mary Byrne, 08712, 1 Main Street\n" +
+                "Tom, 40, Grey, 4.0, Cat: Persian, Mary Byrne, 0871234567, 1 Main Street\n";
+        LoadReport report = new LoadReport();
+
+        assertEquals(1, parsePets(text, report).size());
+        assertEquals(1, report.getLoaded());
+        assertEquals(6, report.getFailed());
+        assertEquals(List.of(
+                "line 2: age is not a whole number",
+                "line 4: expected 8 fields but found 5",
+                "line 5: weight is not a number",
+                "line 6: expected 'Type: Breed'",
+                "line 7: Invalid phone number format. Must be 10 digits, start with '07' (11 digits), or start with '+' (12-13 digits)",
+                "line 8: Invalid age. Age must be between 0 and 30."), report.getErrors());
+    }
+
+    @Test
+    void crlfLinesAndLinesPastTheFirstBufferParse() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("Pet, 3, Brown, 20.5, Hamster: Syrian, Mary Byrne, 0871234567, ").append(i).append(" Main Street\r\n");
+        }
+        LoadReport report = new LoadReport();
+        List<Pet> pets = parsePets(text.toString(), report);
+
+        assertTrue(text.length() > 64 * 1024);
+        assertEquals(2000, pets.size());
+        assertEquals("1999 Main Street", pets.get(1999).getOwner().getAddress());
+        assertEquals("Hamster", pets.get(1999).getType());
+    }
+
+    @Test
+    void aWrittenPetParsesBackTheSame() throws IOException {
+        Owner owner = new Owner("Mary Byrne", "+353871234567", "1 Main Street, Apt 2");
+        Pet written = new Pet.Cat("Tom", 5, "Grey", 4.25, "Persian", owner);
+        StringWriter text = new StringWriter();
+        try (BufferedWriter out = new BufferedWriter(text)) {
+            ClinicTextFormat.writePet(out, written);
+        }
+
+        List<Pet> pets = parsePets(text.toString(), new LoadReport());
+        assertEquals(1, pets.size());
+        Pet read = pets.get(0);
+        assertEquals("Cat", read.getType());
+        assertEquals("Tom", read.getName());
+        assertEquals(5, read.age);
+        assertEquals("Grey", read.getColour());
+        assertEquals(4.25, read.weight);
+        assertEquals("Persian", read.getBreed());
+        assertEquals("Mary Byrne", read.getOwner().getName());
+        assertEquals("+353871234567", read.getOwner().getPhoneNumber());
+        assertEquals("1 Main Street, Apt 2", read.getOwner().getAddress());
+    }
+
+    @Test
+    void commasInTheReasonStayInTheReason() throws IOException {
+        LoadReport report = new LoadReport();
+        Appointment withDuration = parseAppointment("Rex, 09:30 01/02/2020, Limping, front left, Dr Smith, 45, COMPLETED", report);
+        Appointment withoutDuration = parseAppointment("Rex, 09:30 01/02/2020, Limping, front left, Dr Smith, SCHEDULED", report);
+
+        assertTrue(report.getErrors().isEmpty());
+        assertEquals("Limping, front left", withDuration.getReason());
+        assertEquals("Dr Smith", withDuration.getVeterinarian().getName());
+        assertEquals(45, withDuration.getDuration());
+        assertEquals(Appointment.AppointmentStatus.COMPLETED, withDuration.getStatus());
+        assertEquals(LocalDateTime.of(2020, 2, 1, 9, 30), withDuration.getDateTime());
+        assertEquals("Limping, front left", withoutDuration.getReason());
+        assertEquals(Appointment.DEFAULT_DURATION, withoutDuration.getDuration());
+    }
+
+    @Test
+    void badAppointmentsSayWhatIsWrong() throws IOException {
+        LoadReport report = new LoadReport();
+        assertNull(parseAppointment("Max, 09:30 01/02/2020, Checkup, Dr Smith, SCHEDULED", report));
+        assertNull(parseAppointment("Rex, 9:30 01/02/2020, Checkup, Dr Smith, SCHEDULED", report));
+        assertNull(parseAppointment("Rex, 09:30 30/02/2020, Checkup, Dr Smith, SCHEDULED", report));
+        assertNull(parseAppointment("Rex, 09:30 01/02/2020, Checkup, Dr Smith, BOOKED", report));
+        assertNull(parseAppointment("Rex, 09:30 01/02/2020, Checkup, Dr Smith 2, SCHEDULED", report));
+        assertNull(parseAppointment("Rex, 09:30 01/02/2020, Dr Smith, SCHEDULED", report));
+
+        assertEquals(List.of(
+                "line 1: pet 'Max' not found",
+                "line 1: date and time must use HH:mm dd/MM/yyyy",
+                "line 1: date and time must use HH:mm dd/MM/yyyy",
+                "line 1: unknown status 'BOOKED'",
+                "line 1: Veterinarian name cannot contain numbers",
+                "line 1: expected at least 5 fields but found 4"), report.getErrors());
+    }
+
+    @Test
+    void aWrittenAppointmentParsesBackTheSame() throws IOException {
+        Appointment written = Appointment.restore(REX, LocalDateTime.of(2020, 2, 1, 9, 30), "Limping, front left",
+                "Dr Smith", 45, Appointment.AppointmentStatus.CANCELLED);
+        StringWriter text = new StringWriter();
+        try (BufferedWriter out = new BufferedWriter(text)) {
+            ClinicTextFormat.writeAppointment(out, written);
+        }
+
+        Appointment read = parseAppointment(text.toString(), new LoadReport());
+        assertEquals(written.getDateTime(), read.getDateTime());
+        assertEquals(written.getReason(), read.getReason());
+        assertEquals("Dr Smith", read.getVeterinarian().getName());
+        assertEquals(45, read.getDuration());
+        assertEquals(Appointment.AppointmentStatus.CANCELLED, read.getStatus());
+    }
+
+    @Test
+    void numbersAreReadWithoutParsingExceptions() throws IOException {
+        try (RecordReader record = new RecordReader(new StringReader("12, -7, 3.5, -0.25, 1e3, , x:y"))) {
+            assertTrue(record.next());
+            assertEquals(7, record.getFieldCount());
+            assertEquals(12, record.getInt(0, -1));
+            assertEquals(-7, record.getInt(1, -1));
+            assertEquals(-1, record.getInt(2, -1));
+            assertEquals(3.5, record.getDouble(2, Double.NaN));
+            assertEquals(-0.25, record.getDouble(3, Double.NaN));
+            assertEquals(-1, record.getInt(5, -1));
+            assertEquals("y", record.getSubField(6, ':', 1));
+            assertNull(record.getSubField(5, ':', 0));
+            assertFalse(record.next());
+        }
+    }
+}
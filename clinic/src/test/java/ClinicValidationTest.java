@@ -0,0 +1,135 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClinicValidationTest {
+    private static final List<String> PHONE_NUMBERS = Arrays.asList(
+            "0871234567", " 087 123 4567 ", "087-123-4567", "(087) 123-4567",
+            "07123456789", "0712345678", "071234567890",
+            "+353871234567", "+44 7123 456789", "+44-20-7946-0958", "+4412345678", "+44123456789012",
+            "087+1234567", "0871234567+", "++353871234567",
+            "123456789", "12345678901", "phone", "", "   ", null);
+
+    private static final List<String> VETERINARIAN_NAMES = Arrays.asList(
+            "Dr Smith", "  Dr   Smith  ", "dr smith", "DR SMITH", "Dr\tSmith", "Dr Smith2", "Dr O'Brien",
+            "Dr Smith-Jones", "Dr Müller", "", "   ", null);
+
+    // The setters before ClinicValidation, kept here as the reference the scans must agree with.
+    private static String oldPhoneNumber(String phoneNumber) {
+        if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
+            throw new IllegalArgumentException("Phone number cannot be empty");
+        }
+        phoneNumber = phoneNumber.trim();
+        if (phoneNumber.contains("+") && !phoneNumber.startsWith("+")) {
+            throw new IllegalArgumentException("Invalid phone number: '+' can only be at the start");
+        }
+        String cleanedNumber = phoneNumber.startsWith("+")
+                ? "+" + phoneNumber.substring(1).replaceAll("[^0-9]", "")
+                : phoneNumber.replaceAll("[^0-9]", "");
+        if ((cleanedNumber.startsWith("+") && (cleanedNumber.length() < 12 || cleanedNumber.length() > 13)) ||
+                (cleanedNumber.startsWith("07") && cleanedNumber.length() != 11) ||
+                (!cleanedNumber.startsWith("+") && !cleanedNumber.startsWith("07") && cleanedNumber.length() != 10)) {
+            throw new IllegalArgumentException("Invalid phone number format. Must be 10 digits, start with '07' (11 digits), or start with '+' (12-13 digits)");
+        }
+        return cleanedNumber;
+    }
+
+    private static String oldVeterinarianName(String veterinarian) {
+        if (veterinarian == null || veterinarian.trim().isEmpty()) {
+            throw new IllegalArgumentException("Veterinarian name cannot be empty");
+        }
+        if (!veterinarian.matches("[a-zA-Z ]+")) {
+            throw new IllegalArgumentException("Veterinarian name cannot contain numbers");
+        }
+        return veterinarian.trim();
+    }
+
+    private static String oldVeterinarianKey(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // The old value on success, or the old message prefixed with "error: ".
+    private static String outcome(ClinicValidation.Result result) {
+        return result.isValid() ? result.getValue() : "error: " + result.getError();
+    }
+
+    @Test
+    void phoneNumbersMatchTheOldRules() {
+        for (String phoneNumber : PHONE_NUMBERS) {
+            String expected;
+            try {
+                expected = oldPhoneNumber(phoneNumber);
+            } catch (IllegalArgumentException e) {
+                expected = "error: " + e.getMessage();
+            }
+            assertEquals(expected, outcome(ClinicValidation.phoneNumber(phoneNumber)), "phone number '" + phoneNumber + "'");
+        }
+    }
+
+    // Names are stored with runs of spaces collapsed, which the old setter left in; the checks are unchanged.
+    @Test
+    void veterinarianNamesMatchTheOldRules() {
+        for (String name : VETERINARIAN_NAMES) {
+            String expected;
+            try {
+                expected = oldVeterinarianName(name).replaceAll(" +", " ");
+            } catch (IllegalArgumentException e) {
+                expected = "error: " + e.getMessage();
+            }
+            assertEquals(expected, outcome(ClinicValidation.veterinarianName(name)), "veterinarian '" + name + "'");
+        }
+    }
+
+    @Test
+    void veterinarianKeysMatchTheOldNormalization() {
+        for (String name : Arrays.asList("Dr Smith", "  Dr   Smith  ", "DR\tSMITH", "dr\n smith", "Dr Smith2", "x", "")) {
+            assertEquals(oldVeterinarianKey(name), Veterinarian.normalizeName(name), "veterinarian '" + name + "'");
+        }
+        assertEquals(new Veterinarian("Dr  Smith"), new Veterinarian(" dr smith"));
+    }
+
+    @Test
+    void collapseWhitespaceMatchesTheRegex() {
+        for (String text : Arrays.asList("a", " a ", "a b", "a  b", "a \tb", "a\tb", "a\r\nb", "a \u000B\fb c ", "\t")) {
+            assertEquals(text.trim().replaceAll("\\s+", " "), ClinicValidation.collapseWhitespace(text), "'" + text + "'");
+        }
+    }
+
+    @Test
+    void checksReportErrorsAndOrThrowRaisesThem() {
+        ClinicValidation.Result bad = ClinicValidation.phoneNumber("087+1234567");
+        assertFalse(bad.isValid());
+        assertNull(bad.getValue());
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, bad::orThrow);
+        assertEquals(bad.getError(), thrown.getMessage());
+
+        assertEquals("Mary Byrne", ClinicValidation.ownerName("  Mary Byrne ").orThrow());
+        assertEquals("Owner name cannot be empty", ClinicValidation.ownerName(" ").getError());
+        assertEquals("Address cannot be empty", ClinicValidation.address(null).getError());
+        assertThrows(IllegalArgumentException.class, () -> new Owner("Mary Byrne", "12345", "1 Main Street"));
+    }
+
+    @Test
+    void enteredPetNamesAllowLettersDigitsAndSpacesUpToTheLimit() {
+        assertTrue(ClinicValidation.enteredPetName("Rex 2").isValid());
+        assertTrue(ClinicValidation.enteredPetName("abcdefghijklmnop").isValid());
+        assertEquals("Pet name cannot exceed 16 characters.", ClinicValidation.enteredPetName("abcdefghijklmnopq").getError());
+        assertEquals("Pet name cannot contain special characters.", ClinicValidation.enteredPetName("Rex!").getError());
+        assertEquals("Pet name cannot contain special characters.", ClinicValidation.enteredPetName("").getError());
+    }
+
+    @Test
+    void agesAndWeightsHaveInclusiveLimits() {
+        assertNull(ClinicValidation.ageError(0));
+        assertNull(ClinicValidation.ageError(30));
+        assertNotNull(ClinicValidation.ageError(-1));
+        assertNotNull(ClinicValidation.ageError(31));
+        assertNull(ClinicValidation.weightError(300));
+        assertNotNull(ClinicValidation.weightError(0));
+        assertNotNull(ClinicValidation.weightError(300.5));
+    }
+}
@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PetQueryTest {
+    @TempDir
+    Path directory;
+
+    private ClinicService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ClinicService(directory.resolve("ClinicSnapshot.dat"), directory.resolve("ClinicJournal.log"));
+        Owner byrne = new Owner("Mary Byrne", "0871234567", "1 Main Street");
+        Owner walsh = new Owner("Sean Walsh", "0861234567", "2 High Street");
+        Owner ahern = new Owner("Anne Ahern", "0851234567", "3 Bridge Street");
+        service.addPet(new Pet.Dog("Rex", 3, "Brown", 20.5, "Labrador", walsh));
+        service.addPet(new Pet.Cat("Bella", 5, "Grey", 4.0, "Persian", byrne));
+        service.addPet(new Pet.Dog("Max", 2, "Black", 30.0, "Boxer", ahern));
+        service.addPet(new Pet.Cat("Max", 7, "White", 3.5, "Siamese", byrne));
+        service.addPet(new Pet.Hamster("Coco", 1, "Gold", 0.1, "Syrian", walsh));
+    }
+
+    private List<String> walk(PetQuery.Order order, int pageSize) {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            PetPage page = service.findPets(new PetQuery().orderBy(order).limit(pageSize).after(cursor));
+            assertTrue(page.getPets().size() <= pageSize);
+            for (Pet pet : page.getPets()) {
+                seen.add(pet.getName() + "/" + pet.getOwner().getName());
+            }
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.hasMore());
+        } while (cursor != null);
+        return seen;
+    }
+
+    @Test
+    void pagesWalkEveryPetOnceInNameOrder() {
+        List<String> expected = List.of("Bella/Mary Byrne", "Coco/Sean Walsh", "Max/Anne Ahern", "Max/Mary Byrne",
+                "Rex/Sean Walsh");
+        assertEquals(expected, walk(PetQuery.Order.NAME, 2));
+        assertEquals(expected, walk(PetQuery.Order.NAME, 1));
+        assertEquals(expected, walk(PetQuery.Order.NAME, 10));
+    }
+
+    @Test
+    void pagesWalkEveryPetOnceInOwnerOrder() {
+        assertEquals(List.of("Max/Anne Ahern", "Bella/Mary Byrne", "Max/Mary Byrne", "Coco/Sean Walsh",
+                "Rex/Sean Walsh"), walk(PetQuery.Order.OWNER, 2));
+    }
+
+    // The cursor holds the last pet's sort key, so renaming or deleting that pet does not lose the place.
+    @Test
+    void theNextPageDoesNotDependOnTheLastPetStillBeingThere() {
+        PetPage first = service.findPets(new PetQuery().limit(2));
+        Pet last = first.getPets().get(1);
+        assertEquals("Coco", last.getName());
+        service.modifyPet(last, pet -> pet.setName("Zara"));
+        PetPage second = service.findPets(new PetQuery().limit(2).after(first.getNextCursor()));
+        assertEquals("Max", second.getPets().get(0).getName());
+
+        service.removePet(second.getPets().get(1));
+        PetPage third = service.findPets(new PetQuery().limit(2).after(second.getNextCursor()));
+        assertEquals(List.of("Rex", "Zara"), List.of(third.getPets().get(0).getName(), third.getPets().get(1).getName()));
+        assertFalse(third.hasMore());
+    }
+
+    @Test
+    void badCursorsAndPageSizesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PetQuery().after("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> new PetQuery().after("name.!!!.1"));
+        assertThrows(IllegalArgumentException.class, () -> new PetQuery().limit(0));
+    }
+}
@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextIndexTest {
+    // Items are indexed under two fields, a name and a note, and tie-broken alphabetically.
+    private static TextIndex<String> index(String... itemsAndFields) {
+        TextIndex<String> index = new TextIndex<>(2, Comparator.<String>naturalOrder());
+        for (int i = 0; i < itemsAndFields.length; i += 3) {
+            index.index(itemsAndFields[i], itemsAndFields[i + 1], itemsAndFields[i + 2]);
+        }
+        return index;
+    }
+
+    @Test
+    void exactBeatsPrefixBeatsSubstringBeatsTypo() {
+        TextIndex<String> index = index(
+                "typo", "Bela", "",
+                "substring", "Isabella", "",
+                "prefix", "Bellamy", "",
+                "exact", "Bella", "");
+        assertEquals(List.of("exact", "prefix", "substring", "typo"), index.search("bella", 10));
+    }
+
+    @Test
+    void earlierFieldsRankFirstWithinAMatchQuality() {
+        TextIndex<String> index = index(
+                "in note", "Rex", "max was here",
+                "in name", "Max", "");
+        assertEquals(List.of("in name", "in note"), index.search("max", 10));
+    }
+
+    @Test
+    void searchStopsAtTheLimitAfterTheBestMatches() {
+        TextIndex<String> index = index(
+                "c", "Maxwell", "",
+                "b", "Max", "",
+                "a", "Max", "");
+        assertEquals(List.of("a", "b"), index.search("max", 2));
+        assertTrue(index.search("max", 0).isEmpty());
+    }
+
+    @Test
+    void everyQueryWordMustMatchSomeWordOfTheItem() {
+        TextIndex<String> index = index(
+                "rex byrne", "Rex", "Mary Byrne",
+                "rex walsh", "Rex", "Sean Walsh");
+        assertEquals(List.of("rex byrne"), index.search("rex byr", 10));
+        assertEquals(List.of("rex walsh"), index.search("walsh rex", 10));
+        assertTrue(index.search("rex murphy", 10).isEmpty());
+    }
+
+    @Test
+    void shortWordsOnlyMatchFromTheirStart() {
+        TextIndex<String> index = index("item", "Isabella", "");
+        assertTrue(index.search("be", 10).isEmpty());
+        assertEquals(List.of("item"), index.search("bel", 10));
+        assertEquals(List.of("item"), index.search("is", 10));
+    }
+
+    @Test
+    void typosNeedFourLetters() {
+        TextIndex<String> index = index("item", "Rex", "allergy");
+        assertTrue(index.search("rez", 10).isEmpty());
+        assertEquals(List.of("item"), index.search("alergy", 10));
+        assertEquals(List.of("item"), index.search("allegry", 10));
+        assertEquals(List.of("item"), index.search("allergyy", 10));
+        assertEquals(List.of("item"), index.search("allerjy", 10));
+    }
+
+    @Test
+    void reindexingAndRemovingReplaceWhatAnItemIsFoundUnder() {
+        TextIndex<String> index = index("pet", "Rex", "");
+        index.index("pet", "Max", "");
+        assertTrue(index.search("rex", 10).isEmpty());
+        assertEquals(List.of("pet"), index.search("max", 10));
+        index.remove("pet");
+        assertTrue(index.search("max", 10).isEmpty());
+    }
+
+    @Test
+    void oneTypoApartCoversEachKindOfTypo() {
+        assertTrue(TextIndex.isOneTypoApart("bella", "bela"));
+        assertTrue(TextIndex.isOneTypoApart("bela", "bella"));
+        assertTrue(TextIndex.isOneTypoApart("bella", "bolla"));
+        assertTrue(TextIndex.isOneTypoApart("bella", "blela"));
+        assertTrue(TextIndex.isOneTypoApart("bella", "bellas"));
+        assertFalse(TextIndex.isOneTypoApart("bella", "bella"));
+        assertFalse(TextIndex.isOneTypoApart("bella", "bel"));
+        assertFalse(TextIndex.isOneTypoApart("bella", "bolly"));
+        assertFalse(TextIndex.isOneTypoApart("bella", "ebllb"));
+    }
+
+    @Test
+    void tokenizeSplitsOnPunctuationLowercasesAndDropsRepeats() {
+        assertArrayEquals(new String[] {"mary", "o", "byrne", "no", "5"},
+                TextIndex.tokenize("Mary O'Byrne, no. 5 mary"));
+        assertEquals(0, TextIndex.tokenize(null).length);
+    }
+}